@@ -0,0 +1,21 @@
+package com.cristianml.SSDMonitoringApi.config;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalDate;
+
+// Stores a date as days since 1970-01-01 so it compares and indexes as an integer
+@Converter
+public class EpochDayConverter implements AttributeConverter<LocalDate, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(LocalDate attribute) {
+        return attribute == null ? null : attribute.toEpochDay();
+    }
+
+    @Override
+    public LocalDate convertToEntityAttribute(Long dbData) {
+        return dbData == null ? null : LocalDate.ofEpochDay(dbData);
+    }
+}
@@ -0,0 +1,22 @@
+package com.cristianml.SSDMonitoringApi.config;
+
+import com.cristianml.SSDMonitoringApi.utilities.TbwBlockCodec;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalDateTime;
+
+// Stores a date-time as milliseconds since 1970-01-01T00:00, the encoding TbwBlockCodec uses inside blocks
+@Converter
+public class EpochMillisConverter implements AttributeConverter<LocalDateTime, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(LocalDateTime attribute) {
+        return attribute == null ? null : TbwBlockCodec.toMillis(attribute);
+    }
+
+    @Override
+    public LocalDateTime convertToEntityAttribute(Long dbData) {
+        return dbData == null ? null : TbwBlockCodec.fromMillis(dbData);
+    }
+}
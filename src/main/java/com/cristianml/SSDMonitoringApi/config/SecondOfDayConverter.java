@@ -0,0 +1,21 @@
+package com.cristianml.SSDMonitoringApi.config;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalTime;
+
+// Stores a time as seconds since midnight, the precision LocalTimeConverter already kept
+@Converter
+public class SecondOfDayConverter implements AttributeConverter<LocalTime, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(LocalTime attribute) {
+        return attribute == null ? null : attribute.toSecondOfDay();
+    }
+
+    @Override
+    public LocalTime convertToEntityAttribute(Integer dbData) {
+        return dbData == null ? null : LocalTime.ofSecondOfDay(dbData);
+    }
+}
@@ -0,0 +1,5 @@
+package com.cristianml.SSDMonitoringApi.config;
+
+// Published once the background conversion copied the last rows of the old tbw_records table
+public record TbwRecordMigrationCompletedEvent(long migratedRows) {
+}
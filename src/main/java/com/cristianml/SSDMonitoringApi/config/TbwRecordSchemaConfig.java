@@ -0,0 +1,25 @@
+package com.cristianml.SSDMonitoringApi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class TbwRecordSchemaConfig {
+
+    @Bean
+    public TbwRecordSchemaMigration tbwRecordSchemaMigration(DataSource dataSource,
+                                                             @Value("${tbw.records.migration.batch-size:5000}") int batchSize,
+                                                             @Value("${tbw.records.migration.pause-ms:50}") long pauseMillis) {
+        return new TbwRecordSchemaMigration(dataSource, batchSize, pauseMillis);
+    }
+
+    // The schema has to be in place before Hibernate validates and updates it
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor tbwRecordSchemaMigrationDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor("tbwRecordSchemaMigration");
+    }
+}
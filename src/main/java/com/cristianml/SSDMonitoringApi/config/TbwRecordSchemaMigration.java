@@ -0,0 +1,191 @@
+package com.cristianml.SSDMonitoringApi.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Owns the tbw_records schema: integer epoch day and second of day columns, a unique index on
+// (epoch_day, ssd_id) and covering indexes for per-SSD and per-day lookups
+// Runs before Hibernate (see TbwRecordSchemaConfig). A database with the former TEXT date/time columns
+// is converted online: the old table is renamed, the new table is created and the newest batch is
+// copied in one short transaction, so today's records are in place and new ids stay above the old ones.
+// The remaining rows are copied newest first in small transactions on a background thread once the
+// application is ready, so the write lock is only held per batch and the scheduler keeps recording.
+// An interrupted copy resumes from the rows left in the old table on the next start.
+// A TbwRecordMigrationCompletedEvent is published when the last rows are in place
+public class TbwRecordSchemaMigration implements ApplicationEventPublisherAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(TbwRecordSchemaMigration.class);
+
+    static final String LEGACY_TABLE = "tbw_records_legacy";
+
+    // Same definitions Hibernate derives from TbwRecordEntity, which it then finds in place
+    private static final List<String> SCHEMA = List.of(
+            "CREATE TABLE IF NOT EXISTS tbw_records (id integer, epoch_day INTEGER not null, second_of_day INTEGER not null, "
+                    + "tbw bigint not null, ssd_id bigint not null, primary key (id))",
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_tbw_records_day_ssd ON tbw_records (epoch_day, ssd_id)",
+            "CREATE INDEX IF NOT EXISTS idx_tbw_records_ssd_day ON tbw_records (ssd_id, epoch_day, second_of_day, tbw)",
+            "CREATE INDEX IF NOT EXISTS idx_tbw_records_day ON tbw_records (epoch_day, second_of_day, ssd_id, tbw)");
+
+    // Dates were stored as yyyy-MM-dd and times as HH:mm:ss; on duplicated (date, ssd) rows the newest id is kept
+    private static final String COPY_BATCH = "INSERT OR IGNORE INTO tbw_records (id, epoch_day, second_of_day, tbw, ssd_id) "
+            + "SELECT id, CAST(strftime('%s', date) AS INTEGER) / 86400, CAST(strftime('%s', '1970-01-01 ' || time) AS INTEGER), tbw, ssd_id "
+            + "FROM " + LEGACY_TABLE + " WHERE id >= ? ORDER BY id DESC";
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    // Written by one thread at a time (startup, then the copy thread), read from any thread
+    private volatile boolean pending;
+    private volatile long migratedRows;
+    private volatile long longestBatchMillis;
+
+    public TbwRecordSchemaMigration(DataSource dataSource, int batchSize, long pauseMillis) {
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Creates the schema, starts a conversion of TEXT columns and copies its first batch
+    @PostConstruct
+    public void prepare() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean textColumns = columns(connection, "tbw_records").contains("date");
+            boolean legacyTable = !columns(connection, LEGACY_TABLE).isEmpty();
+            if (textColumns && legacyTable) {
+                throw new IllegalStateException("Both tbw_records with TEXT columns and " + LEGACY_TABLE + " exist, resolve manually");
+            }
+
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                if (textColumns) {
+                    logger.info("Converting tbw_records to integer date and time columns");
+                    statement.execute("ALTER TABLE tbw_records RENAME TO " + LEGACY_TABLE);
+                }
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+                if (textColumns || legacyTable) {
+                    migratedRows += copyBatch(connection);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            pending = textColumns || legacyTable;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (pending) {
+            Thread.ofVirtual().name("tbw-records-migration").start(this::copyRemaining);
+        }
+    }
+
+    // Copies the rest of the old table batch by batch and drops it once empty
+    void copyRemaining() {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                while (true) {
+                    long batchStart = System.nanoTime();
+                    int copied = copyBatch(connection);
+                    connection.commit();
+                    longestBatchMillis = Math.max(longestBatchMillis, (System.nanoTime() - batchStart) / 1_000_000);
+                    if (copied == 0) {
+                        break;
+                    }
+                    migratedRows += copied;
+                    Thread.sleep(pauseMillis);
+                }
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE " + LEGACY_TABLE);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            pending = false;
+            logger.info("Converted {} tbw_records rows in {} ms, longest batch held the write lock for {} ms",
+                    migratedRows, (System.nanoTime() - start) / 1_000_000, longestBatchMillis);
+            if (eventPublisher != null) {
+                eventPublisher.publishEvent(new TbwRecordMigrationCompletedEvent(migratedRows));
+            }
+        } catch (SQLException e) {
+            logger.error("tbw_records conversion stopped after {} rows, it resumes on the next start", migratedRows, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // True while rows of the old table are still being copied
+    public boolean isPending() {
+        return pending;
+    }
+
+    // Moves the newest batch of the old table, returns the number of old rows consumed
+    private int copyBatch(Connection connection) throws SQLException {
+        long lowestId;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT MIN(id) FROM (SELECT id FROM " + LEGACY_TABLE + " ORDER BY id DESC LIMIT ?)")) {
+            select.setInt(1, batchSize);
+            try (ResultSet result = select.executeQuery()) {
+                if (!result.next()) {
+                    return 0;
+                }
+                lowestId = result.getLong(1);
+                if (result.wasNull()) {
+                    return 0;
+                }
+            }
+        }
+        try (PreparedStatement copy = connection.prepareStatement(COPY_BATCH);
+             PreparedStatement delete = connection.prepareStatement("DELETE FROM " + LEGACY_TABLE + " WHERE id >= ?")) {
+            copy.setLong(1, lowestId);
+            copy.executeUpdate();
+            delete.setLong(1, lowestId);
+            return delete.executeUpdate();
+        }
+    }
+
+    private static Set<String> columns(Connection connection, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (result.next()) {
+                columns.add(result.getString("name"));
+            }
+        }
+        return columns;
+    }
+}
@@ -1,10 +1,16 @@
 package com.cristianml.SSDMonitoringApi.controller;
 
+import com.cristianml.SSDMonitoringApi.dto.response.AcquisitionStatsResponseDTO;
+import com.cristianml.SSDMonitoringApi.dto.response.DeviceScanResponseDTO;
 import com.cristianml.SSDMonitoringApi.dto.response.SSDResponseDTO;
 import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordResponseDTO;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceCircuitBreaker;
+import com.cristianml.SSDMonitoringApi.hardware.ManagedProcessExecutor;
+import com.cristianml.SSDMonitoringApi.mapper.SSDMapper;
 import com.cristianml.SSDMonitoringApi.service.impl.HardwareServiceImpl;
 import com.cristianml.SSDMonitoringApi.service.impl.SSDServiceImpl;
 import com.cristianml.SSDMonitoringApi.service.impl.TbwRecordServiceImpl;
+import com.cristianml.SSDMonitoringApi.service.impl.WriteRateServiceImpl;
 import com.cristianml.SSDMonitoringApi.utilities.Utilities;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,11 +26,20 @@ public class SSDController {
     private final SSDServiceImpl ssdService;
     private final HardwareServiceImpl hardwareService;
     private final TbwRecordServiceImpl tbwRecordService;
+    private final SSDMapper ssdMapper;
+    private final ManagedProcessExecutor processExecutor;
+    private final DeviceCircuitBreaker circuitBreaker;
+    private final WriteRateServiceImpl writeRateService;
 
-    public SSDController(SSDServiceImpl ssdService, HardwareServiceImpl hardwareService, TbwRecordServiceImpl tbwRecordService) {
+    public SSDController(SSDServiceImpl ssdService, HardwareServiceImpl hardwareService, TbwRecordServiceImpl tbwRecordService, SSDMapper ssdMapper,
+                         ManagedProcessExecutor processExecutor, DeviceCircuitBreaker circuitBreaker, WriteRateServiceImpl writeRateService) {
         this.ssdService = ssdService;
         this.hardwareService = hardwareService;
         this.tbwRecordService = tbwRecordService;
+        this.ssdMapper = ssdMapper;
+        this.processExecutor = processExecutor;
+        this.circuitBreaker = circuitBreaker;
+        this.writeRateService = writeRateService;
     }
 
     @GetMapping
@@ -39,6 +54,31 @@ public class SSDController {
         return ResponseEntity.ok(detectedSSDs);
     }
 
+    // Probes all devices and reports which ones timed out or failed instead of only the detected SSDs
+    @GetMapping("/scan")
+    public ResponseEntity<DeviceScanResponseDTO> scanDevices() {
+        DeviceScanResponseDTO scanResult = this.ssdMapper.toDeviceScanResponseDTO(this.hardwareService.scanDevices());
+        return ResponseEntity.ok(scanResult);
+    }
+
+    // Counters of external processes, devices currently skipped by their circuit breaker
+    // and hardware reads served by an acquisition another caller had in flight
+    @GetMapping("/acquisition-stats")
+    public ResponseEntity<AcquisitionStatsResponseDTO> getAcquisitionStats() {
+        List<String> openDevices = this.circuitBreaker.openDevices();
+        return ResponseEntity.ok(AcquisitionStatsResponseDTO.builder()
+                .processesSpawned(this.processExecutor.getSpawned())
+                .processesCompleted(this.processExecutor.getCompleted())
+                .processesTimedOut(this.processExecutor.getTimedOut())
+                .processesFailed(this.processExecutor.getFailed())
+                .processesRunning(this.processExecutor.getRunning())
+                .openBreakers(openDevices.size())
+                .openBreakerDevices(openDevices)
+                .coalescedScans(this.hardwareService.getCoalescedScans())
+                .coalescedReads(this.hardwareService.getCoalescedReads())
+                .build());
+    }
+
     @PostMapping("/detect-and-register")
     public ResponseEntity<Object> detectAndRegisterSSD() {
         this.ssdService.detectAndRegisterSsd();
@@ -51,6 +91,14 @@ public class SSDController {
         return Utilities.generateResponse(HttpStatus.OK, "SSD Monitoring status updated successfully.");
     }
 
+    // Endurance rating in GB written, omit the parameter to clear it
+    @PatchMapping("/{id}/rated-tbw")
+    public ResponseEntity<Object> updateRatedTbw(@PathVariable long id, @RequestParam(value = "ratedTbwGB", required = false) Long ratedTbwGB) {
+        this.ssdService.updateRatedTbw(id, ratedTbwGB);
+        this.writeRateService.updateRatedTbw(id, ratedTbwGB);
+        return Utilities.generateResponse(HttpStatus.OK, "SSD rated TBW updated successfully.");
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<TbwRecordResponseDTO>> all() {
         this.ssdService.detectAndRegisterSsd();
@@ -1,16 +1,40 @@
 package com.cristianml.SSDMonitoringApi.controller;
 
 
+import com.cristianml.SSDMonitoringApi.domain.ExportFormat;
+import com.cristianml.SSDMonitoringApi.dto.response.ClockStatusResponseDTO;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwHistoryPointResponseDTO;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwImportResponseDTO;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordPageResponseDTO;
 import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordResponseDTO;
+import com.cristianml.SSDMonitoringApi.dto.response.WriteRateResponseDTO;
+import com.cristianml.SSDMonitoringApi.service.ITbwImport;
 import com.cristianml.SSDMonitoringApi.service.ITbwRecord;
+import com.cristianml.SSDMonitoringApi.service.ITbwSample;
+import com.cristianml.SSDMonitoringApi.service.IWriteRate;
+import com.cristianml.SSDMonitoringApi.service.impl.ClockMonitorService;
+import com.cristianml.SSDMonitoringApi.service.impl.TimeService;
+import com.cristianml.SSDMonitoringApi.service.impl.TrustedClock;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RequiredArgsConstructor
 @RestController
@@ -18,6 +42,12 @@ import java.util.List;
 public class TbwRecordController {
 
     private final ITbwRecord tbwRecordService;
+    private final ITbwImport tbwImportService;
+    private final ITbwSample tbwSampleService;
+    private final IWriteRate writeRateService;
+    private final TimeService timeService;
+    private final TrustedClock trustedClock;
+    private final ClockMonitorService clockMonitorService;
 
     @GetMapping
     public ResponseEntity<List<TbwRecordResponseDTO>> getAll() {
@@ -25,9 +55,113 @@ public class TbwRecordController {
         return ResponseEntity.ok(tbwRecordEntityList);
     }
 
+    // Daily records in pages of (ssd, date) order, of one SSD when ssdId is given, optionally limited to a date range
+    // The next page is requested with the nextAfterSsdId and nextAfterDate of the previous one, dates use ISO format
+    @GetMapping("/daily")
+    public ResponseEntity<TbwRecordPageResponseDTO> getDailyPage(
+            @RequestParam(required = false) Long ssdId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long afterSsdId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(this.tbwRecordService.findPage(ssdId, from, to, afterSsdId, afterDate, limit));
+    }
+
+    // Whole history as a download in csv or ndjson, optionally gzip-compressed
+    // Rows are written to the response as they are read from the database, so memory use does not grow with the history
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String fileName = "tbw-records." + exportFormat.name().toLowerCase(Locale.ROOT) + (gzip ? ".gz" : "");
+        MediaType mediaType = gzip ? MediaType.parseMediaType("application/gzip")
+                : exportFormat == ExportFormat.CSV ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                this.tbwRecordService.exportAll(exportFormat, compressed);
+                compressed.finish();
+            } else {
+                this.tbwRecordService.exportAll(exportFormat, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    // Bulk backfill of daily records from a csv or ndjson request body, e.g. curl --data-binary @history.csv
+    // Records already stored are kept; after a failure the same file is sent again with resumeAfterLine = committedLine
+    @PostMapping("/import")
+    public ResponseEntity<TbwImportResponseDTO> importRecords(
+            InputStream body,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "0") long resumeAfterLine) {
+        ExportFormat importFormat;
+        try {
+            importFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        TbwImportResponseDTO result = this.tbwImportService.importRecords(body, importFormat, resumeAfterLine);
+        return result.getError() == null ? ResponseEntity.ok(result) : ResponseEntity.internalServerError().body(result);
+    }
+
     @PostMapping("/auto")
     public ResponseEntity<Void> triggerAutoRegister() {
         this.tbwRecordService.autoRegisterTBW();
         return ResponseEntity.ok().build();
     }
+
+    // Intraday TBW history of one SSD, served from raw samples, hourly or daily rollups depending on the range
+    // Defaults to the 24 hours up to the trusted time, dates use ISO format, e.g. 2026-10-16T18:00
+    @GetMapping("/history/{ssdId}")
+    public ResponseEntity<List<TbwHistoryPointResponseDTO>> getHistory(
+            @PathVariable Long ssdId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : timeService.getCurrentDateTime();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        return ResponseEntity.ok(this.tbwSampleService.findHistory(ssdId, start, end));
+    }
+
+    // Write rates and projected endurance exhaustion of every SSD, served from memory
+    @GetMapping("/write-rates")
+    public ResponseEntity<List<WriteRateResponseDTO>> getWriteRates() {
+        return ResponseEntity.ok(this.writeRateService.findAll());
+    }
+
+    @GetMapping("/write-rates/{ssdId}")
+    public ResponseEntity<WriteRateResponseDTO> getWriteRate(@PathVariable Long ssdId) {
+        return this.writeRateService.findBySsdId(ssdId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // State of the trusted clock the scheduler dates records with
+    @GetMapping("/clock")
+    public ResponseEntity<ClockStatusResponseDTO> getClockStatus() {
+        return ResponseEntity.ok(ClockStatusResponseDTO.builder()
+                .synced(this.trustedClock.isSynced())
+                .zone(this.trustedClock.getZone().getId())
+                .trustedDateTime(this.trustedClock.currentDateTime())
+                .systemDateTime(LocalDateTime.now(this.trustedClock.getZone()))
+                .syncAgeMillis(this.trustedClock.getSyncAgeMillis())
+                .lastRoundTripMillis(this.trustedClock.getLastRoundTripMillis())
+                .estimatedDriftPpm(this.trustedClock.getEstimatedDriftPpm())
+                .clockJumps(this.clockMonitorService.getJumps())
+                .lastClockJumpMillis(this.clockMonitorService.getLastJumpMillis())
+                .build());
+    }
 }
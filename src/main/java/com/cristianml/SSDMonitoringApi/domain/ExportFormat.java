@@ -0,0 +1,7 @@
+package com.cristianml.SSDMonitoringApi.domain;
+
+// Formats of the full TBW history export, one line per daily record
+public enum ExportFormat {
+    CSV,
+    NDJSON
+}
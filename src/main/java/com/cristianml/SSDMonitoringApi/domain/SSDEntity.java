@@ -16,6 +16,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "ssds")
+@EntityListeners(SSDEntityListener.class)
 public class SSDEntity {
 
     @Id
@@ -38,6 +39,10 @@ public class SSDEntity {
     @Column(name = "is_monitored", nullable = false)
     private Boolean isMonitored;
 
+    // Manufacturer endurance rating in GB written, null when unknown
+    @Column(name = "rated_tbw_gb")
+    private Long ratedTbwGB;
+
     @OneToMany(mappedBy = "ssd", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<TbwRecordEntity> records = new ArrayList<>();
@@ -0,0 +1,26 @@
+package com.cristianml.SSDMonitoringApi.domain;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counts writes to the ssds table so in-memory copies of the monitored SSD list
+// can tell they are stale without querying the database
+public class SSDEntityListener {
+
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(SSDEntity ssd) {
+        VERSION.incrementAndGet();
+    }
+
+    // Increases every time an SSD is inserted, updated or deleted
+    public static long version() {
+        return VERSION.get();
+    }
+}
@@ -0,0 +1,8 @@
+package com.cristianml.SSDMonitoringApi.domain;
+
+// Storage tiers of the TBW time series, from raw samples to daily aggregates
+public enum SampleResolution {
+    RAW,
+    HOUR,
+    DAY
+}
@@ -1,13 +1,15 @@
 package com.cristianml.SSDMonitoringApi.domain;
 
-import com.cristianml.SSDMonitoringApi.config.LocalDateConverter;
-import com.cristianml.SSDMonitoringApi.config.LocalTimeConverter;
+import com.cristianml.SSDMonitoringApi.config.EpochDayConverter;
+import com.cristianml.SSDMonitoringApi.config.SecondOfDayConverter;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+// Date and time are stored as integers (epoch day, second of day); the table and its indexes are
+// created by TbwRecordSchemaMigration, which also converts databases with the former TEXT columns
 @Setter
 @Getter
 @Builder
@@ -15,7 +17,12 @@ import java.time.LocalTime;
 @AllArgsConstructor
 
 @Entity
-@Table(name = "tbw_records", uniqueConstraints = @UniqueConstraint(columnNames = {"date", "ssd_id"}))
+@Table(name = "tbw_records",
+        uniqueConstraints = @UniqueConstraint(name = "uk_tbw_records_day_ssd", columnNames = {"epoch_day", "ssd_id"}),
+        indexes = {
+                @Index(name = "idx_tbw_records_ssd_day", columnList = "ssd_id, epoch_day, second_of_day, tbw"),
+                @Index(name = "idx_tbw_records_day", columnList = "epoch_day, second_of_day, ssd_id, tbw")
+        })
 public class TbwRecordEntity {
 
     @Id
@@ -26,12 +33,12 @@ public class TbwRecordEntity {
     @JoinColumn(name = "ssd_id", nullable = false)
     private SSDEntity ssd;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
-    @Convert(converter = LocalDateConverter.class)
+    @Column(name = "epoch_day", nullable = false, columnDefinition = "INTEGER")
+    @Convert(converter = EpochDayConverter.class)
     private LocalDate date;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
-    @Convert(converter = LocalTimeConverter.class)
+    @Column(name = "second_of_day", nullable = false, columnDefinition = "INTEGER")
+    @Convert(converter = SecondOfDayConverter.class)
     private LocalTime time;
 
     @Column(nullable = false)
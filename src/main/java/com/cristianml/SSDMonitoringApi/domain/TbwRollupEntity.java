@@ -0,0 +1,53 @@
+package com.cristianml.SSDMonitoringApi.domain;
+
+import com.cristianml.SSDMonitoringApi.config.EpochMillisConverter;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Hourly or daily aggregate of TBW samples
+// deltaTbw is the growth since the last sample of the previous period, so deltas of consecutive
+// periods add up to the total written over the whole range
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+
+@Entity
+@Table(name = "tbw_rollups", uniqueConstraints = @UniqueConstraint(columnNames = {"ssd_id", "resolution", "period_start"}))
+public class TbwRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ssd_id", nullable = false)
+    private SSDEntity ssd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SampleResolution resolution;
+
+    @Column(name = "period_start", nullable = false, columnDefinition = "INTEGER")
+    @Convert(converter = EpochMillisConverter.class)
+    private LocalDateTime periodStart;
+
+    @Column(name = "min_tbw", nullable = false)
+    private Long minTbw;
+
+    @Column(name = "max_tbw", nullable = false)
+    private Long maxTbw;
+
+    @Column(name = "last_tbw", nullable = false)
+    private Long lastTbw;
+
+    @Column(name = "delta_tbw", nullable = false)
+    private Long deltaTbw;
+
+    @Column(name = "sample_count", nullable = false)
+    private Integer sampleCount;
+
+}
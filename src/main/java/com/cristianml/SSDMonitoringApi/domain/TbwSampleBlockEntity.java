@@ -0,0 +1,42 @@
+package com.cristianml.SSDMonitoringApi.domain;
+
+import com.cristianml.SSDMonitoringApi.config.EpochMillisConverter;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A sealed run of raw samples of one SSD encoded with TbwBlockCodec, replaces the same number of tbw_samples rows
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+
+@Entity
+@Table(name = "tbw_sample_blocks", indexes = @Index(name = "idx_tbw_sample_blocks_ssd_first", columnList = "ssd_id, first_sampled_at"))
+public class TbwSampleBlockEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ssd_id", nullable = false)
+    private SSDEntity ssd;
+
+    @Column(name = "first_sampled_at", nullable = false, columnDefinition = "INTEGER")
+    @Convert(converter = EpochMillisConverter.class)
+    private LocalDateTime firstSampledAt;
+
+    @Column(name = "last_sampled_at", nullable = false, columnDefinition = "INTEGER")
+    @Convert(converter = EpochMillisConverter.class)
+    private LocalDateTime lastSampledAt;
+
+    @Column(name = "sample_count", nullable = false)
+    private Integer sampleCount;
+
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] data;
+
+}
@@ -0,0 +1,35 @@
+package com.cristianml.SSDMonitoringApi.domain;
+
+import com.cristianml.SSDMonitoringApi.config.EpochMillisConverter;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One TBW reading at sampling resolution, rolled up into TbwRollupEntity rows and expired by retention
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+
+@Entity
+@Table(name = "tbw_samples", indexes = @Index(name = "idx_tbw_samples_ssd_sampled_at", columnList = "ssd_id, sampled_at"))
+public class TbwSampleEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ssd_id", nullable = false)
+    private SSDEntity ssd;
+
+    @Column(name = "sampled_at", nullable = false, columnDefinition = "INTEGER")
+    @Convert(converter = EpochMillisConverter.class)
+    private LocalDateTime sampledAt;
+
+    @Column(nullable = false)
+    private Long tbw; // in GB
+
+}
@@ -0,0 +1,25 @@
+package com.cristianml.SSDMonitoringApi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AcquisitionStatsResponseDTO {
+
+    private Long processesSpawned;
+    private Long processesCompleted;
+    private Long processesTimedOut;
+    private Long processesFailed;
+    private Integer processesRunning;
+    private Integer openBreakers;
+    private List<String> openBreakerDevices;
+    private Long coalescedScans;
+    private Long coalescedReads;
+}
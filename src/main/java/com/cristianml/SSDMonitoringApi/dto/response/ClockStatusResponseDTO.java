@@ -0,0 +1,25 @@
+package com.cristianml.SSDMonitoringApi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClockStatusResponseDTO {
+
+    private Boolean synced;
+    private String zone;
+    private LocalDateTime trustedDateTime;
+    private LocalDateTime systemDateTime;
+    private Long syncAgeMillis;
+    private Long lastRoundTripMillis;
+    private Double estimatedDriftPpm;
+    private Long clockJumps;
+    private Long lastClockJumpMillis;
+}
@@ -0,0 +1,20 @@
+package com.cristianml.SSDMonitoringApi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceScanResponseDTO {
+
+    private Integer probedDevices;
+    private List<SSDResponseDTO> detected;
+    private List<String> timedOutDevices;
+    private List<String> failedDevices;
+}
@@ -20,6 +20,7 @@ public class SSDResponseDTO {
     private Long capacityGB;
     private LocalDateTime registrationDate;
     private Boolean isMonitored;
+    private Long ratedTbwGB;
     private String formattedDateTime;
 
     private List<TbwRecordResponseDTO> records;
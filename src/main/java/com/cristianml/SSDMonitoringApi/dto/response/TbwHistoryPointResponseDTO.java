@@ -0,0 +1,25 @@
+package com.cristianml.SSDMonitoringApi.dto.response;
+
+import com.cristianml.SSDMonitoringApi.domain.SampleResolution;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TbwHistoryPointResponseDTO {
+    private Long ssdId;
+    private SampleResolution resolution;
+    private LocalDateTime periodStart;
+    private Long minTbw;
+    private Long maxTbw;
+    private Long lastTbw;
+    private Long deltaTbw;
+    private Integer sampleCount;
+
+}
@@ -0,0 +1,23 @@
+package com.cristianml.SSDMonitoringApi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of a bulk import; an interrupted import is resumed by sending the same file with resumeAfterLine = committedLine
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TbwImportResponseDTO {
+    private Long rowsRead;
+    private Long rowsImported;
+    private Long rowsAlreadyPresent;
+    private Long rowsRejected;
+    private Long committedLine;
+    private Long elapsedMillis;
+    private Long rowsPerSecond;
+    private String error;
+
+}
@@ -0,0 +1,22 @@
+package com.cristianml.SSDMonitoringApi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// One page of daily TBW records ordered by SSD and date
+// nextAfterSsdId and nextAfterDate are passed back as afterSsdId and afterDate for the next page, null on the last one
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TbwRecordPageResponseDTO {
+    private List<TbwRecordResponseDTO> records;
+    private Long nextAfterSsdId;
+    private LocalDate nextAfterDate;
+
+}
@@ -0,0 +1,29 @@
+package com.cristianml.SSDMonitoringApi.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteRateResponseDTO {
+
+    private Long ssdId;
+    private Long currentTbw; // in GB
+    private LocalDateTime lastReadingAt;
+
+    // Rates in GB per day, null until enough history exists
+    private Double ewmaGbPerDay;
+    private Double last7DaysGbPerDay;
+    private Double last30DaysGbPerDay;
+
+    private Long ratedTbwGB;
+    private Double percentUsed;
+    private LocalDate projectedExhaustionDate;
+}
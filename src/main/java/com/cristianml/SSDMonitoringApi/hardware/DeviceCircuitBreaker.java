@@ -0,0 +1,105 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Per-device circuit breaker for SMART reads
+// After consecutive failures a device is skipped until its backoff expires, then a single trial
+// call decides whether it is closed again or reopened with a doubled backoff
+// Backoffs run on the monotonic clock, a wall clock jump neither shortens nor extends them
+@Component
+public class DeviceCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceCircuitBreaker.class);
+
+    private final int failureThreshold;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final LongSupplier clock;
+
+    private final Map<String, BreakerState> states = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeviceCircuitBreaker(@Value("${hardware.breaker.failure-threshold:3}") int failureThreshold,
+                                @Value("${hardware.breaker.initial-backoff-ms:60000}") long initialBackoffMillis,
+                                @Value("${hardware.breaker.max-backoff-ms:3600000}") long maxBackoffMillis) {
+        this(failureThreshold, initialBackoffMillis, maxBackoffMillis, () -> System.nanoTime() / 1_000_000);
+    }
+
+    DeviceCircuitBreaker(int failureThreshold, long initialBackoffMillis, long maxBackoffMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoffMillis);
+        this.clock = clock;
+    }
+
+    // Rejects the call while the breaker of the device is open
+    // Once the backoff expired the caller is let through as the trial call
+    public void checkAllowed(String device) throws CircuitOpenException {
+        BreakerState state = states.get(device);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            long now = clock.getAsLong();
+            if (state.openUntilMillis > now) {
+                throw new CircuitOpenException(device, state.openUntilMillis - now);
+            }
+        }
+    }
+
+    public void recordSuccess(String device) {
+        BreakerState state = states.remove(device);
+        if (state != null && state.openCount > 0) {
+            logger.info("Device {} answered again, circuit closed", device);
+        }
+    }
+
+    public void recordFailure(String device) {
+        BreakerState state = states.computeIfAbsent(device, key -> new BreakerState());
+        synchronized (state) {
+            state.consecutiveFailures++;
+            // A failed trial call reopens immediately, otherwise wait for the threshold
+            if (state.openCount > 0 || state.consecutiveFailures >= failureThreshold) {
+                long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(state.openCount, 30));
+                state.openCount++;
+                state.openUntilMillis = clock.getAsLong() + backoff;
+                logger.warn("Device {} failed {} times in a row, circuit open for {} ms",
+                        device, state.consecutiveFailures, backoff);
+            }
+        }
+    }
+
+    // Devices currently skipped because their breaker is open
+    public List<String> openDevices() {
+        long now = clock.getAsLong();
+        return states.entrySet().stream()
+                .filter(entry -> entry.getValue().openUntilMillis > now)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
+    private static final class BreakerState {
+        private int consecutiveFailures;
+        private int openCount;
+        private long openUntilMillis;
+    }
+
+    // Thrown instead of spawning a process for a device whose breaker is open
+    public static class CircuitOpenException extends IOException {
+
+        public CircuitOpenException(String device, long remainingMillis) {
+            super("Circuit open for device " + device + " for another " + remainingMillis + " ms");
+        }
+    }
+}
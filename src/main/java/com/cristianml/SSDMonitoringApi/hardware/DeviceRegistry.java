@@ -0,0 +1,74 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory registry mapping each SSD serial number to the device path smartctl reports for it
+// Filled by device detection and refreshed only when a lookup misses or a device changes,
+// so reading a single SSD does not require rescanning every disk in the system
+@Component
+public class DeviceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceRegistry.class);
+
+    private final Map<String, DeviceEntry> devicesBySerial = new ConcurrentHashMap<>();
+
+    // Replaces registry content with the result of a full device scan
+    // Devices no longer present in the scan are dropped
+    public void replaceAll(Collection<DeviceEntry> entries) {
+        replaceAll(entries, List.of());
+    }
+
+    // Replaces registry content but keeps entries whose device path did not answer during the scan,
+    // so a slow device is not forgotten because of a single timed out probe
+    public synchronized void replaceAll(Collection<DeviceEntry> entries, Collection<String> retainedDevicePaths) {
+        devicesBySerial.values().removeIf(entry -> !retainedDevicePaths.contains(entry.devicePath()));
+        for (DeviceEntry entry : entries) {
+            devicesBySerial.put(entry.serial(), entry);
+        }
+        logger.debug("Device registry refreshed with {} devices", devicesBySerial.size());
+    }
+
+    public Optional<DeviceEntry> findBySerial(String serial) {
+        if (serial == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(devicesBySerial.get(serial));
+    }
+
+    // Fallback lookup for callers that only know the model name
+    public Optional<DeviceEntry> findByModel(String model) {
+        if (model == null) {
+            return Optional.empty();
+        }
+        return devicesBySerial.values().stream()
+                .filter(entry -> model.equalsIgnoreCase(entry.model()))
+                .findFirst();
+    }
+
+    // Removes a stale mapping, e.g. when the device path now reports a different serial
+    public void invalidate(String serial) {
+        if (serial != null && devicesBySerial.remove(serial) != null) {
+            logger.debug("Invalidated device registry entry for serial: {}", serial);
+        }
+    }
+
+    public List<DeviceEntry> entries() {
+        return List.copyOf(devicesBySerial.values());
+    }
+
+    public boolean isEmpty() {
+        return devicesBySerial.isEmpty();
+    }
+
+    // Identity of a detected device and the path used to query it
+    public record DeviceEntry(String serial, String model, String devicePath) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import java.util.List;
+
+// Outcome of probing every device reported by smartctl scan
+// A scan is allowed to complete partially: unresponsive devices are flagged instead of failing the scan
+public record DeviceScanResult(List<DeviceProbe> probes) {
+
+    public DeviceScanResult {
+        probes = List.copyOf(probes);
+    }
+
+    // Device paths whose probe timed out or failed
+    public List<String> unresponsiveDevices() {
+        return probes.stream()
+                .filter(probe -> probe.status() != ProbeStatus.OK)
+                .map(DeviceProbe::devicePath)
+                .toList();
+    }
+
+    public List<String> timedOutDevices() {
+        return probes.stream()
+                .filter(probe -> probe.status() == ProbeStatus.TIMED_OUT)
+                .map(DeviceProbe::devicePath)
+                .toList();
+    }
+
+    public enum ProbeStatus {
+        OK,
+        TIMED_OUT,
+        FAILED
+    }
+
+    // Result of probing a single device, snapshot is null unless status is OK
+    public record DeviceProbe(String devicePath, SmartSnapshot snapshot, ProbeStatus status) {
+    }
+}
@@ -0,0 +1,199 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs external processes with bounded concurrency, asynchronous draining of stdout and stderr,
+// a deadline per call and guaranteed reaping, so long uptimes do not accumulate zombies or open descriptors
+@Component
+public class ManagedProcessExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManagedProcessExecutor.class);
+
+    // Tail of stderr kept for diagnostics, the rest is drained and discarded
+    private static final int STDERR_TAIL_BYTES = 2048;
+
+    // Time allowed for a destroyed process to be reaped
+    private static final long REAP_TIMEOUT_MILLIS = 5000;
+
+    private final Semaphore permits;
+    private final ExecutorService streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong spawned = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+
+    public ManagedProcessExecutor(@Value("${hardware.process.max-concurrency:4}") int maxConcurrency) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrency), true);
+    }
+
+    // Runs a command and parses its stdout, waiting for a free slot before spawning
+    // The deadline covers the whole execution once the process has been started
+    public <T> ProcessResult<T> execute(List<String> command, long timeoutMillis, OutputParser<T> parser)
+            throws IOException, InterruptedException, TimeoutException {
+        permits.acquire();
+        Process process = null;
+        Future<T> stdout = null;
+        Future<String> stderr = null;
+        try {
+            process = new ProcessBuilder(command).start();
+            spawned.incrementAndGet();
+            running.incrementAndGet();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+            Process started = process;
+            stdout = streamExecutor.submit(() -> {
+                try (InputStream output = started.getInputStream()) {
+                    T value = parser.parse(output);
+                    // Drain anything the parser did not consume so the child never blocks on a full pipe
+                    output.transferTo(OutputStream.nullOutputStream());
+                    return value;
+                }
+            });
+            stderr = streamExecutor.submit(() -> drainTail(started.getErrorStream()));
+
+            T value = stdout.get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            if (!process.waitFor(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException("Process did not exit in time: " + command);
+            }
+
+            int exitCode = process.exitValue();
+            String errorOutput = stderr.get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            if (!errorOutput.isBlank()) {
+                logger.debug("{} wrote to stderr: {}", command, errorOutput.strip());
+            }
+            completed.incrementAndGet();
+            return new ProcessResult<>(value, exitCode, errorOutput);
+        } catch (TimeoutException e) {
+            timedOut.incrementAndGet();
+            logger.warn("Process timed out after {} ms: {}", timeoutMillis, command);
+            throw e;
+        } catch (ExecutionException e) {
+            failed.incrementAndGet();
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            if (stdout != null) {
+                stdout.cancel(true);
+            }
+            if (stderr != null) {
+                stderr.cancel(true);
+            }
+            if (process != null) {
+                reap(process);
+                running.decrementAndGet();
+            }
+            permits.release();
+        }
+    }
+
+    // Destroys the process tree if still alive, waits for exit and closes all pipes
+    private void reap(Process process) {
+        if (process.isAlive()) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+        try {
+            if (!process.waitFor(REAP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.error("Process {} could not be reaped", process.pid());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly(process.getInputStream());
+        closeQuietly(process.getErrorStream());
+        closeQuietly(process.getOutputStream());
+    }
+
+    // Reads a stream to the end, keeping only its last bytes
+    private static String drainTail(InputStream stream) throws IOException {
+        byte[] tail = new byte[STDERR_TAIL_BYTES];
+        byte[] buffer = new byte[512];
+        int size = 0;
+        try (stream) {
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                if (read >= tail.length) {
+                    System.arraycopy(buffer, read - tail.length, tail, 0, tail.length);
+                    size = tail.length;
+                } else {
+                    int keep = Math.min(size, tail.length - read);
+                    System.arraycopy(tail, size - keep, tail, 0, keep);
+                    System.arraycopy(buffer, 0, tail, keep, read);
+                    size = keep + read;
+                }
+            }
+        }
+        return new String(tail, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Pipe already closed by the reaped process
+        }
+    }
+
+    public long getSpawned() {
+        return spawned.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+
+    // Parses the standard output of an external process
+    @FunctionalInterface
+    public interface OutputParser<T> {
+        T parse(InputStream output) throws IOException;
+    }
+
+    // Parsed stdout, exit code and the tail of stderr of a finished process
+    public record ProcessResult<T>(T value, int exitCode, String errorOutput) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// SmartDataSource replaying captured smartctl outputs from a directory, for load tests without real drives
+// Directory layout: scan.txt ("smartctl --scan" output) and one capture per device named after the
+// device file, e.g. nvme0.txt or sda.json for /dev/nvme0 and /dev/sda
+// Write counters grow synthetically at the configured rate, accelerated by the speedup factor
+@Component
+@ConditionalOnProperty(name = "hardware.smart.source", havingValue = "replay")
+public class ReplaySmartDataSource implements SmartDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplaySmartDataSource.class);
+
+    private static final double SECONDS_PER_DAY = 86_400;
+
+    // Bytes represented by one GB of TBW for each counter type, inverse of SmartSnapshot.tbwInGB()
+    private static final double DATA_UNITS_PER_GB = 1_000_000_000d / (512 * 931.4);
+    private static final double LBAS_PER_GB = 1024d * 1024 * 1024 / 512;
+
+    private final Path directory;
+    private final double writeRateGBPerDay;
+    private final double speedup;
+    private final long latencyMillis;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+
+    private final Map<String, SmartSnapshot> captures = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReplaySmartDataSource(@Value("${hardware.replay.directory}") String directory,
+                                 @Value("${hardware.replay.write-rate-gb-per-day:50}") double writeRateGBPerDay,
+                                 @Value("${hardware.replay.speedup:1440}") double speedup,
+                                 @Value("${hardware.replay.latency-ms:0}") long latencyMillis) {
+        this(Path.of(directory), writeRateGBPerDay, speedup, latencyMillis, System::nanoTime);
+    }
+
+    ReplaySmartDataSource(Path directory, double writeRateGBPerDay, double speedup, long latencyMillis, LongSupplier nanoClock) {
+        this.directory = directory;
+        this.writeRateGBPerDay = writeRateGBPerDay;
+        this.speedup = speedup;
+        this.latencyMillis = latencyMillis;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        logger.info("Replaying SMART data from {} at {} GB/day, speedup x{}", directory, writeRateGBPerDay, speedup);
+    }
+
+    @Override
+    public List<String> scanDevices() throws IOException, InterruptedException {
+        simulateLatency();
+        try (InputStream in = Files.newInputStream(directory.resolve("scan.txt"))) {
+            return SmartctlTextParser.parseScan(in);
+        }
+    }
+
+    @Override
+    public SmartReading readSnapshot(String device) throws IOException, InterruptedException {
+        simulateLatency();
+        return new SmartReading(grow(capture(device)), 0);
+    }
+
+    // Adds the synthetic writes accumulated since the source started to the captured counters
+    private SmartSnapshot grow(SmartSnapshot capture) {
+        double simulatedSeconds = (nanoClock.getAsLong() - startNanos) / 1_000_000_000d * speedup;
+        double writtenGB = writeRateGBPerDay * simulatedSeconds / SECONDS_PER_DAY;
+
+        Long dataUnitsWritten = capture.dataUnitsWritten() == null ? null
+                : capture.dataUnitsWritten() + Math.round(writtenGB * DATA_UNITS_PER_GB);
+        Long totalLbasWritten = capture.totalLbasWritten() == null ? null
+                : capture.totalLbasWritten() + Math.round(writtenGB * LBAS_PER_GB);
+
+        return new SmartSnapshot(capture.model(), capture.serial(), capture.capacityGB(), dataUnitsWritten, totalLbasWritten);
+    }
+
+    // Loads and caches the capture of a device, JSON captures take precedence over text ones
+    private SmartSnapshot capture(String device) throws IOException {
+        SmartSnapshot cached = captures.get(device);
+        if (cached != null) {
+            return cached;
+        }
+
+        String name = device.substring(device.lastIndexOf('/') + 1);
+        Path json = directory.resolve(name + ".json");
+        Path text = directory.resolve(name + ".txt");
+
+        SmartSnapshot capture;
+        if (Files.exists(json)) {
+            try (InputStream in = Files.newInputStream(json)) {
+                capture = SmartctlJsonParser.parse(in);
+            }
+        } else if (Files.exists(text)) {
+            try (InputStream in = Files.newInputStream(text)) {
+                capture = SmartctlTextParser.parse(in);
+            }
+        } else {
+            throw new IOException("No replay capture for device " + device + " in " + directory);
+        }
+
+        captures.put(device, capture);
+        return capture;
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        if (latencyMillis > 0) {
+            Thread.sleep(latencyMillis);
+        }
+    }
+}
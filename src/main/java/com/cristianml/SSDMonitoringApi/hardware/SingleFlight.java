@@ -0,0 +1,78 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Coalesces concurrent acquisitions with the same key into one
+// The first caller runs the acquisition on its own thread, callers arriving while it is in flight
+// wait for it and share its result or failure; at most one acquisition per key runs at a time
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+
+    public V execute(K key, Acquisition<V> acquisition) throws IOException, InterruptedException, TimeoutException {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            joined.incrementAndGet();
+            return await(key, existing);
+        }
+
+        executed.incrementAndGet();
+        try {
+            V value = acquisition.acquire();
+            flight.complete(value);
+            return value;
+        } catch (IOException | InterruptedException | TimeoutException | RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // Acquisitions that actually ran
+    public long getExecuted() {
+        return executed.get();
+    }
+
+    // Callers served by an acquisition started by another caller
+    public long getJoined() {
+        return joined.get();
+    }
+
+    // Rethrows the failure of the shared acquisition with its original type
+    // An interrupt of the leading caller is not an interrupt of the joined caller, it surfaces as IOException
+    private V await(K key, CompletableFuture<V> flight) throws IOException, InterruptedException, TimeoutException {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof TimeoutException timeout) {
+                throw timeout;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException("Shared acquisition of " + key + " was interrupted", cause);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Acquisition<V> {
+        V acquire() throws IOException, InterruptedException, TimeoutException;
+    }
+}
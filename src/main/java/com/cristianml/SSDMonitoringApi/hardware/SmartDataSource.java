@@ -0,0 +1,31 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+// SPI for acquiring SMART data, decoupling services from how the data is obtained
+// Implementations: smartctl processes (default) and recorded transcript replay for load tests
+// Selected with hardware.smart.source
+public interface SmartDataSource {
+
+    // smartctl exit status bits 0-2: command line error, device open failed, SMART command failed
+    // Higher bits report disk health and do not mean the read itself failed
+    int ACQUISITION_FAILURE_BITS = 0b111;
+
+    // Lists device paths the source can read, equivalent to "smartctl --scan"
+    List<String> scanDevices() throws IOException, InterruptedException, TimeoutException;
+
+    // Reads identity and SMART attributes of a device in a single call, equivalent to "smartctl -i -A"
+    // The same snapshot serves detection and TBW sampling, identity is never fetched separately
+    SmartReading readSnapshot(String device) throws IOException, InterruptedException, TimeoutException;
+
+    // Parsed data together with the smartctl exit status (bit mask, 0 means success)
+    record SmartReading(SmartSnapshot snapshot, int exitCode) {
+
+        // True when the data was read, whatever disk health bits smartctl reported
+        public boolean acquired() {
+            return (exitCode & ACQUISITION_FAILURE_BITS) == 0;
+        }
+    }
+}
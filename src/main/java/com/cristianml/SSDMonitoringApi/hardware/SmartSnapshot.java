@@ -0,0 +1,30 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+// Immutable view of the smartctl fields used by the application
+// Identity (model, serial, capacity) plus the raw write counters reported by NVMe and SATA drives
+public record SmartSnapshot(String model,
+                            String serial,
+                            Long capacityGB,
+                            Long dataUnitsWritten,
+                            Long totalLbasWritten) {
+
+    // SATA drives report written sectors as 512-byte logical blocks
+    private static final long LBA_SIZE_BYTES = 512;
+
+    public boolean hasIdentity() {
+        return model != null && serial != null;
+    }
+
+    // Converts the raw write counter into TBW in GB, null when no counter was reported
+    // NVMe conversion keeps the original data-unit formula so stored history stays comparable
+    public Long tbwInGB() {
+        if (dataUnitsWritten != null) {
+            long totalBytesWritten = (long) (dataUnitsWritten * 512 * 931.4);
+            return totalBytesWritten / (1000 * 1000 * 1000);
+        }
+        if (totalLbasWritten != null) {
+            return totalLbasWritten * LBA_SIZE_BYTES / (1024L * 1024 * 1024);
+        }
+        return null;
+    }
+}
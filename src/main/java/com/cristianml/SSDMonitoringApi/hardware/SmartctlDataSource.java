@@ -0,0 +1,79 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import com.cristianml.SSDMonitoringApi.hardware.ManagedProcessExecutor.ProcessResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+// SmartDataSource backed by the smartctl command-line utility
+// Processes run through the ManagedProcessExecutor, per-device calls are guarded by a circuit breaker
+// so a drive that keeps failing is not polled on every cycle
+@Component
+@ConditionalOnProperty(name = "hardware.smart.source", havingValue = "smartctl", matchIfMissing = true)
+public class SmartctlDataSource implements SmartDataSource {
+
+    private final ManagedProcessExecutor processExecutor;
+    private final DeviceCircuitBreaker circuitBreaker;
+
+    // Selects smartctl output format: "text" (default) or "json" (smartctl -j)
+    private final boolean jsonOutput;
+
+    // Deadline for each smartctl call
+    private final long timeoutMillis;
+
+    public SmartctlDataSource(ManagedProcessExecutor processExecutor, DeviceCircuitBreaker circuitBreaker,
+                              @Value("${hardware.smartctl.output-mode:text}") String outputMode,
+                              @Value("${hardware.probe.timeout-ms:15000}") long timeoutMillis) {
+        this.processExecutor = processExecutor;
+        this.circuitBreaker = circuitBreaker;
+        this.jsonOutput = "json".equalsIgnoreCase(outputMode);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // Lists device paths reported by smartctl scan
+    @Override
+    public List<String> scanDevices() throws IOException, InterruptedException, TimeoutException {
+        return processExecutor.execute(List.of("smartctl", "--scan"), timeoutMillis, SmartctlTextParser::parseScan).value();
+    }
+
+    @Override
+    public SmartReading readSnapshot(String device) throws IOException, InterruptedException, TimeoutException {
+        return runSmartctl(device, "-i", "-A");
+    }
+
+    // Executes smartctl for a device with the configured output mode and parses its output
+    // Timeouts, I/O errors and failing exit codes count against the device circuit breaker
+    private SmartReading runSmartctl(String device, String... options) throws IOException, InterruptedException, TimeoutException {
+        circuitBreaker.checkAllowed(device);
+
+        List<String> command = new ArrayList<>();
+        command.add("smartctl");
+        if (jsonOutput) {
+            command.add("-j");
+        }
+        command.addAll(List.of(options));
+        command.add(device);
+
+        ProcessResult<SmartSnapshot> result;
+        try {
+            result = processExecutor.execute(command, timeoutMillis,
+                    stream -> jsonOutput ? SmartctlJsonParser.parse(stream) : SmartctlTextParser.parse(stream));
+        } catch (IOException | TimeoutException e) {
+            circuitBreaker.recordFailure(device);
+            throw e;
+        }
+
+        SmartReading reading = new SmartReading(result.value(), result.exitCode());
+        if (reading.acquired()) {
+            circuitBreaker.recordSuccess(device);
+        } else {
+            circuitBreaker.recordFailure(device);
+        }
+        return reading;
+    }
+}
@@ -0,0 +1,135 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+// Streaming parser for smartctl JSON output (smartctl -j)
+// Pulls only the fields used by the application and skips every other subtree without building a tree model
+public final class SmartctlJsonParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // smartctl prints capacities with three significant digits in SI units
+    private static final MathContext CAPACITY_PRECISION = new MathContext(3);
+
+    private SmartctlJsonParser() {
+    }
+
+    public static SmartSnapshot parse(InputStream smartctlOutput) throws IOException {
+        String modelFamily = null;
+        String modelName = null;
+        String serial = null;
+        Long capacityBytes = null;
+        Long dataUnitsWritten = null;
+        Long totalLbasWritten = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(smartctlOutput)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected JSON object in smartctl output");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                switch (field) {
+                    case "model_family" -> modelFamily = parser.getValueAsString();
+                    case "model_name" -> modelName = parser.getValueAsString();
+                    case "serial_number" -> serial = parser.getValueAsString();
+                    case "user_capacity" -> capacityBytes = readLongField(parser, "bytes");
+                    case "nvme_smart_health_information_log" ->
+                            dataUnitsWritten = readLongField(parser, "data_units_written");
+                    case "ata_smart_attributes" -> totalLbasWritten = readLbasWritten(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        // Model family takes precedence to match the label used by the text parser for SATA drives
+        String model = modelFamily != null ? modelFamily : modelName;
+        return new SmartSnapshot(model, serial, capacityInGB(capacityBytes), dataUnitsWritten, totalLbasWritten);
+    }
+
+    // Reads a single numeric field from the current object and skips the rest of it
+    private static Long readLongField(JsonParser parser, String name) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        Long result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (name.equals(field) && token == JsonToken.VALUE_NUMBER_INT) {
+                result = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    // Walks the ATA attribute table looking for the Total_LBAs_Written raw value
+    private static Long readLbasWritten(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        Long result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (!"table".equals(field) || token != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String attributeName = null;
+                Long rawValue = null;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String attributeField = parser.currentName();
+                    parser.nextToken();
+                    if ("name".equals(attributeField)) {
+                        attributeName = parser.getValueAsString();
+                    } else if ("raw".equals(attributeField)) {
+                        rawValue = readLongField(parser, "value");
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+
+                if ("Total_LBAs_Written".equals(attributeName)) {
+                    result = rawValue;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Converts raw byte capacity to GB the same way the text path reads the "[1.00 TB]" label
+    static Long capacityInGB(Long capacityBytes) {
+        if (capacityBytes == null || capacityBytes <= 0) {
+            return 0L;
+        }
+
+        BigDecimal gigabytes = BigDecimal.valueOf(capacityBytes).movePointLeft(9);
+        if (gigabytes.compareTo(BigDecimal.valueOf(1000)) >= 0) {
+            double terabytes = gigabytes.movePointLeft(3).round(CAPACITY_PRECISION).doubleValue();
+            return Math.round(terabytes * 1024);
+        }
+        if (gigabytes.compareTo(BigDecimal.ONE) < 0) {
+            return 0L;
+        }
+        return Math.round(gigabytes.round(CAPACITY_PRECISION).doubleValue());
+    }
+}
@@ -0,0 +1,256 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Parses human-readable smartctl output (-i and -A sections) into a SmartSnapshot
+// Relies on the field labels printed by smartctl for SATA and NVMe devices
+// Single pass over the raw bytes: lines are matched against precompiled keys and numbers are parsed
+// in place, only the values kept in the snapshot are turned into Strings
+public final class SmartctlTextParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmartctlTextParser.class);
+
+    private static final byte[] MODEL_FAMILY = key("Model Family:");
+    private static final byte[] MODEL_NUMBER = key("Model Number:");
+    private static final byte[] DEVICE_MODEL = key("Device Model:");
+    private static final byte[] SERIAL_NUMBER = key("Serial Number:");
+    private static final byte[] USER_CAPACITY = key("User Capacity:");
+    private static final byte[] NAMESPACE_CAPACITY = key("Namespace 1 Size/Capacity:");
+    private static final byte[] DATA_UNITS_WRITTEN = key("Data Units Written:");
+    private static final byte[] TOTAL_LBAS_WRITTEN = key("Total_LBAs_Written");
+
+    // Read chunk size, only an incomplete line is carried over between reads and longer lines grow the buffer
+    private static final int BUFFER_SIZE = 2048;
+
+    private SmartctlTextParser() {
+    }
+
+    public static SmartSnapshot parse(InputStream smartctlOutput) throws IOException {
+        Fields fields = new Fields();
+        forEachLine(smartctlOutput, fields);
+        return fields.toSnapshot();
+    }
+
+    // Parses "smartctl --scan" output, the device path is the first token of each line
+    public static List<String> parseScan(InputStream scanOutput) throws IOException {
+        List<String> devices = new ArrayList<>();
+        forEachLine(scanOutput, (line, start, end) -> {
+            int tokenEnd = start;
+            while (tokenEnd < end && !isBlank(line[tokenEnd]) && line[tokenEnd] != '\r') {
+                tokenEnd++;
+            }
+            if (tokenEnd > start) {
+                devices.add(new String(line, start, tokenEnd - start, StandardCharsets.UTF_8));
+            }
+        });
+        return devices;
+    }
+
+    // Splits the stream into lines without decoding them, lines are passed as ranges of a reused buffer
+    private static void forEachLine(InputStream input, LineHandler handler) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int filled = 0;
+        int read;
+
+        while ((read = input.read(buffer, filled, buffer.length - filled)) != -1) {
+            filled += read;
+            int lineStart = 0;
+            for (int i = filled - read; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    handler.accept(buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+
+            // Keep the incomplete last line for the next read
+            filled -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, filled);
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        if (filled > 0) {
+            handler.accept(buffer, 0, filled);
+        }
+    }
+
+    // Values collected while scanning, capacity keeps SATA over NVMe and the model keeps the family over
+    // the device model regardless of line order, the same precedence as SmartctlJsonParser
+    private static final class Fields implements LineHandler {
+
+        private String modelFamily;
+        private String modelName;
+        private String serial;
+        private Long userCapacityGB;
+        private Long namespaceCapacityGB;
+        private Long dataUnitsWritten;
+        private Long totalLbasWritten;
+
+        @Override
+        public void accept(byte[] line, int start, int end) {
+            // Drop the carriage return of CRLF output (Windows builds of smartctl)
+            if (end > start && line[end - 1] == '\r') {
+                end--;
+            }
+
+            if (startsWith(line, start, end, MODEL_FAMILY)) {
+                modelFamily = value(line, start + MODEL_FAMILY.length, end);
+            } else if (startsWith(line, start, end, MODEL_NUMBER)) {
+                // NVMe label of the field smartctl -j reports as model_name
+                modelName = value(line, start + MODEL_NUMBER.length, end);
+            } else if (startsWith(line, start, end, DEVICE_MODEL)) {
+                // SATA label of model_name, the only model line of drives missing from the smartctl database
+                modelName = value(line, start + DEVICE_MODEL.length, end);
+            } else if (startsWith(line, start, end, SERIAL_NUMBER)) {
+                serial = value(line, start + SERIAL_NUMBER.length, end);
+            } else if (startsWith(line, start, end, USER_CAPACITY)) {
+                userCapacityGB = bracketedCapacityInGB(line, start + USER_CAPACITY.length, end);
+            } else if (startsWith(line, start, end, NAMESPACE_CAPACITY)) {
+                namespaceCapacityGB = bracketedCapacityInGB(line, start + NAMESPACE_CAPACITY.length, end);
+            } else if (startsWith(line, start, end, DATA_UNITS_WRITTEN)) {
+                // NVMe health log counter, reported in units of 1000 * 512 bytes
+                dataUnitsWritten = groupedNumber(line, skipBlanks(line, start + DATA_UNITS_WRITTEN.length, end), end);
+            } else if (isAttributeRow(line, start, end, TOTAL_LBAS_WRITTEN)) {
+                // SATA attribute table row, raw value is the last column
+                totalLbasWritten = lastColumnNumber(line, start, end);
+            }
+        }
+
+        SmartSnapshot toSnapshot() {
+            Long capacityGB = userCapacityGB != null ? userCapacityGB : namespaceCapacityGB;
+            if (capacityGB == null) {
+                logger.warn("Could not extract capacity from smartctl output");
+                capacityGB = 0L;
+            }
+            String model = modelFamily != null ? modelFamily : modelName;
+            return new SmartSnapshot(model, serial, capacityGB, dataUnitsWritten, totalLbasWritten);
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineHandler {
+        void accept(byte[] line, int start, int end);
+    }
+
+    // Matches "<id> <name> ..." rows of the ATA attribute table
+    private static boolean isAttributeRow(byte[] line, int start, int end, byte[] name) {
+        int i = skipBlanks(line, start, end);
+        int idStart = i;
+        while (i < end && isDigit(line[i])) {
+            i++;
+        }
+        return i > idStart && startsWith(line, skipBlanks(line, i, end), end, name);
+    }
+
+    // Parses "[500 GB]" or "[1.00 TB]" into whole GB, TB counted as 1024 GB
+    private static Long bracketedCapacityInGB(byte[] line, int start, int end) {
+        int i = start;
+        while (i < end && line[i] != '[') {
+            i++;
+        }
+        i++;
+
+        long mantissa = 0;
+        long scale = 1;
+        boolean fraction = false;
+        int numberStart = i;
+        for (; i < end && (isDigit(line[i]) || line[i] == '.'); i++) {
+            if (line[i] == '.') {
+                fraction = true;
+            } else {
+                mantissa = mantissa * 10 + (line[i] - '0');
+                if (fraction) {
+                    scale *= 10;
+                }
+            }
+        }
+        if (i == numberStart || i + 3 > end || line[i] != ' ' || line[i + 2] != 'B') {
+            return null;
+        }
+
+        double size = (double) mantissa / scale;
+        return switch (line[i + 1]) {
+            case 'T' -> Math.round(size * 1024);
+            case 'G' -> Math.round(size);
+            default -> null;
+        };
+    }
+
+    // Parses an unsigned integer that may use comma digit grouping, e.g. 61,204,118
+    private static Long groupedNumber(byte[] line, int start, int end) {
+        long value = 0;
+        int digits = 0;
+        for (int i = start; i < end && (isDigit(line[i]) || line[i] == ','); i++) {
+            if (line[i] != ',') {
+                value = value * 10 + (line[i] - '0');
+                digits++;
+            }
+        }
+        return digits > 0 ? value : null;
+    }
+
+    private static Long lastColumnNumber(byte[] line, int start, int end) {
+        int columnEnd = end;
+        while (columnEnd > start && isBlank(line[columnEnd - 1])) {
+            columnEnd--;
+        }
+        int columnStart = columnEnd;
+        while (columnStart > start && !isBlank(line[columnStart - 1])) {
+            columnStart--;
+        }
+        for (int i = columnStart; i < columnEnd; i++) {
+            if (!isDigit(line[i])) {
+                return null;
+            }
+        }
+        return groupedNumber(line, columnStart, columnEnd);
+    }
+
+    // Text after a label with surrounding blanks removed
+    private static String value(byte[] line, int start, int end) {
+        start = skipBlanks(line, start, end);
+        while (end > start && isBlank(line[end - 1])) {
+            end--;
+        }
+        return new String(line, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private static boolean startsWith(byte[] line, int start, int end, byte[] key) {
+        if (end - start < key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (line[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipBlanks(byte[] line, int start, int end) {
+        while (start < end && isBlank(line[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static byte[] key(String label) {
+        return label.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,279 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Tails the attribute logs smartd writes with "-A <prefix>" instead of polling smartctl
+// smartd appends one line per check to <prefix><model>-<serial>.ata.csv:
+//   2026-10-16 18:20:11;\t<id>;<normalized>;<raw>;\t<id>;<normalized>;<raw>;...
+// Only bytes appended since the last poll are read, offsets and last values survive restarts
+// A value logged longer ago than the max age is not served, e.g. after smartd stopped logging a drive
+// smartd only logs ATA attributes, NVMe drives have no attribute log
+@Component
+@ConditionalOnProperty(name = "hardware.counter-source", havingValue = "attrlog")
+public class SmartdAttrlogTailer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmartdAttrlogTailer.class);
+
+    private static final String ATA_LOG_SUFFIX = ".ata.csv";
+    private static final String OFFSET_KEY = ".offset";
+    private static final String LBAS_KEY = ".lbas";
+    private static final String LOGGED_AT_KEY = ".loggedAt";
+
+    // Appended bytes are read in chunks of this size, however much smartd wrote since the last poll
+    static final int READ_CHUNK_BYTES = 64 * 1024;
+
+    private static final DateTimeFormatter LINE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path directory;
+    private final Path offsetsFile;
+
+    // ATA attribute ids carrying Total_LBAs_Written, 241 on most drives, 246 on Crucial/Micron
+    private final List<Integer> lbasWrittenAttributeIds;
+
+    private final long maxAgeMillis;
+    private final LongSupplier wallClock;
+
+    // Read position, last Total_LBAs_Written and the time it was logged per log file name
+    private final Map<String, LogPosition> positions = new ConcurrentHashMap<>();
+
+    // Serializes polls; a lock instead of synchronized so a virtual thread reading the logs is not pinned
+    private final ReentrantLock pollLock = new ReentrantLock();
+
+    @Autowired
+    public SmartdAttrlogTailer(@Value("${hardware.attrlog.directory:/var/lib/smartmontools}") String directory,
+                               @Value("${hardware.attrlog.offsets-file:./data/attrlog-offsets.properties}") String offsetsFile,
+                               @Value("${hardware.attrlog.lbas-written-attribute-ids:241,246}") List<Integer> lbasWrittenAttributeIds,
+                               @Value("${hardware.attrlog.max-age-ms:7200000}") long maxAgeMillis) {
+        this(Path.of(directory), Path.of(offsetsFile), lbasWrittenAttributeIds, maxAgeMillis, System::currentTimeMillis);
+    }
+
+    SmartdAttrlogTailer(Path directory, Path offsetsFile, List<Integer> lbasWrittenAttributeIds, long maxAgeMillis, LongSupplier wallClock) {
+        this.directory = directory;
+        this.offsetsFile = offsetsFile;
+        this.lbasWrittenAttributeIds = List.copyOf(lbasWrittenAttributeIds);
+        this.maxAgeMillis = maxAgeMillis;
+        this.wallClock = wallClock;
+        loadOffsets();
+    }
+
+    // Reads lines appended to every attribute log since the previous poll
+    @Scheduled(fixedDelayString = "${hardware.attrlog.poll-ms:60000}")
+    public void poll() {
+        pollLock.lock();
+        try {
+            boolean changed = false;
+            try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "*" + ATA_LOG_SUFFIX)) {
+                for (Path log : logs) {
+                    try {
+                        changed |= tail(log);
+                    } catch (IOException e) {
+                        logger.warn("Could not read smartd attribute log {}: {}", log, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Could not list smartd attribute logs in {}: {}", directory, e.getMessage());
+                return;
+            }
+
+            if (changed) {
+                saveOffsets();
+            }
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    // Latest TBW in GB logged for a serial, empty if smartd logged nothing for that drive yet
+    // or if the latest value is older than the max age
+    public Optional<Long> latestTbwInGB(String serial) {
+        if (serial == null) {
+            return Optional.empty();
+        }
+        for (Map.Entry<String, LogPosition> entry : positions.entrySet()) {
+            LogPosition position = entry.getValue();
+            if (!isLogOf(entry.getKey(), serial) || position.lbasWritten() == null) {
+                continue;
+            }
+            if (position.loggedAtMillis() == null || wallClock.getAsLong() - position.loggedAtMillis() > maxAgeMillis) {
+                logger.debug("smartd attribute log {} has no value within the last {} ms", entry.getKey(), maxAgeMillis);
+                return Optional.empty();
+            }
+            return Optional.ofNullable(new SmartSnapshot(null, serial, null, null, position.lbasWritten()).tbwInGB());
+        }
+        return Optional.empty();
+    }
+
+    // Consumes complete lines appended after the stored offset, a partial last line is left for the next poll
+    // Bytes are read in fixed-size chunks, only the line being assembled is carried over between chunks
+    private boolean tail(Path log) throws IOException {
+        String name = log.getFileName().toString();
+        LogPosition position = positions.getOrDefault(name, new LogPosition(0, null, null));
+
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = position.offset();
+            if (size < offset) {
+                // Log was rotated or truncated, start over
+                logger.info("smartd attribute log {} shrank from {} to {} bytes, reading from start", name, offset, size);
+                offset = 0;
+            }
+            if (size == offset) {
+                return false;
+            }
+
+            ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_BYTES);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long readPosition = offset;
+            long consumed = offset;
+            Long lbasWritten = position.lbasWritten();
+            Long loggedAtMillis = position.loggedAtMillis();
+            while (readPosition < size) {
+                chunk.clear();
+                int read = channel.read(chunk, readPosition);
+                if (read <= 0) {
+                    break;
+                }
+                byte[] bytes = chunk.array();
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] != '\n') {
+                        line.write(bytes[i]);
+                        continue;
+                    }
+                    String text = line.toString(StandardCharsets.US_ASCII);
+                    Long logged = parseLbasWritten(text);
+                    if (logged != null) {
+                        lbasWritten = logged;
+                        loggedAtMillis = parseLoggedAtMillis(text);
+                    }
+                    line.reset();
+                    consumed = readPosition + i + 1;
+                }
+                readPosition += read;
+            }
+
+            if (consumed == offset && offset == position.offset()) {
+                return false;
+            }
+            positions.put(name, new LogPosition(consumed, lbasWritten, loggedAtMillis));
+            logger.debug("Read {} bytes from smartd attribute log {}", consumed - offset, name);
+            return true;
+        }
+    }
+
+    // Extracts the raw Total_LBAs_Written value from one log line
+    Long parseLbasWritten(String line) {
+        String[] fields = line.split(";");
+        // fields[0] is the timestamp, followed by id;normalized;raw triples
+        for (int i = 1; i + 2 < fields.length; i += 3) {
+            try {
+                int id = Integer.parseInt(fields[i].trim());
+                if (lbasWrittenAttributeIds.contains(id)) {
+                    return Long.parseLong(fields[i + 2].trim());
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Time smartd wrote the line, falling back to now when the timestamp cannot be read
+    private long parseLoggedAtMillis(String line) {
+        int end = line.indexOf(';');
+        try {
+            return LocalDateTime.parse(end >= 0 ? line.substring(0, end).trim() : line, LINE_TIMESTAMP)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return wallClock.getAsLong();
+        }
+    }
+
+    // Log files are named <prefix><model>-<serial>.ata.csv; models and serials may both contain dashes,
+    // so the name is matched against the known serial instead of being split
+    static boolean isLogOf(String logFileName, String serial) {
+        return logFileName.endsWith("-" + serial + ATA_LOG_SUFFIX);
+    }
+
+    private void loadOffsets() {
+        if (!Files.exists(offsetsFile)) {
+            return;
+        }
+        Properties stored = new Properties();
+        try (InputStream in = Files.newInputStream(offsetsFile)) {
+            stored.load(in);
+        } catch (IOException e) {
+            logger.warn("Could not load smartd attribute log offsets from {}, reading logs from start", offsetsFile, e);
+            return;
+        }
+
+        for (String key : stored.stringPropertyNames()) {
+            if (key.endsWith(OFFSET_KEY)) {
+                String name = key.substring(0, key.length() - OFFSET_KEY.length());
+                String lbas = stored.getProperty(name + LBAS_KEY);
+                String loggedAt = stored.getProperty(name + LOGGED_AT_KEY);
+                positions.put(name, new LogPosition(Long.parseLong(stored.getProperty(key)),
+                        lbas != null ? Long.valueOf(lbas) : null, loggedAt != null ? Long.valueOf(loggedAt) : null));
+            }
+        }
+        logger.info("Resuming {} smartd attribute logs from stored offsets", positions.size());
+    }
+
+    // Written to a temporary file first so a crash never leaves a half written offsets file
+    private void saveOffsets() {
+        Properties stored = new Properties();
+        positions.forEach((name, position) -> {
+            stored.setProperty(name + OFFSET_KEY, Long.toString(position.offset()));
+            if (position.lbasWritten() != null) {
+                stored.setProperty(name + LBAS_KEY, Long.toString(position.lbasWritten()));
+            }
+            if (position.loggedAtMillis() != null) {
+                stored.setProperty(name + LOGGED_AT_KEY, Long.toString(position.loggedAtMillis()));
+            }
+        });
+
+        try {
+            Path parent = offsetsFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temporary = Files.createTempFile(parent, "attrlog-offsets", ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                stored.store(out, "smartd attribute log read positions");
+            }
+            Files.move(temporary, offsetsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Could not save smartd attribute log offsets to {}", offsetsFile, e);
+        }
+    }
+
+    private record LogPosition(long offset, Long lbasWritten, Long loggedAtMillis) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Short-lived cache of the latest SMART snapshot per serial
+// A device scan already reads identity and counters, so registration and TBW sampling that follow
+// within the max age reuse that snapshot instead of spawning another smartctl process
+@Component
+public class SnapshotCache {
+
+    private final long maxAgeNanos;
+
+    private final Map<String, CachedSnapshot> snapshotsBySerial = new ConcurrentHashMap<>();
+
+    public SnapshotCache(@Value("${hardware.snapshot.max-age-ms:30000}") long maxAgeMillis) {
+        this.maxAgeNanos = maxAgeMillis * 1_000_000;
+    }
+
+    public void put(SmartSnapshot snapshot) {
+        if (snapshot != null && snapshot.serial() != null) {
+            snapshotsBySerial.put(snapshot.serial(), new CachedSnapshot(snapshot, System.nanoTime()));
+        }
+    }
+
+    // Returns the snapshot of a serial if it was captured within the max age
+    public Optional<SmartSnapshot> getFresh(String serial) {
+        if (serial == null) {
+            return Optional.empty();
+        }
+        CachedSnapshot cached = snapshotsBySerial.get(serial);
+        if (cached == null || System.nanoTime() - cached.capturedAtNanos() > maxAgeNanos) {
+            return Optional.empty();
+        }
+        return Optional.of(cached.snapshot());
+    }
+
+    public void invalidate(String serial) {
+        if (serial != null) {
+            snapshotsBySerial.remove(serial);
+        }
+    }
+
+    private record CachedSnapshot(SmartSnapshot snapshot, long capturedAtNanos) {
+    }
+}
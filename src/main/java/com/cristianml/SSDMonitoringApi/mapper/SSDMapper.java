@@ -1,51 +1,82 @@
 package com.cristianml.SSDMonitoringApi.mapper;
 
 import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
-import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.DeviceScanResponseDTO;
 import com.cristianml.SSDMonitoringApi.dto.response.SSDResponseDTO;
 import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordResponseDTO;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult.DeviceProbe;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult.ProbeStatus;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
 import com.cristianml.SSDMonitoringApi.service.impl.HardwareServiceImpl;
 import com.cristianml.SSDMonitoringApi.utilities.Utilities;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Component
-@RequiredArgsConstructor
 public class SSDMapper {
 
-    private final ModelMapper modelMapper;
-
+    // Maps the SSD columns only, the lazy records collection is never touched
     public SSDResponseDTO toResponseDTO(SSDEntity ssdEntity) {
-        SSDResponseDTO ssdResponseDTO = modelMapper.map(ssdEntity, SSDResponseDTO.class);
-        ssdResponseDTO.setFormattedDateTime(Utilities.formatLocalDateTime(ssdEntity.getRegistrationDate()));
-
-        if (ssdEntity.getRecords() != null && !ssdEntity.getRecords().isEmpty()) {
-            List<TbwRecordResponseDTO> recordDTOs = ssdEntity.getRecords().stream()
-                    .map(this::mapTbwRecordToDTO)
-                    .collect(Collectors.toList());
-            ssdResponseDTO.setRecords(recordDTOs);
+        return SSDResponseDTO.builder()
+                .id(ssdEntity.getId())
+                .model(ssdEntity.getModel())
+                .serial(ssdEntity.getSerial())
+                .capacityGB(ssdEntity.getCapacityGB())
+                .registrationDate(ssdEntity.getRegistrationDate())
+                .isMonitored(ssdEntity.getIsMonitored())
+                .ratedTbwGB(ssdEntity.getRatedTbwGB())
+                .formattedDateTime(Utilities.formatLocalDateTime(ssdEntity.getRegistrationDate()))
+                .build();
+    }
+
+    // Attaches the records of every SSD from one projection of the whole table instead of one query per SSD
+    // SSDs without records keep a null list
+    public List<SSDResponseDTO> toSSDResponseDTOList(List<SSDEntity> ssdList, List<TbwRecordRepository.TbwRecordPoint> points) {
+        Map<Long, List<TbwRecordResponseDTO>> recordsBySsdId = new HashMap<>();
+        for (TbwRecordRepository.TbwRecordPoint point : points) {
+            recordsBySsdId.computeIfAbsent(point.getSsdId(), id -> new ArrayList<>()).add(TbwRecordResponseDTO.builder()
+                    .ssdId(point.getSsdId())
+                    .date(point.getDate())
+                    .time(point.getTime())
+                    .tbw(point.getTbw())
+                    .build());
         }
 
-        return ssdResponseDTO;
+        return ssdList.stream()
+                .map(ssdEntity -> {
+                    SSDResponseDTO ssdResponseDTO = toResponseDTO(ssdEntity);
+                    ssdResponseDTO.setRecords(recordsBySsdId.get(ssdEntity.getId()));
+                    return ssdResponseDTO;
+                })
+                .toList();
     }
 
-    private TbwRecordResponseDTO mapTbwRecordToDTO(TbwRecordEntity record) {
-        return TbwRecordResponseDTO.builder()
-                .ssdId(record.getSsd().getId())
-                .date(record.getDate())
-                .time(record.getTime())
-                .tbw(record.getTbw())
-                .build();
-    }
+    public DeviceScanResponseDTO toDeviceScanResponseDTO(DeviceScanResult scanResult) {
+        List<SSDResponseDTO> detected = scanResult.probes().stream()
+                .filter(probe -> probe.status() == ProbeStatus.OK && probe.snapshot().hasIdentity())
+                .map(probe -> SSDResponseDTO.builder()
+                        .model(probe.snapshot().model())
+                        .serial(probe.snapshot().serial())
+                        .capacityGB(probe.snapshot().capacityGB())
+                        .build())
+                .toList();
 
-    public List<SSDResponseDTO> toSSDResponseDTOList(List<SSDEntity> ssdList) {
-        return ssdList.stream()
-                .map(this::toResponseDTO)
+        List<String> failed = scanResult.probes().stream()
+                .filter(probe -> probe.status() == ProbeStatus.FAILED)
+                .map(DeviceProbe::devicePath)
                 .toList();
+
+        return DeviceScanResponseDTO.builder()
+                .probedDevices(scanResult.probes().size())
+                .detected(detected)
+                .timedOutDevices(scanResult.timedOutDevices())
+                .failedDevices(failed)
+                .build();
     }
 
 }
@@ -2,6 +2,7 @@ package com.cristianml.SSDMonitoringApi.mapper;
 
 import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
 import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordResponseDTO;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
@@ -18,6 +19,16 @@ public class TbwRecordMapper {
         return modelMapper.map(tbwRecord, TbwRecordResponseDTO.class);
     }
 
+    // Projections are copied directly, a page never goes through the reflective mapper
+    public TbwRecordResponseDTO toResponseDTO(TbwRecordRepository.TbwRecordPoint point) {
+        return TbwRecordResponseDTO.builder()
+                .ssdId(point.getSsdId())
+                .date(point.getDate())
+                .time(point.getTime())
+                .tbw(point.getTbw())
+                .build();
+    }
+
     public List<TbwRecordResponseDTO> toTbwRecordResponseDTOList(List<TbwRecordEntity> tbwRecordList) {
         return tbwRecordList.stream()
                 .map(this::toResponseDTO)
@@ -0,0 +1,49 @@
+package com.cristianml.SSDMonitoringApi.mapper;
+
+import com.cristianml.SSDMonitoringApi.domain.SampleResolution;
+import com.cristianml.SSDMonitoringApi.domain.TbwRollupEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwSampleEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwHistoryPointResponseDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class TbwSampleMapper {
+
+    // Raw samples become single-sample points, delta is the growth since the previous sample in the list
+    public List<TbwHistoryPointResponseDTO> samplesToHistoryPoints(List<TbwSampleEntity> samples) {
+        List<TbwHistoryPointResponseDTO> points = new ArrayList<>(samples.size());
+        Long previousTbw = null;
+        for (TbwSampleEntity sample : samples) {
+            points.add(TbwHistoryPointResponseDTO.builder()
+                    .ssdId(sample.getSsd().getId())
+                    .resolution(SampleResolution.RAW)
+                    .periodStart(sample.getSampledAt())
+                    .minTbw(sample.getTbw())
+                    .maxTbw(sample.getTbw())
+                    .lastTbw(sample.getTbw())
+                    .deltaTbw(previousTbw != null ? sample.getTbw() - previousTbw : null)
+                    .sampleCount(1)
+                    .build());
+            previousTbw = sample.getTbw();
+        }
+        return points;
+    }
+
+    public List<TbwHistoryPointResponseDTO> rollupsToHistoryPoints(List<TbwRollupEntity> rollups) {
+        return rollups.stream()
+                .map(rollup -> TbwHistoryPointResponseDTO.builder()
+                        .ssdId(rollup.getSsd().getId())
+                        .resolution(rollup.getResolution())
+                        .periodStart(rollup.getPeriodStart())
+                        .minTbw(rollup.getMinTbw())
+                        .maxTbw(rollup.getMaxTbw())
+                        .lastTbw(rollup.getLastTbw())
+                        .deltaTbw(rollup.getDeltaTbw())
+                        .sampleCount(rollup.getSampleCount())
+                        .build())
+                .toList();
+    }
+}
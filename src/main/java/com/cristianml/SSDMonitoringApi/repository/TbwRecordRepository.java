@@ -2,12 +2,22 @@ package com.cristianml.SSDMonitoringApi.repository;
 
 import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
 import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TbwRecordRepository extends JpaRepository<TbwRecordEntity, Long> {
@@ -15,8 +25,46 @@ public interface TbwRecordRepository extends JpaRepository<TbwRecordEntity, Long
     TbwRecordEntity save(TbwRecordEntity tbwRecord);
     Optional<TbwRecordEntity> findBySsdAndDate(SSDEntity ssd, LocalDate date);
 
-    List<TbwRecordEntity> findByDateAfter(LocalDate apiDate);
+    List<TbwRecordEntity> findByDate(LocalDate date);
+
+    // Bulk delete, future records are never loaded into the persistence context
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TbwRecordEntity r WHERE r.date > :date")
+    int deleteByDateAfter(@Param("date") LocalDate date);
 
     Optional<TbwRecordEntity> findTopByOrderByDateDesc();
     boolean existsByDate(LocalDate date);
+
+    // Whole history in time order without loading the SSDs
+    @Query("SELECT r.ssd.id AS ssdId, r.date AS date, r.time AS time, r.tbw AS tbw FROM TbwRecordEntity r ORDER BY r.date, r.time")
+    List<TbwRecordPoint> findAllPoints();
+
+    // Whole history in (ssd_id, date) order as a forward-only cursor, rows are fetched as the stream is consumed
+    // Keeps a read transaction open until closed, so it is meant for in-process consumers only
+    // Must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.ssd.id AS ssdId, r.date AS date, r.time AS time, r.tbw AS tbw FROM TbwRecordEntity r ORDER BY r.ssd.id, r.date")
+    Stream<TbwRecordPoint> streamAllPoints();
+
+    // Keyset page of one SSD: records after the given date up to the end of the range, served by idx_tbw_records_ssd_day
+    @Query("SELECT r.ssd.id AS ssdId, r.date AS date, r.time AS time, r.tbw AS tbw FROM TbwRecordEntity r "
+            + "WHERE r.ssd.id = :ssdId AND r.date > :afterDate AND r.date <= :to ORDER BY r.date")
+    List<TbwRecordPoint> findPageOfSsd(@Param("ssdId") Long ssdId, @Param("afterDate") LocalDate afterDate,
+                                       @Param("to") LocalDate to, Limit limit);
+
+    // Keyset page across SSDs: records after (afterSsdId, afterDate) in (ssd_id, date) order within the date range
+    // The leading ssd_id >= bound lets the index seek straight to the page start
+    @Query("SELECT r.ssd.id AS ssdId, r.date AS date, r.time AS time, r.tbw AS tbw FROM TbwRecordEntity r "
+            + "WHERE r.ssd.id >= :afterSsdId AND (r.ssd.id > :afterSsdId OR r.date > :afterDate) "
+            + "AND r.date >= :from AND r.date <= :to ORDER BY r.ssd.id, r.date")
+    List<TbwRecordPoint> findPage(@Param("afterSsdId") Long afterSsdId, @Param("afterDate") LocalDate afterDate,
+                                  @Param("from") LocalDate from, @Param("to") LocalDate to, Limit limit);
+
+    interface TbwRecordPoint {
+        Long getSsdId();
+        LocalDate getDate();
+        LocalTime getTime();
+        Long getTbw();
+    }
 }
@@ -0,0 +1,106 @@
+package com.cristianml.SSDMonitoringApi.repository;
+
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes a whole sweep of daily TBW records with one multi-row upsert instead of a find and a save per SSD
+// Identity ids keep Hibernate from batching inserts, so the statement is built here and runs on the
+// connection of the surrounding JPA transaction. The update threshold is applied by the database:
+// an existing record of the day only takes the new TBW when it has grown by at least the threshold
+@Repository
+public class TbwRecordWriter {
+
+    // Rows per statement, 4 bound values each, well below SQLite's 32766 host parameter limit
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_PREFIX = "INSERT INTO tbw_records (epoch_day, second_of_day, tbw, ssd_id) VALUES ";
+    private static final String UPSERT_SUFFIX = " ON CONFLICT(epoch_day, ssd_id) DO UPDATE SET tbw = excluded.tbw "
+            + "WHERE excluded.tbw - tbw_records.tbw >= ?";
+    private static final String INSERT_MISSING_SUFFIX = " ON CONFLICT(epoch_day, ssd_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TbwRecordWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Creates the records missing for their day and updates the existing ones past the threshold
+    // Returns the number of records created or updated
+    public int upsert(List<TbwRecordEntity> records, long updateThreshold) {
+        return write(records, UPSERT_SUFFIX, updateThreshold);
+    }
+
+    // Creates the records missing for their day, existing records are left as they are
+    // Returns the number of records created
+    public int insertMissing(List<TbwRecordEntity> records) {
+        return write(records, INSERT_MISSING_SUFFIX, null);
+    }
+
+    private int write(List<TbwRecordEntity> records, String conflictClause, Long conflictValue) {
+        int written = 0;
+        for (int offset = 0; offset < records.size(); offset += MAX_ROWS_PER_STATEMENT) {
+            List<TbwRecordEntity> chunk = records.subList(offset, Math.min(records.size(), offset + MAX_ROWS_PER_STATEMENT));
+            Object[] values = new Object[chunk.size() * 4 + (conflictValue != null ? 1 : 0)];
+            int index = 0;
+            for (TbwRecordEntity record : chunk) {
+                values[index++] = record.getDate().toEpochDay();
+                values[index++] = record.getTime().toSecondOfDay();
+                values[index++] = record.getTbw();
+                values[index++] = record.getSsd().getId();
+            }
+            if (conflictValue != null) {
+                values[index] = conflictValue;
+            }
+            String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?)")) + conflictClause;
+            written += jdbcTemplate.update(sql, values);
+        }
+        return written;
+    }
+
+    // Records of the given SSDs on one day as stored, in the order of the SSDs; SSDs without a record are left out
+    // The returned entities are not managed and reference the given SSD instances
+    public List<TbwRecordEntity> findDay(LocalDate date, List<SSDEntity> ssds) {
+        Map<Long, TbwRecordEntity> stored = new HashMap<>();
+        for (int offset = 0; offset < ssds.size(); offset += MAX_ROWS_PER_STATEMENT) {
+            List<SSDEntity> chunk = ssds.subList(offset, Math.min(ssds.size(), offset + MAX_ROWS_PER_STATEMENT));
+            Map<Long, SSDEntity> ssdById = new HashMap<>();
+            Object[] values = new Object[chunk.size() + 1];
+            values[0] = date.toEpochDay();
+            for (int i = 0; i < chunk.size(); i++) {
+                ssdById.put(chunk.get(i).getId(), chunk.get(i));
+                values[i + 1] = chunk.get(i).getId();
+            }
+            String sql = "SELECT id, ssd_id, second_of_day, tbw FROM tbw_records WHERE epoch_day = ? AND ssd_id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, row -> {
+                SSDEntity ssd = ssdById.get(row.getLong("ssd_id"));
+                stored.put(ssd.getId(), TbwRecordEntity.builder()
+                        .id(row.getLong("id"))
+                        .ssd(ssd)
+                        .date(date)
+                        .time(LocalTime.ofSecondOfDay(row.getInt("second_of_day")))
+                        .tbw(row.getLong("tbw"))
+                        .build());
+            }, values);
+        }
+
+        List<TbwRecordEntity> records = new ArrayList<>();
+        for (SSDEntity ssd : ssds) {
+            TbwRecordEntity record = stored.get(ssd.getId());
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
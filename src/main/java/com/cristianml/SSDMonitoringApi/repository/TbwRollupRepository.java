@@ -0,0 +1,31 @@
+package com.cristianml.SSDMonitoringApi.repository;
+
+import com.cristianml.SSDMonitoringApi.domain.SampleResolution;
+import com.cristianml.SSDMonitoringApi.domain.TbwRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TbwRollupRepository extends JpaRepository<TbwRollupEntity, Long> {
+
+    @Query("SELECT r FROM TbwRollupEntity r WHERE r.ssd.id = :ssdId AND r.resolution = :resolution " +
+            "AND r.periodStart >= :from AND r.periodStart < :to ORDER BY r.periodStart")
+    List<TbwRollupEntity> findRange(@Param("ssdId") Long ssdId, @Param("resolution") SampleResolution resolution,
+                                    @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    Optional<TbwRollupEntity> findTopBySsdIdAndResolutionOrderByPeriodStartDesc(Long ssdId, SampleResolution resolution);
+    Optional<TbwRollupEntity> findTopBySsdIdAndResolutionOrderByPeriodStartAsc(Long ssdId, SampleResolution resolution);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TbwRollupEntity r WHERE r.resolution = :resolution AND r.periodStart < :cutoff")
+    int deleteByResolutionAndPeriodStartBefore(@Param("resolution") SampleResolution resolution, @Param("cutoff") LocalDateTime cutoff);
+}
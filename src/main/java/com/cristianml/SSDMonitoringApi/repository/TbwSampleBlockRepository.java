@@ -0,0 +1,28 @@
+package com.cristianml.SSDMonitoringApi.repository;
+
+import com.cristianml.SSDMonitoringApi.domain.TbwSampleBlockEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TbwSampleBlockRepository extends JpaRepository<TbwSampleBlockEntity, Long> {
+
+    // Blocks holding at least one sample in [from, to)
+    @Query("SELECT b FROM TbwSampleBlockEntity b WHERE b.ssd.id = :ssdId AND b.lastSampledAt >= :from AND b.firstSampledAt < :to ORDER BY b.firstSampledAt")
+    List<TbwSampleBlockEntity> findRange(@Param("ssdId") Long ssdId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    Optional<TbwSampleBlockEntity> findTopBySsdIdOrderByFirstSampledAtDesc(Long ssdId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TbwSampleBlockEntity b WHERE b.lastSampledAt < :cutoff")
+    int deleteByLastSampledAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
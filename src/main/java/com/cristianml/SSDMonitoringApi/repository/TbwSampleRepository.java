@@ -0,0 +1,34 @@
+package com.cristianml.SSDMonitoringApi.repository;
+
+import com.cristianml.SSDMonitoringApi.domain.TbwSampleEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TbwSampleRepository extends JpaRepository<TbwSampleEntity, Long> {
+
+    @Query("SELECT s FROM TbwSampleEntity s WHERE s.ssd.id = :ssdId AND s.sampledAt >= :from AND s.sampledAt < :to ORDER BY s.sampledAt")
+    List<TbwSampleEntity> findRange(@Param("ssdId") Long ssdId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    Optional<TbwSampleEntity> findTopBySsdIdOrderBySampledAtAsc(Long ssdId);
+    List<TbwSampleEntity> findBySsdIdAndSampledAtLessThanOrderBySampledAtAsc(Long ssdId, LocalDateTime before);
+
+    // Removes rows of an SSD already packed into a block
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TbwSampleEntity s WHERE s.ssd.id = :ssdId AND s.sampledAt <= :until")
+    int deleteSealed(@Param("ssdId") Long ssdId, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TbwSampleEntity s WHERE s.sampledAt < :cutoff")
+    int deleteBySampledAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,13 +1,16 @@
 package com.cristianml.SSDMonitoringApi.service;
 
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
 import com.cristianml.SSDMonitoringApi.dto.response.SSDResponseDTO;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult;
 
 import java.util.List;
 
 public interface IHardwareService {
 
     List<SSDResponseDTO> detectSSDsUsingSmartctl();
-    long getTBWFromSMART(String deviceName);
+    DeviceScanResult scanDevices();
+    long getTBWFromSMART(SSDEntity ssd);
 
 
 }
@@ -10,4 +10,5 @@ public interface ISSDService {
     List<SSDResponseDTO> findAll();
     void detectAndRegisterSsd();
     void toggleMonitoring(Long id, boolean monitor);
+    void updateRatedTbw(Long id, Long ratedTbwGB);
 }
@@ -0,0 +1,11 @@
+package com.cristianml.SSDMonitoringApi.service;
+
+import com.cristianml.SSDMonitoringApi.domain.ExportFormat;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwImportResponseDTO;
+
+import java.io.InputStream;
+
+public interface ITbwImport {
+
+    TbwImportResponseDTO importRecords(InputStream in, ExportFormat format, long resumeAfterLine);
+}
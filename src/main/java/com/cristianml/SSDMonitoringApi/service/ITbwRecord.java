@@ -1,7 +1,11 @@
 package com.cristianml.SSDMonitoringApi.service;
 
+import com.cristianml.SSDMonitoringApi.domain.ExportFormat;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordPageResponseDTO;
 import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordResponseDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
@@ -9,6 +13,8 @@ import java.util.List;
 public interface ITbwRecord {
 
     List<TbwRecordResponseDTO> findAll();
+    TbwRecordPageResponseDTO findPage(Long ssdId, LocalDate from, LocalDate to, Long afterSsdId, LocalDate afterDate, int limit);
+    void exportAll(ExportFormat format, OutputStream out) throws IOException;
     boolean autoRegisterTBW();
 
     long getCurrentTbwForSSD(Long ssdId);
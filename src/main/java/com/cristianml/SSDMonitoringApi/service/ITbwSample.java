@@ -0,0 +1,11 @@
+package com.cristianml.SSDMonitoringApi.service;
+
+import com.cristianml.SSDMonitoringApi.dto.response.TbwHistoryPointResponseDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ITbwSample {
+
+    List<TbwHistoryPointResponseDTO> findHistory(Long ssdId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,12 @@
+package com.cristianml.SSDMonitoringApi.service;
+
+import com.cristianml.SSDMonitoringApi.dto.response.WriteRateResponseDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface IWriteRate {
+
+    List<WriteRateResponseDTO> findAll();
+    Optional<WriteRateResponseDTO> findBySsdId(Long ssdId);
+}
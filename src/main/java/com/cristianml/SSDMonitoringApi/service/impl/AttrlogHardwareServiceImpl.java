@@ -0,0 +1,60 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.SSDResponseDTO;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult;
+import com.cristianml.SSDMonitoringApi.hardware.SmartdAttrlogTailer;
+import com.cristianml.SSDMonitoringApi.service.IHardwareService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+// Write counter source for hosts running smartd with attribute logging (smartd -A)
+// TBW reads are answered from the values tailed out of the attribute logs, so the scheduled
+// registration and update of TbwRecordEntity rows spawns no smartctl process
+// Drives without an attribute log (NVMe, or not yet logged) fall back to smartctl
+// Enabled with hardware.counter-source=attrlog
+@Service
+@Primary
+@ConditionalOnProperty(name = "hardware.counter-source", havingValue = "attrlog")
+public class AttrlogHardwareServiceImpl implements IHardwareService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttrlogHardwareServiceImpl.class);
+
+    private final HardwareServiceImpl smartctlService;
+    private final SmartdAttrlogTailer attrlogTailer;
+
+    public AttrlogHardwareServiceImpl(HardwareServiceImpl smartctlService, SmartdAttrlogTailer attrlogTailer) {
+        this.smartctlService = smartctlService;
+        this.attrlogTailer = attrlogTailer;
+    }
+
+    // Identity and capacity are not part of the attribute log, detection still uses smartctl
+    @Override
+    public List<SSDResponseDTO> detectSSDsUsingSmartctl() {
+        return smartctlService.detectSSDsUsingSmartctl();
+    }
+
+    @Override
+    public DeviceScanResult scanDevices() {
+        return smartctlService.scanDevices();
+    }
+
+    @Override
+    public long getTBWFromSMART(SSDEntity ssd) {
+        Optional<Long> logged = attrlogTailer.latestTbwInGB(ssd.getSerial());
+
+        if (logged.isPresent()) {
+            logger.debug("Got TBW: {} GB for SSD: {} from smartd attribute log", logged.get(), ssd.getModel());
+            return logged.get();
+        }
+
+        logger.debug("No recent smartd attribute log value for SSD: {}. Using smartctl.", ssd.getModel());
+        return smartctlService.getTBWFromSMART(ssd);
+    }
+}
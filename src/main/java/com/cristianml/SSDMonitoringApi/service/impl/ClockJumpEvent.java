@@ -0,0 +1,6 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+// Published when the wall clock moved by more than the monotonic clock between two checks
+// jumpMillis is positive when the wall clock jumped forward and negative when it was set back
+public record ClockJumpEvent(long jumpMillis, long detectedAtNanos) {
+}
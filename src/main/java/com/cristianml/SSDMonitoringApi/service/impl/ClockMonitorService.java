@@ -2,69 +2,81 @@ package com.cristianml.SSDMonitoringApi.service.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.SpringApplication;
-import org.springframework.context.ApplicationContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 // Service implementation for system clock integrity monitoring
-// Detects unexpected time changes and triggers application restart when manipulation is detected
-// Prevents data corruption from system clock adjustments during TBW recording
+// Detects wall clock jumps by comparing the elapsed wall time with the elapsed monotonic time
+// and publishes a ClockJumpEvent so in-memory state is re-anchored without restarting the application
 @Service
 public class ClockMonitorService {
 
     private static final Logger logger = LoggerFactory.getLogger(ClockMonitorService.class);
-    private final ApplicationContext applicationContext;
 
-    // Maximum allowed time drift between scheduled checks (2 minutes)
-    // Prevents false positives while detecting significant time manipulation
-    private static final long MAX_TIME_DRIFT_SECONDS = 120;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LongSupplier wallClock;
+    private final LongSupplier nanoTime;
 
-    private Instant lastCheckTime;
+    // Largest difference between wall and monotonic elapsed time that is not a jump
+    // Scheduling delays affect both clocks alike, so this only has to absorb gradual NTP corrections
+    private final long maxJumpMillis;
 
-    public ClockMonitorService(ApplicationContext applicationContext) {
-        this.applicationContext = applicationContext;
-        this.lastCheckTime = Instant.now();
-        logger.info("Clock monitor initialized at {}", lastCheckTime);
+    // Each run may execute on a different (virtual) thread
+    private volatile long lastWallMillis;
+    private volatile long lastNanos;
+
+    private final AtomicLong jumps = new AtomicLong();
+    private volatile long lastJumpMillis;
+
+    @Autowired
+    public ClockMonitorService(ApplicationEventPublisher eventPublisher,
+                               @Value("${clock.monitor.max-jump-ms:5000}") long maxJumpMillis) {
+        this(eventPublisher, maxJumpMillis, System::currentTimeMillis, System::nanoTime);
+    }
+
+    ClockMonitorService(ApplicationEventPublisher eventPublisher, long maxJumpMillis, LongSupplier wallClock, LongSupplier nanoTime) {
+        this.eventPublisher = eventPublisher;
+        this.maxJumpMillis = maxJumpMillis;
+        this.wallClock = wallClock;
+        this.nanoTime = nanoTime;
+        this.lastWallMillis = wallClock.getAsLong();
+        this.lastNanos = nanoTime.getAsLong();
+        logger.info("Clock monitor initialized, wall clock jumps over {} ms are recovered in process", maxJumpMillis);
     }
 
     // Scheduled task that monitors system clock integrity every minute
-    // Compares elapsed time between checks to detect unexpected time jumps
+    // The baseline is re-anchored on every check, a jump is reported once
     @Scheduled(fixedRate = 60000) // Executes every 60 seconds
     public void checkClockIntegrity() {
-        Instant currentTime = Instant.now();
-        Duration elapsed = Duration.between(lastCheckTime, currentTime);
-        long elapsedSeconds = elapsed.getSeconds();
+        long wallMillis = wallClock.getAsLong();
+        long nanos = nanoTime.getAsLong();
+        long jump = (wallMillis - lastWallMillis) - (nanos - lastNanos) / 1_000_000;
+        lastWallMillis = wallMillis;
+        lastNanos = nanos;
 
-        // Expected elapsed time is approximately 60 seconds between checks
-        // Significant deviation indicates potential clock manipulation
-        if (Math.abs(elapsedSeconds - 60) > MAX_TIME_DRIFT_SECONDS) {
-            logger.error("CLOCK MANIPULATION DETECTED! Expected ~60s, got {}s. Restarting application...",
-                    elapsedSeconds);
-            restartApplication();
+        if (Math.abs(jump) > maxJumpMillis) {
+            jumps.incrementAndGet();
+            lastJumpMillis = jump;
+            logger.warn("Wall clock jumped {} ms, re-anchoring in-memory state", jump);
+            eventPublisher.publishEvent(new ClockJumpEvent(jump, nanos));
             return;
         }
 
-        logger.debug("Clock integrity check passed. Elapsed: {}s", elapsedSeconds);
-        lastCheckTime = currentTime;
+        logger.debug("Clock integrity check passed. Wall and monotonic clocks differ by {} ms", jump);
     }
 
-    // Triggers graceful application restart when clock manipulation detected
-    // Uses exit code 10 to indicate restart requirement to process manager
-    private void restartApplication() {
-        logger.warn("Initiating application restart due to clock manipulation");
+    public long getJumps() {
+        return jumps.get();
+    }
 
-        new Thread(() -> {
-            try {
-                Thread.sleep(1000); // Brief delay to allow log flushing
-                System.exit(10); // Special exit code for restart indication
-            } catch (InterruptedException e) {
-                logger.error("Restart interrupted", e);
-                Thread.currentThread().interrupt();
-            }
-        }).start();
+    // Size of the last detected jump in milliseconds, 0 when none was detected
+    public long getLastJumpMillis() {
+        return lastJumpMillis;
     }
-}
\ No newline at end of file
+}
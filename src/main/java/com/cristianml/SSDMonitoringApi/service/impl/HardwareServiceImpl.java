@@ -2,26 +2,43 @@ package com.cristianml.SSDMonitoringApi.service.impl;
 
 import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
 import com.cristianml.SSDMonitoringApi.dto.response.SSDResponseDTO;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceCircuitBreaker;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceRegistry;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceRegistry.DeviceEntry;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult.DeviceProbe;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult.ProbeStatus;
+import com.cristianml.SSDMonitoringApi.hardware.SingleFlight;
+import com.cristianml.SSDMonitoringApi.hardware.SmartDataSource;
+import com.cristianml.SSDMonitoringApi.hardware.SmartDataSource.SmartReading;
+import com.cristianml.SSDMonitoringApi.hardware.SmartSnapshot;
+import com.cristianml.SSDMonitoringApi.hardware.SnapshotCache;
 import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
 import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
 import com.cristianml.SSDMonitoringApi.service.IHardwareService;
 import com.cristianml.SSDMonitoringApi.utilities.Utilities;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
 
 // Service implementation for hardware detection and SMART data retrieval
-// Handles SSD discovery using smartctl command-line utility and TBW value extraction
+// Handles SSD discovery and TBW value extraction through the configured SmartDataSource
 // Provides graceful failure handling for disconnected devices with automatic monitoring disablement
 @Service
 public class HardwareServiceImpl implements IHardwareService {
@@ -30,188 +47,229 @@ public class HardwareServiceImpl implements IHardwareService {
 
     private final SSDRepository ssdRepository;
     private final TbwRecordRepository tbwRecordRepository;
+    private final DeviceRegistry deviceRegistry;
+    private final SmartDataSource smartDataSource;
+    private final SnapshotCache snapshotCache;
 
-    public HardwareServiceImpl(SSDRepository ssdRepository, TbwRecordRepository tbwRecordRepository) {
+    // Upper bound of devices probed at the same time, each probe is bounded by the data source deadline
+    private final int maxConcurrentProbes;
+
+    // Virtual threads keep blocking device probes off platform threads
+    private final ExecutorService probeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Concurrent callers (API requests and the scheduler) join the scan or device read already in flight
+    // Reads are serialized per device and run in parallel across devices
+    private final SingleFlight<String, DeviceScanResult> scanFlight = new SingleFlight<>();
+    private final SingleFlight<String, SmartReading> readFlight = new SingleFlight<>();
+
+    public HardwareServiceImpl(SSDRepository ssdRepository, TbwRecordRepository tbwRecordRepository, DeviceRegistry deviceRegistry,
+                               SmartDataSource smartDataSource, SnapshotCache snapshotCache,
+                               @Value("${hardware.probe.max-concurrency:8}") int maxConcurrentProbes) {
         this.ssdRepository = ssdRepository;
         this.tbwRecordRepository = tbwRecordRepository;
+        this.deviceRegistry = deviceRegistry;
+        this.smartDataSource = smartDataSource;
+        this.snapshotCache = snapshotCache;
+        this.maxConcurrentProbes = Math.max(1, maxConcurrentProbes);
     }
 
     // Scans system storage devices using smartctl command-line utility
     // Returns list of detected SSDs with model, serial, and capacity information
+    // Not transactional: no database connection is held while smartctl runs
     @Override
-    @Transactional(readOnly = true)
     public List<SSDResponseDTO> detectSSDsUsingSmartctl() {
         logger.debug("Starting SSD detection with smartctl");
         List<SSDResponseDTO> detectedSSDs = new ArrayList<>();
 
-        try {
-            // Execute smartctl scan command to list available storage devices
-            Process process = Runtime.getRuntime().exec("smartctl --scan");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(" ");
-                if (parts.length > 0) {
-                    String device = parts[0];
-                    logger.debug("Checking device: {}", device);
-
-                    try {
-                        // Get detailed information for each detected device
-                        Process infoProcess = Runtime.getRuntime().exec("smartctl -i " + device);
-                        BufferedReader infoReader = new BufferedReader(new InputStreamReader(infoProcess.getInputStream()));
-
-                        StringBuilder fullOutput = new StringBuilder();
-                        String model = null;
-                        String serial = null;
-
-                        while ((line = infoReader.readLine()) != null) {
-                            fullOutput.append(line).append("\n");
-
-                            if (line.contains("Model Family:") || line.contains("Model Number:")) {
-                                model = line.split(":")[1].trim();
-                            }
-                            if (line.contains("Serial Number:")) {
-                                serial = line.split(":")[1].trim();
-                            }
-                        }
-
-                        // Extract storage capacity from smartctl output
-                        Long capacityGB = extractCapacityInGB(fullOutput.toString());
-
-                        if (model != null && serial != null && capacityGB != null && capacityGB > 0) {
-                            detectedSSDs.add(SSDResponseDTO.builder()
-                                    .model(model)
-                                    .serial(serial)
-                                    .capacityGB(capacityGB)
-                                    .registrationDate(LocalDateTime.now())
-                                    .formattedDateTime(Utilities.formatLocalDateTime(LocalDateTime.now()))
-                                    .build());
-                            logger.info("Detected SSD - Model: {}, Serial: {}, Capacity: {} GB", model, serial, capacityGB);
-                        }
-                    } catch (Exception e) {
-                        logger.error("Failed to get info for device {}: {}", device, e.getMessage());
-                    }
-                }
+        for (DeviceProbe probe : scanDevices().probes()) {
+            SmartSnapshot identity = probe.snapshot();
+            if (probe.status() != ProbeStatus.OK || identity == null) {
+                continue;
+            }
+
+            String model = identity.model();
+            String serial = identity.serial();
+            Long capacityGB = identity.capacityGB();
+
+            if (model != null && serial != null && capacityGB != null && capacityGB > 0) {
+                detectedSSDs.add(SSDResponseDTO.builder()
+                        .model(model)
+                        .serial(serial)
+                        .capacityGB(capacityGB)
+                        .registrationDate(LocalDateTime.now())
+                        .formattedDateTime(Utilities.formatLocalDateTime(LocalDateTime.now()))
+                        .build());
+                logger.info("Detected SSD - Model: {}, Serial: {}, Capacity: {} GB", model, serial, capacityGB);
             }
-        } catch (Exception e) {
-            logger.error("Error while detecting SSDs", e);
-            throw new RuntimeException("Error while detecting SSDs", e);
         }
 
         logger.info("Found {} SSDs total", detectedSSDs.size());
         return detectedSSDs;
     }
 
-    // Parses smartctl output to extract storage capacity in gigabytes
-    // Supports both SATA (User Capacity) and NVMe (Namespace Size) formats
-    private Long extractCapacityInGB(String smartctlOutput) {
+    // Lists devices with smartctl scan and probes them in parallel on virtual threads
+    // Each probe reads identity and counters at once and caches the snapshot for the TBW reads that follow
+    // Each probe is bounded by the per-device deadline, devices that time out or fail are flagged
+    // in the result instead of failing the whole scan
+    // Callers arriving while a scan runs share its result instead of starting their own
+    @Override
+    public DeviceScanResult scanDevices() {
         try {
-            // Pattern for SATA drive capacity extraction
-            Pattern userPattern = Pattern.compile("User Capacity:\\s+[\\d,]+\\s+bytes\\s+\\[([\\d.]+)\\s+(TB|GB)\\]");
-            Matcher userMatcher = userPattern.matcher(smartctlOutput);
-
-            if (userMatcher.find()) {
-                double size = Double.parseDouble(userMatcher.group(1));
-                String unit = userMatcher.group(2);
-                return Math.round("TB".equals(unit) ? size * 1024 : size);
-            }
+            return scanFlight.execute("scan", this::runScan);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for device scan", e);
+        } catch (IOException | TimeoutException e) {
+            throw new RuntimeException("Error while detecting SSDs", e);
+        }
+    }
+
+    // Callers that joined a scan started by another caller
+    public long getCoalescedScans() {
+        return scanFlight.getJoined();
+    }
+
+    // Callers that joined a device read started by another caller
+    public long getCoalescedReads() {
+        return readFlight.getJoined();
+    }
+
+    private DeviceScanResult runScan() {
+        List<String> devices;
+        try {
+            devices = smartDataSource.scanDevices();
+        } catch (Exception e) {
+            logger.error("Error while detecting SSDs", e);
+            throw new RuntimeException("Error while detecting SSDs", e);
+        }
 
-            // Pattern for NVMe drive capacity extraction
-            Pattern nvmePattern = Pattern.compile("Namespace 1 Size/Capacity:\\s+[\\d,]+\\s+\\[([\\d.]+)\\s+(TB|GB)\\]");
-            Matcher nvmeMatcher = nvmePattern.matcher(smartctlOutput);
+        Semaphore permits = new Semaphore(maxConcurrentProbes);
+        List<Future<DeviceProbe>> futures = new ArrayList<>();
+        for (String device : devices) {
+            futures.add(probeExecutor.submit(() -> {
+                permits.acquire();
+                try {
+                    return probeDevice(device);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
 
-            if (nvmeMatcher.find()) {
-                double size = Double.parseDouble(nvmeMatcher.group(1));
-                String unit = nvmeMatcher.group(2);
-                return Math.round("TB".equals(unit) ? size * 1024 : size);
+        List<DeviceProbe> probes = new ArrayList<>();
+        for (int i = 0; i < devices.size(); i++) {
+            probes.add(awaitProbe(devices.get(i), futures.get(i)));
+        }
+        DeviceScanResult result = new DeviceScanResult(probes);
+
+        // Remember device paths so subsequent TBW reads skip the full scan
+        // Devices that did not answer keep their previous mapping until they do
+        List<DeviceEntry> registryEntries = new ArrayList<>();
+        for (DeviceProbe probe : probes) {
+            if (probe.status() == ProbeStatus.OK && probe.snapshot().hasIdentity()) {
+                registryEntries.add(new DeviceEntry(probe.snapshot().serial(), probe.snapshot().model(), probe.devicePath()));
             }
+        }
+        deviceRegistry.replaceAll(registryEntries, result.unresponsiveDevices());
 
-            logger.warn("Could not extract capacity from smartctl output");
-            return 0L;
+        if (!result.unresponsiveDevices().isEmpty()) {
+            logger.warn("Device scan completed partially. Unresponsive devices: {}", result.unresponsiveDevices());
+        }
+        return result;
+    }
 
-        } catch (Exception e) {
-            logger.error("Error extracting capacity: {}", e.getMessage());
-            return 0L;
+    // Waits for a probe task, the task itself enforces the per-device deadline
+    private DeviceProbe awaitProbe(String device, Future<DeviceProbe> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DeviceProbe(device, null, ProbeStatus.FAILED);
+        } catch (ExecutionException e) {
+            logger.error("Failed to get info for device {}: {}", device, e.getCause().getMessage());
+            return new DeviceProbe(device, null, ProbeStatus.FAILED);
         }
     }
 
-    // Retrieves Total Bytes Written (TBW) value for specified SSD model
-    // Returns -1 if SSD is unavailable and automatically disables monitoring
+    // Retrieves Total Bytes Written (TBW) value for the given SSD
+    // Resolves the device path through the registry by the SSD's serial so a read costs a single smartctl call
+    // and no database query
+    // Returns -1 if SSD is unavailable and automatically disables monitoring when the device is gone
+    // Open breakers, timeouts and interrupts also return -1 but keep the drive monitored
+    // Not transactional: callers collect readings first and persist them afterwards
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public long getTBWFromSMART(String ssdModel) {
+    public long getTBWFromSMART(SSDEntity ssd) {
+        String ssdModel = ssd.getModel();
+        String expectedSerial = ssd.getSerial();
         logger.debug("Getting TBW for SSD: {}", ssdModel);
 
         try {
-            // Scan for all available storage devices
-            Process scanProcess = Runtime.getRuntime().exec("smartctl --scan");
-            BufferedReader scanReader = new BufferedReader(new InputStreamReader(scanProcess.getInputStream()));
-
-            String line;
-            String matchingDevice = null;
-
-            // Find device path that matches the requested SSD model
-            while ((line = scanReader.readLine()) != null) {
-                String[] parts = line.split(" ");
-                if (parts.length > 0) {
-                    String device = parts[0];
-
-                    Process infoProcess = Runtime.getRuntime().exec("smartctl -i " + device);
-                    BufferedReader infoReader = new BufferedReader(new InputStreamReader(infoProcess.getInputStream()));
-
-                    String model = null;
-                    while ((line = infoReader.readLine()) != null) {
-                        if (line.contains("Model Family:") || line.contains("Model Number:")) {
-                            model = line.split(":")[1].trim();
-                            break;
-                        }
-                    }
-
-                    if (model != null && model.equalsIgnoreCase(ssdModel)) {
-                        matchingDevice = device;
-                        logger.debug("Found matching device: {}", device);
-                        break;
-                    }
-                }
+            Optional<DeviceEntry> entry = lookupDevice(expectedSerial, ssdModel);
+
+            // Registry miss: the device was never detected or its path changed since last scan
+            if (entry.isEmpty()) {
+                logger.debug("Device registry miss for SSD: {}. Rescanning devices.", ssdModel);
+                scanDevices();
+                entry = lookupDevice(expectedSerial, ssdModel);
             }
 
             // If no matching device found, SSD is likely disconnected
-            if (matchingDevice == null) {
+            if (entry.isEmpty()) {
                 logger.warn("Device not found for model: {}. Disabling monitoring.", ssdModel);
-                disableMonitoringForSsd(ssdModel);
+                disableMonitoringForSsd(ssd);
                 return -1;
             }
 
-            // Get detailed SMART attributes including TBW data
-            ProcessBuilder builder = new ProcessBuilder("smartctl", "-A", matchingDevice);
-            builder.redirectErrorStream(true);
-            Process tbwProcess = builder.start();
-
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(tbwProcess.getInputStream()))) {
-                while ((line = reader.readLine()) != null) {
-                    if (line.contains("Data Units Written")) {
-                        String value = line.split(":")[1].trim().split(" ")[0].replace(",", "");
-                        long dataUnitsWritten = Long.parseLong(value);
-
-                        long totalBytesWritten = (long) (dataUnitsWritten * 512 * 931.4);
-                        long tbwInGB = totalBytesWritten / (1000 * 1000 * 1000);
-                        logger.info("Got TBW: {} GB for SSD: {}", tbwInGB, ssdModel);
-                        return tbwInGB;
-                    }
+            // A scan that just ran already captured the counters of this drive
+            Optional<SmartSnapshot> cached = snapshotCache.getFresh(entry.get().serial());
+            if (cached.isPresent() && cached.get().tbwInGB() != null) {
+                logger.info("Got TBW: {} GB for SSD: {} from recent snapshot", cached.get().tbwInGB(), ssdModel);
+                return cached.get().tbwInGB();
+            }
+
+            // Single call returning identity and attributes, serial verifies the cached path still points to this drive
+            SmartReading reading = readSnapshot(entry.get().devicePath());
+
+            // A different drive now answers on the cached path, rescan once and retry
+            if (reading.snapshot().serial() != null && !reading.snapshot().serial().equals(entry.get().serial())) {
+                logger.info("Device {} now reports serial {} instead of {}. Rescanning devices.",
+                        entry.get().devicePath(), reading.snapshot().serial(), entry.get().serial());
+                invalidateDevice(entry.get().serial());
+                scanDevices();
+                entry = lookupDevice(expectedSerial, ssdModel);
+                if (entry.isEmpty()) {
+                    logger.warn("Device not found for model: {}. Disabling monitoring.", ssdModel);
+                    disableMonitoringForSsd(ssd);
+                    return -1;
                 }
+                reading = readSnapshot(entry.get().devicePath());
             }
 
-            int exitCode = tbwProcess.waitFor();
-            if (exitCode != 0) {
-                logger.warn("smartctl failed with code: {} for device: {}. Disabling monitoring.", exitCode, matchingDevice);
-                disableMonitoringForSsd(ssdModel);
+            Long tbwInGB = reading.snapshot().tbwInGB();
+            if (tbwInGB != null) {
+                logger.info("Got TBW: {} GB for SSD: {}", tbwInGB, ssdModel);
+                return tbwInGB;
+            }
+
+            if (!reading.acquired()) {
+                logger.warn("smartctl failed with code: {} for device: {}. Disabling monitoring.",
+                        reading.exitCode(), entry.get().devicePath());
+                invalidateDevice(entry.get().serial());
+                disableMonitoringForSsd(ssd);
                 return -1;
             }
 
+        } catch (DeviceCircuitBreaker.CircuitOpenException | TimeoutException e) {
+            // Transient: the breaker or the deadline already backs off, the drive is read again on a later sweep
+            logger.warn("Skipping TBW read for SSD: {} - {}", ssdModel, e.getMessage());
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while reading TBW for SSD: {}", ssdModel);
+            return -1;
         } catch (Exception e) {
             logger.warn("Failed to get TBW for SSD: {} - Device might be disconnected. Disabling monitoring.", ssdModel);
-            disableMonitoringForSsd(ssdModel);
+            disableMonitoringForSsd(ssd);
             return -1;
         }
 
@@ -219,19 +277,63 @@ public class HardwareServiceImpl implements IHardwareService {
         return -1;
     }
 
-    // Disables monitoring for specified SSD model when device becomes unavailable
+    // Looks up device by serial, falling back to model for SSDs without a known serial
+    private Optional<DeviceEntry> lookupDevice(String serial, String model) {
+        if (serial != null) {
+            return deviceRegistry.findBySerial(serial);
+        }
+        return deviceRegistry.findByModel(model);
+    }
+
+    // Reads the snapshot of a device and keeps it for later reads of the same drive
+    // Exit codes with only disk health bits set still carry valid data and are cached as well
+    // A read already running for the device is joined rather than repeated
+    private SmartReading readSnapshot(String device) throws IOException, InterruptedException, TimeoutException {
+        return readFlight.execute(device, () -> {
+            SmartReading reading = smartDataSource.readSnapshot(device);
+            if (reading.acquired()) {
+                snapshotCache.put(reading.snapshot());
+            }
+            return reading;
+        });
+    }
+
+    private void invalidateDevice(String serial) {
+        deviceRegistry.invalidate(serial);
+        snapshotCache.invalidate(serial);
+    }
+
+    // Reads identity and counters of a single device in one smartctl call
+    private DeviceProbe probeDevice(String device) throws IOException, InterruptedException {
+        logger.debug("Checking device: {}", device);
+        try {
+            return new DeviceProbe(device, readSnapshot(device).snapshot(), ProbeStatus.OK);
+        } catch (TimeoutException e) {
+            logger.warn("Device {} did not answer in time, skipping it in this scan", device);
+            return new DeviceProbe(device, null, ProbeStatus.TIMED_OUT);
+        }
+    }
+
+    @PreDestroy
+    void shutdownProbeExecutor() {
+        probeExecutor.shutdownNow();
+    }
+
+    // Disables monitoring for the given SSD when its device becomes unavailable
+    // The stored row is reloaded so the change applies to its current state, not to the caller's copy
     // Runs in separate transaction to prevent affecting other operations
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    private void disableMonitoringForSsd(String model) {
+    private void disableMonitoringForSsd(SSDEntity ssd) {
         try {
-            SSDEntity ssd = ssdRepository.findByModel(model);
-            if (ssd != null && ssd.getIsMonitored()) {
+            SSDEntity stored = ssd.getId() != null ? ssdRepository.findById(ssd.getId()).orElse(null) : null;
+            if (stored != null && stored.getIsMonitored()) {
+                stored.setIsMonitored(false);
+                ssdRepository.save(stored);
                 ssd.setIsMonitored(false);
-                ssdRepository.save(ssd);
-                logger.info("Automatically disabled monitoring for unavailable SSD: {}", model);
+                logger.info("Automatically disabled monitoring for unavailable SSD: {}", ssd.getModel());
             }
         } catch (Exception e) {
-            logger.error("Error disabling monitoring for SSD: {}", model, e);
+            logger.error("Error disabling monitoring for SSD: {}", ssd.getModel(), e);
         }
     }
-}
\ No newline at end of file
+}
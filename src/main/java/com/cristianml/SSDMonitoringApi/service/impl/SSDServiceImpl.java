@@ -4,6 +4,7 @@ import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
 import com.cristianml.SSDMonitoringApi.dto.response.SSDResponseDTO;
 import com.cristianml.SSDMonitoringApi.mapper.SSDMapper;
 import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
 import com.cristianml.SSDMonitoringApi.service.IHardwareService;
 import com.cristianml.SSDMonitoringApi.service.ISSDService;
 import org.slf4j.Logger;
@@ -26,29 +27,33 @@ public class SSDServiceImpl implements ISSDService {
     private final SSDMapper ssdMapper;
     private final SSDRepository ssdRepository;
     private final IHardwareService hardwareService;
+    private final TbwRecordRepository tbwRecordRepository;
 
     // Constructor for dependency injection of required components
-    public SSDServiceImpl(SSDMapper ssdMapper, SSDRepository ssdRepository, IHardwareService hardwareService) {
+    public SSDServiceImpl(SSDMapper ssdMapper, SSDRepository ssdRepository, IHardwareService hardwareService,
+                          TbwRecordRepository tbwRecordRepository) {
         this.ssdMapper = ssdMapper;
         this.ssdRepository = ssdRepository;
         this.hardwareService = hardwareService;
+        this.tbwRecordRepository = tbwRecordRepository;
     }
 
     // Retrieves all SSD entities from database and converts to response DTOs
     // Used for displaying SSD inventory in user interface
+    // Two queries whatever the fleet size: the SSDs, then the records of all of them as projections
     @Override
     @Transactional(readOnly = true)
     public List<SSDResponseDTO> findAll() {
         logger.debug("Retrieving all SSD entities");
         List<SSDEntity> ssdEntityList = ssdRepository.findAll();
         logger.info("Found {} SSD entities", ssdEntityList.size());
-        return ssdMapper.toSSDResponseDTOList(ssdEntityList);
+        return ssdMapper.toSSDResponseDTOList(ssdEntityList, tbwRecordRepository.findAllPoints());
     }
 
     // Detects available SSDs using hardware service and registers new devices
     // Updates monitoring status for existing SSDs and creates records for new ones
+    // Not transactional: the scan must not hold a database connection, each save commits on its own
     @Override
-    @Transactional
     public void detectAndRegisterSsd() {
         logger.debug("Starting SSD detection and registration process");
 
@@ -95,7 +100,7 @@ public class SSDServiceImpl implements ISSDService {
 
     // Detects and registers SSDs during application startup
     // Sets initial monitoring status to true for new devices detected at startup
-    @Transactional
+    // Not transactional: the scan must not hold a database connection, each save commits on its own
     public void detectAndRegisterSsdOnStartup() {
         logger.debug("Starting SSD detection and registration process on startup");
 
@@ -158,4 +163,27 @@ public class SSDServiceImpl implements ISSDService {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    // Sets the endurance rating used to project when an SSD reaches its rated TBW, null clears it
+    @Override
+    @Transactional
+    public void updateRatedTbw(Long id, Long ratedTbwGB) {
+        logger.debug("Attempting to set rated TBW to {} GB for SSD with ID: {}", ratedTbwGB, id);
+
+        if (ratedTbwGB != null && ratedTbwGB <= 0) {
+            throw new IllegalArgumentException("Rated TBW must be positive.");
+        }
+
+        try {
+            SSDEntity ssd = ssdRepository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("SSD Not found."));
+
+            ssd.setRatedTbwGB(ratedTbwGB);
+            this.ssdRepository.save(ssd);
+            logger.info("Successfully updated rated TBW to {} GB for SSD: {}", ratedTbwGB, ssd.getModel());
+        } catch (Exception e) {
+            logger.error("Error updating rated TBW for SSD with ID: {}", id, e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Plans when each monitored SSD is sampled next, based on its observed write rate
+// Every SSD has its own deadline in a priority queue: the interval is the time the drive needs to
+// write the target delta at its smoothed rate, so idle drives back off and busy drives tighten up
+// Times are monotonic milliseconds supplied by the caller
+@Component
+public class SamplingPlanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SamplingPlanner.class);
+
+    // Weight of the newest rate observation in the moving average
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final double targetDeltaGB;
+
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>(
+            Comparator.comparingLong(Deadline::dueAtMillis).thenComparing(Deadline::ssdId));
+    private final Map<Long, SamplingState> states = new HashMap<>();
+
+    public SamplingPlanner(@Value("${tbw.sampling.min-interval-ms:60000}") long minIntervalMillis,
+                           @Value("${tbw.sampling.max-interval-ms:3600000}") long maxIntervalMillis,
+                           @Value("${tbw.sampling.target-delta-gb:3}") double targetDeltaGB) {
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = Math.max(minIntervalMillis, maxIntervalMillis);
+        this.targetDeltaGB = targetDeltaGB;
+    }
+
+    // Returns the monitored SSDs whose deadline has passed
+    // SSDs seen for the first time are due immediately, SSDs no longer monitored are forgotten
+    public synchronized List<SSDEntity> dueSsds(Collection<SSDEntity> monitored, long nowMillis) {
+        Map<Long, SSDEntity> monitoredById = monitored.stream()
+                .collect(Collectors.toMap(SSDEntity::getId, ssd -> ssd, (first, second) -> first));
+        syncMonitored(monitoredById.keySet(), nowMillis);
+
+        List<SSDEntity> due = new ArrayList<>();
+        while (!deadlines.isEmpty() && deadlines.peek().dueAtMillis() <= nowMillis) {
+            Deadline deadline = deadlines.peek();
+            // Fallback deadline in case the sample never reports back, replaced by recordSample
+            schedule(deadline.ssdId(), states.get(deadline.ssdId()), nowMillis + maxIntervalMillis);
+            due.add(monitoredById.get(deadline.ssdId()));
+        }
+        return due;
+    }
+
+    // Updates the write rate of an SSD from a new TBW reading and schedules its next sample
+    // A missing reading (null or -1) reschedules at the longest interval
+    public synchronized void recordSample(Long ssdId, Long tbwInGB, long nowMillis) {
+        SamplingState state = states.get(ssdId);
+        if (state == null) {
+            return;
+        }
+
+        if (tbwInGB == null || tbwInGB < 0) {
+            schedule(ssdId, state, nowMillis + maxIntervalMillis);
+            return;
+        }
+
+        if (state.lastTbwInGB != null && nowMillis > state.lastSampleMillis) {
+            double observedRate = Math.max(0, tbwInGB - state.lastTbwInGB) / (double) (nowMillis - state.lastSampleMillis);
+            state.rateGBPerMilli = state.rateGBPerMilli == null ? observedRate
+                    : RATE_SMOOTHING * observedRate + (1 - RATE_SMOOTHING) * state.rateGBPerMilli;
+        }
+        state.lastTbwInGB = tbwInGB;
+        state.lastSampleMillis = nowMillis;
+
+        long interval = nextInterval(state);
+        state.intervalMillis = interval;
+        schedule(ssdId, state, nowMillis + interval);
+        logger.debug("Next TBW sample for SSD {} in {} ms", ssdId, interval);
+    }
+
+    // Time to write the target delta at the smoothed rate, backing off at most 2x per sample
+    // so a single quiet interval does not push a busy drive to the longest interval
+    private long nextInterval(SamplingState state) {
+        if (state.rateGBPerMilli == null) {
+            return minIntervalMillis;
+        }
+        double untilTarget = state.rateGBPerMilli > 0 ? targetDeltaGB / state.rateGBPerMilli : Double.MAX_VALUE;
+        long backoffLimit = state.intervalMillis * 2;
+        long interval = (long) Math.min(untilTarget, backoffLimit);
+        return Math.max(minIntervalMillis, Math.min(maxIntervalMillis, interval));
+    }
+
+    private void syncMonitored(Set<Long> monitoredIds, long nowMillis) {
+        states.entrySet().removeIf(entry -> {
+            boolean stale = !monitoredIds.contains(entry.getKey());
+            if (stale) {
+                deadlines.remove(entry.getValue().deadline);
+            }
+            return stale;
+        });
+        for (Long ssdId : monitoredIds) {
+            if (!states.containsKey(ssdId)) {
+                SamplingState state = new SamplingState(minIntervalMillis);
+                states.put(ssdId, state);
+                schedule(ssdId, state, nowMillis);
+            }
+        }
+    }
+
+    // Replaces the pending deadline of an SSD, the queue holds one entry per monitored SSD
+    private void schedule(Long ssdId, SamplingState state, long dueAtMillis) {
+        if (state.deadline != null) {
+            deadlines.remove(state.deadline);
+        }
+        state.deadline = new Deadline(ssdId, dueAtMillis);
+        deadlines.add(state.deadline);
+    }
+
+    private record Deadline(Long ssdId, long dueAtMillis) {
+    }
+
+    private static final class SamplingState {
+        private Deadline deadline;
+        private long intervalMillis;
+        private Long lastTbwInGB;
+        private long lastSampleMillis;
+        private Double rateGBPerMilli;
+
+        SamplingState(long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// In-memory view of the current scheduling day, owned by the scheduler thread
+// Holds the trusted day, the monitored SSDs and the TBW stored in today's record of each SSD
+// so an idle scheduler tick does not need the database
+class SchedulerDayState {
+
+    private LocalDate day;
+
+    private List<SSDEntity> monitoredSsds = List.of();
+    private long monitoredVersion = -1;
+
+    // TBW stored in today's record, keyed by SSD id; SSDs without a record today are absent
+    private final Map<Long, Long> recordedTbw = new HashMap<>();
+
+    // True when the day has to be (re)loaded from the database
+    boolean needsNewDay(LocalDate today) {
+        return !today.equals(day);
+    }
+
+    // Replaces the recorded TBW with the stored records of the given trusted day
+    void startDay(LocalDate trustedDate, Collection<TbwRecordEntity> todaysRecords) {
+        day = trustedDate;
+        recordedTbw.clear();
+        todaysRecords.forEach(this::recorded);
+    }
+
+    // Forces the next tick to reload the day
+    void invalidate() {
+        day = null;
+    }
+
+    LocalDate day() {
+        return day;
+    }
+
+    boolean isMonitoredStale(long version) {
+        return version != monitoredVersion;
+    }
+
+    void monitored(List<SSDEntity> ssds, long version) {
+        monitoredSsds = List.copyOf(ssds);
+        monitoredVersion = version;
+    }
+
+    List<SSDEntity> monitored() {
+        return monitoredSsds;
+    }
+
+    boolean hasRecord(SSDEntity ssd) {
+        return recordedTbw.containsKey(ssd.getId());
+    }
+
+    Long recordedTbw(SSDEntity ssd) {
+        return recordedTbw.get(ssd.getId());
+    }
+
+    void recorded(TbwRecordEntity record) {
+        recordedTbw.put(record.getSsd().getId(), record.getTbw());
+    }
+}
@@ -0,0 +1,230 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.SSDResponseDTO;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceRegistry;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceRegistry.DeviceEntry;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceScanResult;
+import com.cristianml.SSDMonitoringApi.service.IHardwareService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+// Linux write counter source reading sectors written from /sys/block/<dev>/stat
+// Samples need no process spawn: smartctl is only used for device identity and for the lifetime TBW
+// baseline, kernel counters since that baseline are added on top of it
+// Enabled with hardware.counter-source=sysfs
+@Service
+@Primary
+@ConditionalOnProperty(name = "hardware.counter-source", havingValue = "sysfs")
+public class SysfsHardwareServiceImpl implements IHardwareService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SysfsHardwareServiceImpl.class);
+
+    // Kernel block statistics always count 512-byte sectors, regardless of the device sector size
+    private static final long SECTOR_SIZE_BYTES = 512;
+    private static final long BYTES_PER_GB = 1024L * 1024 * 1024;
+
+    // Zero-based index of "write sectors" in the stat file (see Documentation/block/stat.rst)
+    private static final int SECTORS_WRITTEN_FIELD = 6;
+
+    // stat is a single line of 11 to 17 numeric fields, well below this size
+    private static final int STAT_BUFFER_SIZE = 512;
+
+    // smartctl path of an NVMe controller, as opposed to one of its namespaces
+    private static final Pattern NVME_CONTROLLER = Pattern.compile("nvme\\d+");
+
+    private final HardwareServiceImpl smartctlService;
+    private final DeviceRegistry deviceRegistry;
+    private final Path sysfsRoot;
+    private final long baselineMaxAgeMillis;
+
+    // Lifetime TBW from smartctl and the kernel counter value observed at that moment, keyed by serial
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+
+    // Stat file of each block device kept open between samples, keyed by block device name
+    // sysfs regenerates the contents on every read from offset 0, so a positional read returns current counters
+    private final Map<String, FileChannel> statChannels = new HashMap<>();
+
+    // Reused read buffer, reads are serialized on this instance
+    private final byte[] statBuffer = new byte[STAT_BUFFER_SIZE];
+    private final ByteBuffer statByteBuffer = ByteBuffer.wrap(statBuffer);
+    // Guards statChannels and the buffer; a lock instead of synchronized so a virtual thread reading the file is not pinned
+    private final ReentrantLock statLock = new ReentrantLock();
+
+    public SysfsHardwareServiceImpl(HardwareServiceImpl smartctlService, DeviceRegistry deviceRegistry,
+                                    @Value("${hardware.sysfs.root:/sys}") String sysfsRoot,
+                                    @Value("${hardware.sysfs.baseline-max-age-ms:3600000}") long baselineMaxAgeMillis) {
+        this.smartctlService = smartctlService;
+        this.deviceRegistry = deviceRegistry;
+        this.sysfsRoot = Path.of(sysfsRoot);
+        this.baselineMaxAgeMillis = baselineMaxAgeMillis;
+    }
+
+    // Identity still comes from smartctl, detection also fills the device registry used here
+    @Override
+    public List<SSDResponseDTO> detectSSDsUsingSmartctl() {
+        return smartctlService.detectSSDsUsingSmartctl();
+    }
+
+    @Override
+    public DeviceScanResult scanDevices() {
+        return smartctlService.scanDevices();
+    }
+
+    // Returns lifetime TBW in GB computed as smartctl baseline plus sectors written since the baseline
+    // Falls back to smartctl when the device has no block statistics or the kernel counter was reset
+    @Override
+    public long getTBWFromSMART(SSDEntity ssd) {
+        String ssdModel = ssd.getModel();
+        Optional<DeviceEntry> entry = ssd.getSerial() != null ? deviceRegistry.findBySerial(ssd.getSerial()) : deviceRegistry.findByModel(ssdModel);
+
+        if (entry.isEmpty()) {
+            // Unknown device path, smartctl rescans and handles disconnected devices
+            return smartctlService.getTBWFromSMART(ssd);
+        }
+
+        String serial = entry.get().serial();
+        try {
+            long sectorsWritten = readSectorsWritten(blockDeviceName(entry.get().devicePath()));
+            Baseline baseline = baselines.get(serial);
+
+            if (baseline == null || sectorsWritten < baseline.sectorsWritten() || baseline.isOlderThan(baselineMaxAgeMillis)) {
+                return rebaseline(ssd, serial, sectorsWritten);
+            }
+
+            long tbwInGB = baseline.tbwInGB() + (sectorsWritten - baseline.sectorsWritten()) * SECTOR_SIZE_BYTES / BYTES_PER_GB;
+            logger.debug("Got TBW: {} GB for SSD: {} from block statistics", tbwInGB, ssdModel);
+            return tbwInGB;
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Block statistics unavailable for SSD: {} ({}). Using smartctl.", ssdModel, e.getMessage());
+            baselines.remove(serial);
+            return smartctlService.getTBWFromSMART(ssd);
+        }
+    }
+
+    // Reads lifetime TBW through smartctl and anchors the kernel counter to it
+    private long rebaseline(SSDEntity ssd, String serial, long sectorsWritten) {
+        long tbwInGB = smartctlService.getTBWFromSMART(ssd);
+        if (tbwInGB == -1) {
+            baselines.remove(serial);
+            return -1;
+        }
+
+        baselines.put(serial, new Baseline(tbwInGB, sectorsWritten, System.nanoTime()));
+        logger.info("TBW baseline for SSD: {} set to {} GB at {} sectors", ssd.getModel(), tbwInGB, sectorsWritten);
+        return tbwInGB;
+    }
+
+    // Reads the cumulative sectors written counter of a block device without opening the file or allocating per sample
+    // A failed read closes the channel, the next sample opens the stat file again
+    public long readSectorsWritten(String blockDevice) throws IOException {
+        statLock.lock();
+        try {
+            FileChannel channel = statChannels.get(blockDevice);
+            if (channel == null) {
+                channel = FileChannel.open(sysfsRoot.resolve("block").resolve(blockDevice).resolve("stat"), StandardOpenOption.READ);
+                statChannels.put(blockDevice, channel);
+            }
+
+            statByteBuffer.clear();
+            try {
+                while (statByteBuffer.hasRemaining() && channel.read(statByteBuffer, statByteBuffer.position()) > 0) {
+                    // Reads until end of file, stat normally arrives in a single read
+                }
+                return parseField(statBuffer, statByteBuffer.position(), SECTORS_WRITTEN_FIELD);
+            } catch (IOException e) {
+                statChannels.remove(blockDevice);
+                closeQuietly(channel);
+                throw e;
+            }
+        } finally {
+            statLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void closeStatChannels() {
+        statLock.lock();
+        try {
+            statChannels.values().forEach(SysfsHardwareServiceImpl::closeQuietly);
+            statChannels.clear();
+        } finally {
+            statLock.unlock();
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close block stat channel: {}", e.getMessage());
+        }
+    }
+
+    // Parses the n-th whitespace separated unsigned number in place
+    static long parseField(byte[] buffer, int length, int fieldIndex) throws IOException {
+        int field = -1;
+        int i = 0;
+        while (i < length) {
+            while (i < length && (buffer[i] == ' ' || buffer[i] == '\t')) {
+                i++;
+            }
+            if (i >= length || buffer[i] == '\n') {
+                break;
+            }
+
+            field++;
+            long value = 0;
+            while (i < length && buffer[i] >= '0' && buffer[i] <= '9') {
+                if (field == fieldIndex) {
+                    value = value * 10 + (buffer[i] - '0');
+                }
+                i++;
+            }
+            if (field == fieldIndex) {
+                return value;
+            }
+            while (i < length && buffer[i] != ' ' && buffer[i] != '\t' && buffer[i] != '\n') {
+                i++;
+            }
+        }
+        throw new IOException("Block stat has no field " + fieldIndex);
+    }
+
+    // Maps a smartctl device path to its block device name in sysfs
+    // NVMe controllers (/dev/nvme0) expose statistics on their first namespace (nvme0n1)
+    static String blockDeviceName(String devicePath) {
+        String name = devicePath.substring(devicePath.lastIndexOf('/') + 1);
+        if (NVME_CONTROLLER.matcher(name).matches()) {
+            return name + "n1";
+        }
+        return name;
+    }
+
+    // Lifetime TBW read from smartctl together with the kernel counter at that time
+    // Age is measured on the monotonic clock so a wall clock jump neither expires nor extends a baseline
+    private record Baseline(long tbwInGB, long sectorsWritten, long createdAtNanos) {
+
+        boolean isOlderThan(long maxAgeMillis) {
+            return (System.nanoTime() - createdAtNanos) / 1_000_000 > maxAgeMillis;
+        }
+    }
+}
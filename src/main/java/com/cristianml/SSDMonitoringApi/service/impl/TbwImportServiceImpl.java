@@ -0,0 +1,220 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.domain.ExportFormat;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwImportResponseDTO;
+import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordWriter;
+import com.cristianml.SSDMonitoringApi.service.ITbwImport;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Bulk backfill of daily TBW records from CSV (header with serial, date, tbw and optionally time) or NDJSON
+// ({"serial": ..., "date": ..., "time": ..., "tbw": ...}), e.g. history kept in spreadsheets before onboarding
+// The input is parsed line by line and written in batches of batchSize rows, one transaction per batch, straight
+// into tbw_records through TbwRecordWriter. SSDs are resolved by serial from a map loaded once; rows of unknown
+// SSDs or malformed rows are rejected and counted. Records already stored for a day are kept, so an import can
+// be repeated; after a failure it resumes past the last committed line
+@Service
+public class TbwImportServiceImpl implements ITbwImport {
+
+    private static final Logger logger = LoggerFactory.getLogger(TbwImportServiceImpl.class);
+
+    // Rejected rows logged individually, the rest are only counted
+    private static final int LOGGED_REJECTIONS = 10;
+
+    private final SSDRepository ssdRepository;
+    private final TbwRecordWriter tbwRecordWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public TbwImportServiceImpl(SSDRepository ssdRepository, TbwRecordWriter tbwRecordWriter, TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper, @Value("${tbw.records.import.batch-size:20000}") int batchSize) {
+        this.ssdRepository = ssdRepository;
+        this.tbwRecordWriter = tbwRecordWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    // Imports every line after resumeAfterLine (1-based, 0 for a new import); the CSV header is always read
+    @Override
+    public TbwImportResponseDTO importRecords(InputStream in, ExportFormat format, long resumeAfterLine) {
+        long start = System.nanoTime();
+        Map<String, SSDEntity> ssdBySerial = new HashMap<>();
+        for (SSDEntity ssd : ssdRepository.findAll()) {
+            ssdBySerial.put(ssd.getSerial(), ssd);
+        }
+
+        ImportProgress progress = new ImportProgress(resumeAfterLine);
+        List<TbwRecordEntity> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024)) {
+            CsvColumns columns = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1);
+                }
+                if (format == ExportFormat.CSV && columns == null) {
+                    columns = CsvColumns.fromHeader(line);
+                    continue;
+                }
+                if (lineNumber <= resumeAfterLine || line.isBlank()) {
+                    continue;
+                }
+
+                progress.rowsRead++;
+                TbwRecordEntity record = parse(line, format, columns, ssdBySerial, lineNumber, progress);
+                if (record != null) {
+                    batch.add(record);
+                }
+                if (batch.size() >= batchSize) {
+                    commit(batch, lineNumber, progress);
+                }
+            }
+            commit(batch, lineNumber, progress);
+        } catch (IOException | RuntimeException e) {
+            logger.error("TBW import stopped, committed up to line {}", progress.committedLine, e);
+            progress.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        long rowsPerSecond = progress.rowsRead * 1000 / elapsedMillis;
+        logger.info("TBW import read {} rows, imported {}, rejected {} in {} ms ({} rows/s)",
+                progress.rowsRead, progress.rowsImported, progress.rowsRejected, elapsedMillis, rowsPerSecond);
+        return TbwImportResponseDTO.builder()
+                .rowsRead(progress.rowsRead)
+                .rowsImported(progress.rowsImported)
+                .rowsAlreadyPresent(progress.rowsCommitted - progress.rowsImported)
+                .rowsRejected(progress.rowsRejected)
+                .committedLine(progress.committedLine)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(rowsPerSecond)
+                .error(progress.error)
+                .build();
+    }
+
+    // Writes the batch in one transaction; the committed line only advances once it is stored
+    private void commit(List<TbwRecordEntity> batch, long lineNumber, ImportProgress progress) {
+        if (!batch.isEmpty()) {
+            Integer inserted = transactionTemplate.execute(status -> tbwRecordWriter.insertMissing(batch));
+            progress.rowsImported += inserted != null ? inserted : 0;
+            progress.rowsCommitted += batch.size();
+            batch.clear();
+        }
+        progress.committedLine = lineNumber;
+    }
+
+    // Returns null, counting the row as rejected, when the line cannot be imported
+    private TbwRecordEntity parse(String line, ExportFormat format, CsvColumns columns, Map<String, SSDEntity> ssdBySerial,
+                                  long lineNumber, ImportProgress progress) {
+        String serial;
+        String date;
+        String time;
+        String tbw;
+        try {
+            if (format == ExportFormat.CSV) {
+                String[] fields = line.split(",", -1);
+                serial = columns.field(fields, columns.serial);
+                date = columns.field(fields, columns.date);
+                time = columns.field(fields, columns.time);
+                tbw = columns.field(fields, columns.tbw);
+            } else {
+                JsonNode node = objectMapper.readTree(line);
+                serial = node.path("serial").asText(null);
+                date = node.path("date").asText(null);
+                time = node.path("time").asText(null);
+                tbw = node.path("tbw").asText(null);
+            }
+
+            SSDEntity ssd = serial != null ? ssdBySerial.get(serial) : null;
+            if (ssd == null) {
+                return reject(lineNumber, "unknown SSD serial " + serial, progress);
+            }
+            return TbwRecordEntity.builder()
+                    .ssd(ssd)
+                    .date(LocalDate.parse(date))
+                    .time(time == null || time.isEmpty() ? LocalTime.MIDNIGHT : LocalTime.parse(time).withNano(0))
+                    .tbw(Long.parseLong(tbw))
+                    .build();
+        } catch (IOException | RuntimeException e) {
+            return reject(lineNumber, e.getMessage(), progress);
+        }
+    }
+
+    private static TbwRecordEntity reject(long lineNumber, String reason, ImportProgress progress) {
+        if (progress.rowsRejected++ < LOGGED_REJECTIONS) {
+            logger.warn("Rejected TBW import line {}: {}", lineNumber, reason);
+        }
+        return null;
+    }
+
+    private static class ImportProgress {
+        long rowsRead;
+        long rowsImported;
+        long rowsCommitted;
+        long rowsRejected;
+        long committedLine;
+        String error;
+
+        ImportProgress(long resumeAfterLine) {
+            this.committedLine = resumeAfterLine;
+        }
+    }
+
+    // Column positions taken from the CSV header, time is optional
+    private record CsvColumns(int serial, int date, int time, int tbw) {
+
+        static CsvColumns fromHeader(String header) {
+            String[] names = header.split(",", -1);
+            int serial = -1, date = -1, time = -1, tbw = -1;
+            for (int i = 0; i < names.length; i++) {
+                switch (unquote(names[i]).toLowerCase(Locale.ROOT)) {
+                    case "serial" -> serial = i;
+                    case "date" -> date = i;
+                    case "time" -> time = i;
+                    case "tbw" -> tbw = i;
+                    default -> { }
+                }
+            }
+            if (serial < 0 || date < 0 || tbw < 0) {
+                throw new IllegalArgumentException("CSV header needs serial, date and tbw columns");
+            }
+            return new CsvColumns(serial, date, time, tbw);
+        }
+
+        String field(String[] fields, int index) {
+            return index >= 0 && index < fields.length ? unquote(fields[index]) : null;
+        }
+
+        private static String unquote(String value) {
+            String trimmed = value.trim();
+            if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                return trimmed.substring(1, trimmed.length() - 1);
+            }
+            return trimmed;
+        }
+    }
+}
@@ -1,27 +1,38 @@
 package com.cristianml.SSDMonitoringApi.service.impl;
 
+import com.cristianml.SSDMonitoringApi.domain.ExportFormat;
 import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
 import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordPageResponseDTO;
 import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordResponseDTO;
 import com.cristianml.SSDMonitoringApi.mapper.TbwRecordMapper;
 import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
 import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordWriter;
 import com.cristianml.SSDMonitoringApi.service.IHardwareService;
 import com.cristianml.SSDMonitoringApi.service.ITbwRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 // Service implementation for TBW (Total Bytes Written) record management
 // Handles automatic registration, updating, and retrieval of SSD write endurance data
-// Processes each SSD independently to prevent single device failures from affecting others
+// Reads each SSD independently so a single device failure does not affect the others, then writes them in one statement
 @Service
 public class TbwRecordServiceImpl implements ITbwRecord {
 
@@ -29,30 +40,115 @@ public class TbwRecordServiceImpl implements ITbwRecord {
     private final SSDRepository ssdRepository;
     private final IHardwareService hardwareService;
     private final TbwRecordMapper tbwRecordMapper;
+    private final TbwRecordWriter tbwRecordWriter;
 
     private static final Logger logger = LoggerFactory.getLogger(TbwRecordServiceImpl.class);
 
-    // Threshold for TBW update detection (3 GB in bytes)
-    private static final long TBW_UPDATE_THRESHOLD = 3L * 1024 * 1024 * 1024;
+    // Largest page of daily records served at once
+    static final int MAX_PAGE_SIZE = 1000;
 
-    public TbwRecordServiceImpl(TbwRecordRepository tbwRecordRepository, SSDRepository ssdRepository, IHardwareService hardwareService, TbwRecordMapper tbwRecordMapper) {
+    static final int EXPORT_PAGE_SIZE = 1000;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter EXPORT_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // Threshold for TBW update detection, in GB like the readings it is compared with
+    static final long TBW_UPDATE_THRESHOLD = 3L;
+
+    public TbwRecordServiceImpl(TbwRecordRepository tbwRecordRepository, SSDRepository ssdRepository, IHardwareService hardwareService, TbwRecordMapper tbwRecordMapper,
+                                TbwRecordWriter tbwRecordWriter) {
         this.tbwRecordRepository = tbwRecordRepository;
         this.ssdRepository = ssdRepository;
         this.hardwareService = hardwareService;
         this.tbwRecordMapper = tbwRecordMapper;
+        this.tbwRecordWriter = tbwRecordWriter;
     }
 
     // Retrieves all TBW records from database for reporting and display
+    // Read as projections in one query, the SSD of each record is not loaded
     @Override
     @Transactional(readOnly = true)
     public List<TbwRecordResponseDTO> findAll() {
         logger.debug("Retrieving all TBW records");
-        List<TbwRecordEntity> tbwRecords = this.tbwRecordRepository.findAll();
+        List<TbwRecordRepository.TbwRecordPoint> tbwRecords = this.tbwRecordRepository.findAllPoints();
         logger.info("Found {} TBW records", tbwRecords.size());
-        return this.tbwRecordMapper.toTbwRecordResponseDTOList(tbwRecords);
+        return tbwRecords.stream()
+                .map(this.tbwRecordMapper::toResponseDTO)
+                .toList();
+    }
+
+    // One keyset page of daily records, of one SSD or of all SSDs, within an optional date range
+    // Reads at most limit + 1 rows through the (ssd_id, epoch_day) index, so a late page costs the same as the first
+    @Override
+    @Transactional(readOnly = true)
+    public TbwRecordPageResponseDTO findPage(Long ssdId, LocalDate from, LocalDate to, Long afterSsdId, LocalDate afterDate, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDate start = from != null ? from : LocalDate.MIN;
+        LocalDate end = to != null ? to : LocalDate.MAX;
+
+        List<TbwRecordRepository.TbwRecordPoint> points;
+        if (ssdId != null) {
+            LocalDate after = start.equals(LocalDate.MIN) ? LocalDate.MIN : start.minusDays(1);
+            if (afterDate != null && afterDate.isAfter(after)) {
+                after = afterDate;
+            }
+            points = this.tbwRecordRepository.findPageOfSsd(ssdId, after, end, Limit.of(pageSize + 1));
+        } else {
+            points = this.tbwRecordRepository.findPage(afterSsdId != null ? afterSsdId : 0L,
+                    afterDate != null ? afterDate : LocalDate.MIN, start, end, Limit.of(pageSize + 1));
+        }
+
+        boolean hasMore = points.size() > pageSize;
+        List<TbwRecordResponseDTO> records = points.stream()
+                .limit(pageSize)
+                .map(this.tbwRecordMapper::toResponseDTO)
+                .toList();
+        TbwRecordResponseDTO last = hasMore ? records.get(records.size() - 1) : null;
+        logger.debug("Read page of {} TBW records, more: {}", records.size(), hasMore);
+        return TbwRecordPageResponseDTO.builder()
+                .records(records)
+                .nextAfterSsdId(last != null ? last.getSsdId() : null)
+                .nextAfterDate(last != null ? last.getDate() : null)
+                .build();
+    }
+
+    // Writes the whole history to the stream, one line per record, in keyset pages of the (ssd_id, date) index
+    // Each page is read in its own short transaction, so a slow download never holds a read transaction open
+    // and the scheduler and the import keep writing; only one page and the writer buffer are held in memory
+    @Override
+    public void exportAll(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        long rows = 0;
+        if (format == ExportFormat.CSV) {
+            writer.write("ssd_id,date,time,tbw\n");
+        }
+        long afterSsdId = 0L;
+        LocalDate afterDate = LocalDate.MIN;
+        List<TbwRecordRepository.TbwRecordPoint> page;
+        do {
+            page = this.tbwRecordRepository.findPage(afterSsdId, afterDate, LocalDate.MIN, LocalDate.MAX, Limit.of(EXPORT_PAGE_SIZE));
+            for (TbwRecordRepository.TbwRecordPoint point : page) {
+                writeExportLine(writer, format, point);
+                afterSsdId = point.getSsdId();
+                afterDate = point.getDate();
+                rows++;
+            }
+        } while (page.size() == EXPORT_PAGE_SIZE);
+        writer.flush();
+        logger.info("Exported {} TBW records as {}", rows, format);
     }
 
-    // Automatically registers TBW for all monitored SSDs that don't have today's record
+    // Dates, times and numbers need no quoting or escaping in either format
+    private static void writeExportLine(Writer writer, ExportFormat format, TbwRecordRepository.TbwRecordPoint point) throws IOException {
+        String time = EXPORT_TIME_FORMAT.format(point.getTime());
+        if (format == ExportFormat.CSV) {
+            writer.write(point.getSsdId() + "," + point.getDate() + "," + time + "," + point.getTbw() + "\n");
+        } else {
+            writer.write("{\"ssdId\":" + point.getSsdId() + ",\"date\":\"" + point.getDate() + "\",\"time\":\"" + time
+                    + "\",\"tbw\":" + point.getTbw() + "}\n");
+        }
+    }
+
+    // Automatically registers TBW for all monitored SSDs, today's existing records are updated past the threshold
     // Prevents registration if system date appears manipulated (delayed)
     @Override
     public boolean autoRegisterTBW() {
@@ -79,64 +175,12 @@ public class TbwRecordServiceImpl implements ITbwRecord {
         List<SSDEntity> ssdList = ssdRepository.findByIsMonitored(true);
         logger.info("Found {} monitored SSDs", ssdList.size());
 
-        boolean anyRegistered = false;
-
-        // Process each SSD independently to prevent single failure from blocking others
-        for (SSDEntity ssd : ssdList) {
-            try {
-                boolean registered = processSsdRegistration(ssd, currentDate, currentTime);
-                if (registered) {
-                    anyRegistered = true;
-                }
-            } catch (Exception e) {
-                logger.error("Error processing SSD: {}. Continuing with others.", ssd.getModel(), e);
-            }
-        }
-
-        logger.info("autoRegisterTBW completed. Registered new TBW records: {}", anyRegistered);
-        return anyRegistered;
-    }
-
-    // Registers TBW record for individual SSD in separate transaction
-    // Returns false if SSD is unavailable (-1) or already registered today
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public boolean processSsdRegistration(SSDEntity ssd, LocalDate currentDate, LocalTime currentTime) {
-        try {
-            Optional<TbwRecordEntity> existingRecord = tbwRecordRepository.findBySsdAndDate(ssd, currentDate);
-
-            if (existingRecord.isEmpty()) {
-                logger.info("Registering TBW for SSD: {}", ssd.getModel());
+        // Unavailable or failing SSDs are left out of the readings, the others are written in one statement
+        List<TbwReading> readings = collectTbwReadings(ssdList);
+        int written = tbwRecordWriter.upsert(toRecords(readings, currentDate, currentTime), TBW_UPDATE_THRESHOLD);
 
-                // Get current TBW value from hardware service
-                long tbw = hardwareService.getTBWFromSMART(ssd.getModel());
-
-                // Check for hardware failure indication (-1 means SSD unavailable)
-                if (tbw == -1) {
-                    logger.warn("Skipped TBW registration for unavailable SSD: {}", ssd.getModel());
-                    return false;
-                }
-
-                logger.info("Retrieved TBW value: {} for SSD: {}", tbw, ssd.getModel());
-
-                // Create and persist new TBW record
-                TbwRecordEntity tbwRecord = TbwRecordEntity.builder()
-                        .ssd(ssd)
-                        .date(currentDate)
-                        .time(currentTime)
-                        .tbw(tbw)
-                        .build();
-
-                tbwRecordRepository.save(tbwRecord);
-                logger.info("Successfully saved TBW record for SSD: {}", ssd.getModel());
-                return true;
-            } else {
-                logger.info("TBW already registered today for SSD: {}", ssd.getModel());
-                return false;
-            }
-        } catch (Exception e) {
-            logger.error("Error registering TBW for SSD: {}", ssd.getModel(), e);
-            return false;
-        }
+        logger.info("autoRegisterTBW completed. Written TBW records: {}", written);
+        return written > 0;
     }
 
     // Retrieves current TBW value for specific SSD by ID
@@ -153,7 +197,7 @@ public class TbwRecordServiceImpl implements ITbwRecord {
                         return new IllegalArgumentException("SSD with id " + ssdId + " not found");
                     });
 
-            long tbw = this.hardwareService.getTBWFromSMART(ssd.getModel());
+            long tbw = this.hardwareService.getTBWFromSMART(ssd);
             logger.info("Retrieved current TBW value: {} for SSD ID: {}", tbw, ssdId);
             return tbw;
         } catch (Exception e) {
@@ -162,59 +206,57 @@ public class TbwRecordServiceImpl implements ITbwRecord {
         }
     }
 
-    // Checks and updates existing TBW records if significant increase detected
-    // Compares current hardware reading with stored value for each SSD
-    public void checkAndUpdateTbwRecords(LocalDate currentDate) {
-        logger.info("Running checkAndUpdateTbwRecords method for date: {}", currentDate);
-
-        try {
-            List<SSDEntity> ssdList = ssdRepository.findByIsMonitored(true);
-            logger.info("Found {} monitored SSDs", ssdList.size());
-
-            // Process each SSD update independently
-            for (SSDEntity ssd : ssdList) {
-                try {
-                    processSsdUpdate(ssd, currentDate);
-                } catch (Exception e) {
-                    logger.error("Error processing update for SSD: {}. Continuing with others.", ssd.getModel(), e);
+    // First phase of the scheduled sweep: reads TBW of the given SSDs from hardware
+    // Must run with no transaction open so no database lock is held while devices are queried
+    // Unavailable SSDs are left out of the result
+    public List<TbwReading> collectTbwReadings(List<SSDEntity> ssdList) {
+        List<TbwReading> readings = new ArrayList<>();
+        for (SSDEntity ssd : ssdList) {
+            try {
+                long tbw = hardwareService.getTBWFromSMART(ssd);
+                if (tbw == -1) {
+                    logger.warn("Skipped TBW reading for unavailable SSD: {}", ssd.getModel());
+                    continue;
                 }
+                readings.add(new TbwReading(ssd, tbw));
+            } catch (Exception e) {
+                logger.error("Error reading TBW for SSD: {}. Continuing with others.", ssd.getModel(), e);
             }
-        } catch (Exception e) {
-            logger.error("Error while checking and updating TBW records", e);
         }
+        return readings;
     }
 
-    // Updates existing TBW record if current value exceeds stored value by threshold
-    // Runs in separate transaction to maintain data consistency
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void processSsdUpdate(SSDEntity ssd, LocalDate currentDate) {
-        try {
-            Optional<TbwRecordEntity> existingRecord = tbwRecordRepository.findBySsdAndDate(ssd, currentDate);
-
-            if (existingRecord.isPresent()) {
-                TbwRecordEntity record = existingRecord.get();
-                long recordedTbw = record.getTbw();
-                logger.debug("Recorded TBW for SSD {}: {}", ssd.getModel(), recordedTbw);
+    // Second phase of the scheduled sweep: writes all readings with one upsert in one short transaction
+    // Creates today's record for SSDs without one and updates existing records past the threshold
+    // Returns today's records of the read SSDs as stored after the write
+    @Transactional
+    public List<TbwRecordEntity> persistTbwReadings(List<TbwReading> readings, LocalDate currentDate, LocalTime currentTime) {
+        if (readings.isEmpty()) {
+            return List.of();
+        }
 
-                long currentTbw = hardwareService.getTBWFromSMART(ssd.getModel());
+        int written = tbwRecordWriter.upsert(toRecords(readings, currentDate, currentTime), TBW_UPDATE_THRESHOLD);
+        logger.info("Persisted {} TBW records for date: {}", written, currentDate);
+        return tbwRecordWriter.findDay(currentDate, readings.stream().map(TbwReading::ssd).toList());
+    }
 
-                // Skip update if SSD is currently unavailable
-                if (currentTbw == -1) {
-                    logger.warn("Skipped update for unavailable SSD: {}", ssd.getModel());
-                    return;
-                }
+    private static List<TbwRecordEntity> toRecords(List<TbwReading> readings, LocalDate currentDate, LocalTime currentTime) {
+        return readings.stream()
+                .map(reading -> TbwRecordEntity.builder()
+                        .ssd(reading.ssd())
+                        .date(currentDate)
+                        .time(currentTime)
+                        .tbw(reading.tbwInGB())
+                        .build())
+                .toList();
+    }
 
-                logger.debug("Current TBW for SSD {}: {}", ssd.getModel(), currentTbw);
+    // True when a reading has grown enough over the stored value to be written
+    public static boolean exceedsUpdateThreshold(long recordedTbw, long currentTbw) {
+        return currentTbw - recordedTbw >= TBW_UPDATE_THRESHOLD;
+    }
 
-                // Update record only if significant increase detected (3+ GB)
-                if (currentTbw - recordedTbw >= TBW_UPDATE_THRESHOLD) {
-                    logger.info("Updating TBW record for SSD: {} on date: {}", ssd.getModel(), currentDate);
-                    record.setTbw(currentTbw);
-                    tbwRecordRepository.save(record);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error updating TBW for SSD: {}", ssd.getModel(), e);
-        }
+    // TBW read from hardware for one SSD, collected before any transaction is opened
+    public record TbwReading(SSDEntity ssd, long tbwInGB) {
     }
-}
\ No newline at end of file
+}
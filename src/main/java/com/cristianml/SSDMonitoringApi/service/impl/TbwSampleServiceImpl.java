@@ -0,0 +1,344 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.SampleResolution;
+import com.cristianml.SSDMonitoringApi.domain.TbwRollupEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwSampleBlockEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwSampleEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwHistoryPointResponseDTO;
+import com.cristianml.SSDMonitoringApi.mapper.TbwSampleMapper;
+import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRollupRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwSampleBlockRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwSampleRepository;
+import com.cristianml.SSDMonitoringApi.service.ITbwSample;
+import com.cristianml.SSDMonitoringApi.utilities.TbwBlockCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Intraday TBW time series: raw samples at sampling resolution, rolled up into hourly and daily aggregates
+// Every tier has its own retention, history queries read the coarsest tier that covers the requested range
+// Rollups run in the background and only ever aggregate complete periods
+// Raw samples land in tbw_samples rows and, once rolled up, are packed into compressed blocks of blockSize samples
+@Service
+public class TbwSampleServiceImpl implements ITbwSample {
+
+    private static final Logger logger = LoggerFactory.getLogger(TbwSampleServiceImpl.class);
+
+    private final TbwSampleRepository tbwSampleRepository;
+    private final TbwRollupRepository tbwRollupRepository;
+    private final TbwSampleBlockRepository tbwSampleBlockRepository;
+    private final SSDRepository ssdRepository;
+    private final TbwSampleMapper tbwSampleMapper;
+    private final TimeService timeService;
+
+    // Retention per tier, a retention of zero days keeps the tier forever
+    private final Duration rawRetention;
+    private final Duration hourlyRetention;
+    private final Duration dailyRetention;
+
+    // Longest range served from a tier before a coarser one is used
+    private final Duration rawMaxSpan;
+    private final Duration hourlyMaxSpan;
+
+    // Raw samples per sealed block
+    private final int blockSize;
+
+    public TbwSampleServiceImpl(TbwSampleRepository tbwSampleRepository, TbwRollupRepository tbwRollupRepository,
+                                TbwSampleBlockRepository tbwSampleBlockRepository,
+                                SSDRepository ssdRepository, TbwSampleMapper tbwSampleMapper, TimeService timeService,
+                                @Value("${tbw.samples.raw-retention-days:7}") long rawRetentionDays,
+                                @Value("${tbw.samples.hourly-retention-days:90}") long hourlyRetentionDays,
+                                @Value("${tbw.samples.daily-retention-days:0}") long dailyRetentionDays,
+                                @Value("${tbw.samples.raw-max-span-hours:48}") long rawMaxSpanHours,
+                                @Value("${tbw.samples.hourly-max-span-days:60}") long hourlyMaxSpanDays,
+                                @Value("${tbw.samples.block-size:128}") int blockSize) {
+        this.tbwSampleRepository = tbwSampleRepository;
+        this.tbwRollupRepository = tbwRollupRepository;
+        this.tbwSampleBlockRepository = tbwSampleBlockRepository;
+        this.ssdRepository = ssdRepository;
+        this.tbwSampleMapper = tbwSampleMapper;
+        this.timeService = timeService;
+        this.rawRetention = Duration.ofDays(rawRetentionDays);
+        this.hourlyRetention = Duration.ofDays(hourlyRetentionDays);
+        this.dailyRetention = Duration.ofDays(dailyRetentionDays);
+        this.rawMaxSpan = Duration.ofHours(rawMaxSpanHours);
+        this.hourlyMaxSpan = Duration.ofDays(hourlyMaxSpanDays);
+        this.blockSize = blockSize;
+    }
+
+    // Appends one raw sample per reading in a single batch
+    @Transactional
+    public void recordSamples(List<TbwRecordServiceImpl.TbwReading> readings, LocalDateTime sampledAt) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        List<TbwSampleEntity> samples = readings.stream()
+                .map(reading -> TbwSampleEntity.builder()
+                        .ssd(reading.ssd())
+                        .sampledAt(sampledAt)
+                        .tbw(reading.tbwInGB())
+                        .build())
+                .toList();
+        tbwSampleRepository.saveAll(samples);
+        logger.debug("Recorded {} TBW samples at {}", samples.size(), sampledAt);
+    }
+
+    // Returns the history of an SSD between from (inclusive) and to (exclusive) from the coarsest suitable tier
+    // Tier retention is judged against trusted time, like the rollups that enforce it
+    @Override
+    @Transactional(readOnly = true)
+    public List<TbwHistoryPointResponseDTO> findHistory(Long ssdId, LocalDateTime from, LocalDateTime to) {
+        SampleResolution resolution = selectResolution(from, to, timeService.getCurrentDateTime());
+        logger.debug("Reading TBW history of SSD {} from {} to {} at {} resolution", ssdId, from, to, resolution);
+
+        if (resolution == SampleResolution.RAW) {
+            return tbwSampleMapper.samplesToHistoryPoints(findRawSamples(ssdId, from, to));
+        }
+        LocalDateTime periodFrom = resolution == SampleResolution.HOUR
+                ? from.truncatedTo(ChronoUnit.HOURS)
+                : from.truncatedTo(ChronoUnit.DAYS);
+        return tbwSampleMapper.rollupsToHistoryPoints(tbwRollupRepository.findRange(ssdId, resolution, periodFrom, to));
+    }
+
+    // Samples decoded from the sealed blocks followed by the rows not sealed yet
+    // Blocks always hold older samples than the remaining rows; a row also present in a block, left behind
+    // by a sealing pass that stopped between writing the block and deleting the rows, is skipped
+    private List<TbwSampleEntity> findRawSamples(Long ssdId, LocalDateTime from, LocalDateTime to) {
+        List<TbwSampleEntity> samples = new ArrayList<>();
+        long fromMillis = TbwBlockCodec.toMillis(from);
+        long toMillis = TbwBlockCodec.toMillis(to);
+        LocalDateTime sealedUntil = null;
+
+        for (TbwSampleBlockEntity block : tbwSampleBlockRepository.findRange(ssdId, from, to)) {
+            TbwBlockCodec.Cursor cursor = TbwBlockCodec.open(block.getData());
+            while (cursor.next()) {
+                if (cursor.timestamp() >= fromMillis && cursor.timestamp() < toMillis) {
+                    samples.add(TbwSampleEntity.builder()
+                            .ssd(block.getSsd())
+                            .sampledAt(TbwBlockCodec.fromMillis(cursor.timestamp()))
+                            .tbw(cursor.counter())
+                            .build());
+                }
+            }
+            sealedUntil = block.getLastSampledAt();
+        }
+
+        for (TbwSampleEntity sample : tbwSampleRepository.findRange(ssdId, from, to)) {
+            if (sealedUntil == null || sample.getSampledAt().isAfter(sealedUntil)) {
+                samples.add(sample);
+            }
+        }
+        return samples;
+    }
+
+    // Raw samples for short recent ranges, hourly rollups for ranges within their retention, daily otherwise
+    SampleResolution selectResolution(LocalDateTime from, LocalDateTime to, LocalDateTime now) {
+        Duration span = Duration.between(from, to);
+        if (span.compareTo(rawMaxSpan) <= 0 && isRetained(from, now, rawRetention)) {
+            return SampleResolution.RAW;
+        }
+        if (span.compareTo(hourlyMaxSpan) <= 0 && isRetained(from, now, hourlyRetention)) {
+            return SampleResolution.HOUR;
+        }
+        return SampleResolution.DAY;
+    }
+
+    private static boolean isRetained(LocalDateTime from, LocalDateTime now, Duration retention) {
+        return retention.isZero() || !from.isBefore(now.minus(retention));
+    }
+
+    // Background rollup and retention pass, by default a few minutes after every full hour
+    // Periods are closed on trusted time, the same time samples are stamped with, so a wall clock jump
+    // cannot roll up an hour that is still receiving samples
+    @Scheduled(cron = "${tbw.samples.rollup-cron:0 5 * * * *}")
+    public void scheduledRollUp() {
+        try {
+            rollUp(timeService.getCurrentDateTime());
+        } catch (Exception e) {
+            logger.error("Failed to roll up TBW samples", e);
+        }
+    }
+
+    // Aggregates every complete hour and day not rolled up yet, packs rolled up samples into blocks,
+    // then expires old rows of each tier
+    // Not transactional as a whole: each SSD's rollups are written in their own short batch
+    public void rollUp(LocalDateTime now) {
+        LocalDateTime currentHour = now.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime currentDay = now.truncatedTo(ChronoUnit.DAYS);
+
+        int hours = 0;
+        int days = 0;
+        int blocks = 0;
+        for (SSDEntity ssd : ssdRepository.findAll()) {
+            hours += rollUpHours(ssd, currentHour);
+            days += rollUpDays(ssd, currentDay);
+            blocks += sealBlocks(ssd, currentHour);
+        }
+
+        int expired = expire(now);
+        logger.info("TBW rollup completed: {} hourly and {} daily aggregates written, {} sample blocks sealed, {} expired rows deleted",
+                hours, days, blocks, expired);
+    }
+
+    // The last sample before the first hour to aggregate is the last sample of the previous rollup,
+    // which may already be sealed into a block
+    private int rollUpHours(SSDEntity ssd, LocalDateTime currentHour) {
+        Optional<TbwRollupEntity> lastHour = tbwRollupRepository.findTopBySsdIdAndResolutionOrderByPeriodStartDesc(ssd.getId(), SampleResolution.HOUR);
+        Optional<LocalDateTime> start = lastHour
+                .map(last -> last.getPeriodStart().plusHours(1))
+                .or(() -> tbwSampleRepository.findTopBySsdIdOrderBySampledAtAsc(ssd.getId())
+                        .map(first -> first.getSampledAt().truncatedTo(ChronoUnit.HOURS)));
+        if (start.isEmpty() || !start.get().isBefore(currentHour)) {
+            return 0;
+        }
+
+        Long baselineTbw = lastHour.map(TbwRollupEntity::getLastTbw).orElse(null);
+        List<TbwRollupEntity> rollups = aggregateHours(ssd, tbwSampleRepository.findRange(ssd.getId(), start.get(), currentHour), baselineTbw);
+        tbwRollupRepository.saveAll(rollups);
+        return rollups.size();
+    }
+
+    private int rollUpDays(SSDEntity ssd, LocalDateTime currentDay) {
+        Optional<LocalDateTime> start = tbwRollupRepository.findTopBySsdIdAndResolutionOrderByPeriodStartDesc(ssd.getId(), SampleResolution.DAY)
+                .map(last -> last.getPeriodStart().plusDays(1))
+                .or(() -> tbwRollupRepository.findTopBySsdIdAndResolutionOrderByPeriodStartAsc(ssd.getId(), SampleResolution.HOUR)
+                        .map(first -> first.getPeriodStart().truncatedTo(ChronoUnit.DAYS)));
+        if (start.isEmpty() || !start.get().isBefore(currentDay)) {
+            return 0;
+        }
+
+        List<TbwRollupEntity> rollups = aggregateDays(ssd,
+                tbwRollupRepository.findRange(ssd.getId(), SampleResolution.HOUR, start.get(), currentDay));
+        tbwRollupRepository.saveAll(rollups);
+        return rollups.size();
+    }
+
+    // Packs rolled up rows, those before the current hour, into full blocks; a partial block stays as rows
+    // Rows left behind by an interrupted pass are deleted first, the block holding them is already written
+    private int sealBlocks(SSDEntity ssd, LocalDateTime currentHour) {
+        tbwSampleBlockRepository.findTopBySsdIdOrderByFirstSampledAtDesc(ssd.getId())
+                .ifPresent(last -> tbwSampleRepository.deleteSealed(ssd.getId(), last.getLastSampledAt()));
+
+        List<TbwSampleEntity> rows = tbwSampleRepository.findBySsdIdAndSampledAtLessThanOrderBySampledAtAsc(ssd.getId(), currentHour);
+        int sealed = rows.size() - rows.size() % blockSize;
+        if (sealed == 0) {
+            return 0;
+        }
+
+        List<TbwSampleBlockEntity> blocks = packBlocks(ssd, rows.subList(0, sealed), blockSize);
+        tbwSampleBlockRepository.saveAll(blocks);
+        tbwSampleRepository.deleteSealed(ssd.getId(), rows.get(sealed - 1).getSampledAt());
+        return blocks.size();
+    }
+
+    static List<TbwSampleBlockEntity> packBlocks(SSDEntity ssd, List<TbwSampleEntity> samples, int blockSize) {
+        long[] timestamps = new long[samples.size()];
+        long[] counters = new long[samples.size()];
+        for (int i = 0; i < samples.size(); i++) {
+            timestamps[i] = TbwBlockCodec.toMillis(samples.get(i).getSampledAt());
+            counters[i] = samples.get(i).getTbw();
+        }
+
+        List<TbwSampleBlockEntity> blocks = new ArrayList<>();
+        for (int offset = 0; offset < samples.size(); offset += blockSize) {
+            int count = Math.min(blockSize, samples.size() - offset);
+            blocks.add(TbwSampleBlockEntity.builder()
+                    .ssd(ssd)
+                    .firstSampledAt(samples.get(offset).getSampledAt())
+                    .lastSampledAt(samples.get(offset + count - 1).getSampledAt())
+                    .sampleCount(count)
+                    .data(TbwBlockCodec.encode(timestamps, counters, offset, count))
+                    .build());
+        }
+        return blocks;
+    }
+
+    private int expire(LocalDateTime now) {
+        int expired = 0;
+        if (!rawRetention.isZero()) {
+            expired += tbwSampleRepository.deleteBySampledAtBefore(now.minus(rawRetention));
+            expired += tbwSampleBlockRepository.deleteByLastSampledAtBefore(now.minus(rawRetention));
+        }
+        if (!hourlyRetention.isZero()) {
+            expired += tbwRollupRepository.deleteByResolutionAndPeriodStartBefore(SampleResolution.HOUR, now.minus(hourlyRetention));
+        }
+        if (!dailyRetention.isZero()) {
+            expired += tbwRollupRepository.deleteByResolutionAndPeriodStartBefore(SampleResolution.DAY, now.minus(dailyRetention));
+        }
+        return expired;
+    }
+
+    // Groups time-ordered samples by hour, hours without samples produce no rollup
+    // The delta of each hour starts from the last sample before it, baselineTbw for the first hour
+    // and the hour's own first sample when there is no earlier sample at all
+    static List<TbwRollupEntity> aggregateHours(SSDEntity ssd, List<TbwSampleEntity> samples, Long baselineTbw) {
+        List<TbwRollupEntity> rollups = new ArrayList<>();
+        TbwRollupEntity current = null;
+        Long previousTbw = baselineTbw;
+        long startTbw = 0;
+
+        for (TbwSampleEntity sample : samples) {
+            long tbw = sample.getTbw();
+            LocalDateTime hour = sample.getSampledAt().truncatedTo(ChronoUnit.HOURS);
+            if (current == null || !current.getPeriodStart().equals(hour)) {
+                if (current != null) {
+                    previousTbw = current.getLastTbw();
+                }
+                startTbw = previousTbw != null ? previousTbw : tbw;
+                current = newRollup(ssd, SampleResolution.HOUR, hour, tbw);
+                rollups.add(current);
+            }
+            current.setMinTbw(Math.min(current.getMinTbw(), tbw));
+            current.setMaxTbw(Math.max(current.getMaxTbw(), tbw));
+            current.setLastTbw(tbw);
+            current.setDeltaTbw(tbw - startTbw);
+            current.setSampleCount(current.getSampleCount() + 1);
+        }
+        return rollups;
+    }
+
+    // Groups time-ordered hourly rollups by day, deltas of the hours add up to the delta of the day
+    static List<TbwRollupEntity> aggregateDays(SSDEntity ssd, List<TbwRollupEntity> hours) {
+        List<TbwRollupEntity> rollups = new ArrayList<>();
+        TbwRollupEntity current = null;
+
+        for (TbwRollupEntity hour : hours) {
+            LocalDateTime day = hour.getPeriodStart().truncatedTo(ChronoUnit.DAYS);
+            if (current == null || !current.getPeriodStart().equals(day)) {
+                current = newRollup(ssd, SampleResolution.DAY, day, hour.getMinTbw());
+                rollups.add(current);
+            }
+            current.setMinTbw(Math.min(current.getMinTbw(), hour.getMinTbw()));
+            current.setMaxTbw(Math.max(current.getMaxTbw(), hour.getMaxTbw()));
+            current.setLastTbw(hour.getLastTbw());
+            current.setDeltaTbw(current.getDeltaTbw() + hour.getDeltaTbw());
+            current.setSampleCount(current.getSampleCount() + hour.getSampleCount());
+        }
+        return rollups;
+    }
+
+    private static TbwRollupEntity newRollup(SSDEntity ssd, SampleResolution resolution, LocalDateTime periodStart, long firstTbw) {
+        return TbwRollupEntity.builder()
+                .ssd(ssd)
+                .resolution(resolution)
+                .periodStart(periodStart)
+                .minTbw(firstTbw)
+                .maxTbw(firstTbw)
+                .lastTbw(firstTbw)
+                .deltaTbw(0L)
+                .sampleCount(0)
+                .build();
+    }
+}
@@ -1,6 +1,9 @@
 package com.cristianml.SSDMonitoringApi.service.impl;
 
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntityListener;
 import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
 import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,12 +11,15 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 // Manages scheduled TBW registration with time-based execution windows
 // Ensures automatic data collection during specified daily time range (17:00 - 00:00)
@@ -26,19 +32,35 @@ public class TbwSchedulerService {
     private final TimeService timeService;
     private final TbwRecordRepository tbwRecordRepository;
     private final SSDServiceImpl ssdService;
+    private final SSDRepository ssdRepository;
+    private final SamplingPlanner samplingPlanner;
+    private final TbwSampleServiceImpl tbwSampleService;
+    private final WriteRateServiceImpl writeRateService;
 
     // Daily execution window boundaries for TBW registration
     private static final LocalTime START_TIME = LocalTime.of(17, 0); // 5:00 PM
     private static final LocalTime END_TIME = LocalTime.of(0, 0);    // 12:00 AM (midnight)
 
+    // Trusted day, monitored SSDs and today's stored TBW, only touched by scheduler ticks, which never overlap,
+    // and by clock jump recovery; the lock keeps a recovery from running in the middle of a tick
+    private final SchedulerDayState dayState = new SchedulerDayState();
+    private final ReentrantLock dayStateLock = new ReentrantLock();
+    private LocalDate latestRecordDate;
+
     // Control flag to enable/disable scheduler based on time validation
     private boolean shouldRunScheduler = false;
 
-    public TbwSchedulerService(TbwRecordServiceImpl tbwRecordService, TimeService timeService, TbwRecordRepository tbwRecordRepository, SSDServiceImpl ssdService) {
+    public TbwSchedulerService(TbwRecordServiceImpl tbwRecordService, TimeService timeService, TbwRecordRepository tbwRecordRepository,
+                               SSDServiceImpl ssdService, SSDRepository ssdRepository, SamplingPlanner samplingPlanner,
+                               TbwSampleServiceImpl tbwSampleService, WriteRateServiceImpl writeRateService) {
         this.tbwRecordService = tbwRecordService;
         this.timeService = timeService;
         this.tbwRecordRepository = tbwRecordRepository;
         this.ssdService = ssdService;
+        this.ssdRepository = ssdRepository;
+        this.samplingPlanner = samplingPlanner;
+        this.tbwSampleService = tbwSampleService;
+        this.writeRateService = writeRateService;
     }
 
     // Initializes scheduler on application startup
@@ -70,26 +92,37 @@ public class TbwSchedulerService {
 
     // Main scheduled task executed every minute
     // Manages TBW registration workflow with validation checks
+    // Not transactional: devices are read first and the readings are written in one short transaction
+    // Every tick reads the trusted time, which needs no I/O; an idle tick otherwise works on the in-memory
+    // day state, the database is used when the day rolls over, the monitored SSDs change or a device reading is due
     @Scheduled(cron = "0 */1 * * * *")
-    @Transactional
     public void scheduleAutoRegisterTBW() {
         logger.debug("Starting scheduled TBW registration check");
 
+        dayStateLock.lock();
         try {
             LocalDateTime currentDateTime = timeService.getCurrentDateTime();
+            if (dayState.needsNewDay(currentDateTime.toLocalDate())) {
+                startNewDay(currentDateTime.toLocalDate());
+            }
             LocalDate currentDate = currentDateTime.toLocalDate();
             LocalTime currentTime = currentDateTime.toLocalTime();
 
-            // Clean up any future-dated records before processing
-            deleteFutureRecords();
+            long monitoredVersion = SSDEntityListener.version();
+            if (dayState.isMonitoredStale(monitoredVersion)) {
+                dayState.monitored(ssdRepository.findByIsMonitored(true), monitoredVersion);
+            }
 
-            // Check if records already exist for current date
-            boolean recordsExist = this.tbwRecordRepository.existsByDate(currentDate);
-            if (!recordsExist) {
-                logger.warn("No TBW records found for date: {}. Skipping update.", currentDate);
-            } else {
-                logger.debug("Checking and updating TBW records for date: {}", currentDate);
-                tbwRecordService.checkAndUpdateTbwRecords(currentDate);
+            List<SSDEntity> recordedSsds = new ArrayList<>();
+            List<SSDEntity> unrecordedSsds = new ArrayList<>();
+            for (SSDEntity ssd : dayState.monitored()) {
+                (dayState.hasRecord(ssd) ? recordedSsds : unrecordedSsds).add(ssd);
+            }
+
+            // Update today's records of the SSDs whose sampling deadline has passed
+            updateDueSsds(recordedSsds, currentDate, currentTime);
+
+            if (unrecordedSsds.isEmpty()) {
                 return;
             }
 
@@ -100,17 +133,121 @@ public class TbwSchedulerService {
             }
 
             // Validate system date hasn't been manipulated
-            if (!isSystemDateValid()) {
-                logger.warn("System date validation failed. Current system time: {}", LocalDateTime.now());
+            if (!isSystemDateValid(currentDate)) {
+                logger.warn("System date validation failed. Current system time: {}", LocalDateTime.now(timeService.getZone()));
                 return;
             }
 
-            // Execute automatic TBW registration for all monitored SSDs
-            boolean tbwRegistered = tbwRecordService.autoRegisterTBW();
-            logger.info("TBW registration attempt completed. Success: {}", tbwRegistered);
+            // Refuse to register when the system date is behind the latest stored record
+            if (latestRecordDate != null && LocalDate.now(timeService.getZone()).isBefore(latestRecordDate)) {
+                logger.warn("System date manipulated, date delayed. Skipping TBW registration.");
+                return;
+            }
+
+            // Register TBW for the monitored SSDs without a record today
+            List<TbwRecordEntity> registered = collectAndPersist(unrecordedSsds, currentDate, currentTime);
+            refreshLatestRecordDate(registered);
+            logger.info("TBW registration attempt completed. Registered SSDs: {}", registered.size());
 
         } catch (Exception e) {
             logger.error("Failed to execute scheduled TBW registration", e);
+        } finally {
+            dayStateLock.unlock();
+        }
+    }
+
+    // Re-anchors the day state after a wall clock jump instead of restarting the application
+    // The trusted time runs on the monotonic clock and is not affected; the day is reloaded so future-dated
+    // records written while the system date was wrong are removed and today's records are read again
+    @EventListener
+    public void onClockJump(ClockJumpEvent event) {
+        dayStateLock.lock();
+        try {
+            startNewDay(timeService.getCurrentDateTime().toLocalDate());
+            logger.info("Recovered from a {} ms clock jump in process in {} ms",
+                    event.jumpMillis(), (System.nanoTime() - event.detectedAtNanos()) / 1_000_000);
+        } catch (Exception e) {
+            // The next tick reloads the day again
+            dayState.invalidate();
+            logger.error("Failed to recover from clock jump, the day state is reloaded on the next tick", e);
+        } finally {
+            dayStateLock.unlock();
+        }
+    }
+
+    // Reloads the day state: cleans up future records and loads the records of the trusted day
+    private void startNewDay(LocalDate trustedDate) {
+        logger.info("Starting scheduler day {}", trustedDate);
+
+        // Clean up any future-dated records before processing
+        deleteFutureRecords(trustedDate);
+
+        dayState.startDay(trustedDate, tbwRecordRepository.findByDate(trustedDate));
+        latestRecordDate = tbwRecordRepository.findTopByOrderByDateDesc().map(TbwRecordEntity::getDate).orElse(null);
+    }
+
+    // Samples only the SSDs whose adaptive deadline has passed and feeds the readings back to the planner
+    private void updateDueSsds(List<SSDEntity> recordedSsds, LocalDate currentDate, LocalTime currentTime) {
+        long nowMillis = System.nanoTime() / 1_000_000;
+        List<SSDEntity> dueSsds = samplingPlanner.dueSsds(recordedSsds, nowMillis);
+        if (dueSsds.isEmpty()) {
+            logger.debug("No SSD due for TBW sampling");
+            return;
+        }
+
+        logger.debug("Checking and updating TBW records of {} due SSDs for date: {}", dueSsds.size(), currentDate);
+        List<TbwRecordServiceImpl.TbwReading> readings = tbwRecordService.collectTbwReadings(dueSsds);
+        recordReadings(readings, LocalDateTime.of(currentDate, currentTime));
+
+        // Every reading is kept as a sample, only readings past the update threshold of the stored value need the database
+        List<TbwRecordServiceImpl.TbwReading> updates = readings.stream()
+                .filter(reading -> TbwRecordServiceImpl.exceedsUpdateThreshold(dayState.recordedTbw(reading.ssd()), reading.tbwInGB()))
+                .toList();
+        refreshLatestRecordDate(persist(updates, currentDate, currentTime));
+
+        Map<Long, Long> tbwBySsdId = new HashMap<>();
+        readings.forEach(reading -> tbwBySsdId.put(reading.ssd().getId(), reading.tbwInGB()));
+        for (SSDEntity ssd : dueSsds) {
+            samplingPlanner.recordSample(ssd.getId(), tbwBySsdId.get(ssd.getId()), nowMillis);
+        }
+    }
+
+    // Two phase sweep: reads every device with no transaction open, then writes all records in one batch
+    // so the database lock is held only for the write itself
+    private List<TbwRecordEntity> collectAndPersist(List<SSDEntity> ssds, LocalDate currentDate, LocalTime currentTime) {
+        List<TbwRecordServiceImpl.TbwReading> readings = tbwRecordService.collectTbwReadings(ssds);
+        recordReadings(readings, LocalDateTime.of(currentDate, currentTime));
+        return persist(readings, currentDate, currentTime);
+    }
+
+    // Every reading becomes an intraday sample and updates the in-memory write-rate statistics
+    private void recordReadings(List<TbwRecordServiceImpl.TbwReading> readings, LocalDateTime readAt) {
+        tbwSampleService.recordSamples(readings, readAt);
+        writeRateService.record(readings, readAt);
+    }
+
+    // Writes the readings and keeps the day state in step with the stored records
+    private List<TbwRecordEntity> persist(List<TbwRecordServiceImpl.TbwReading> readings, LocalDate currentDate, LocalTime currentTime) {
+        if (readings.isEmpty()) {
+            return List.of();
+        }
+
+        long start = System.nanoTime();
+        List<TbwRecordEntity> records = tbwRecordService.persistTbwReadings(readings, currentDate, currentTime);
+        logger.debug("Persisted {} TBW readings, write transaction held {} ms",
+                readings.size(), (System.nanoTime() - start) / 1_000_000);
+
+        records.forEach(dayState::recorded);
+        return records;
+    }
+
+    // Keeps the latest stored record date current after a write, so the date check of the next
+    // registration compares against today's records and not only against the day loaded at startNewDay
+    private void refreshLatestRecordDate(List<TbwRecordEntity> records) {
+        for (TbwRecordEntity record : records) {
+            if (latestRecordDate == null || latestRecordDate.isBefore(record.getDate())) {
+                latestRecordDate = record.getDate();
+            }
         }
     }
 
@@ -133,48 +270,31 @@ public class TbwSchedulerService {
         shouldRunScheduler = true;
     }
 
-    // Validates system date integrity by comparing with external time API
+    // Validates system date integrity by comparing with the trusted date of the day state
     // Prevents TBW registration if system clock appears manipulated
-    private boolean isSystemDateValid() {
-        try {
-            LocalDateTime systemDateTime = LocalDateTime.now();
-            LocalDateTime apiDateTime = timeService.getCurrentDateTime();
-
-            boolean isValid = systemDateTime.toLocalDate().isEqual(apiDateTime.toLocalDate());
-            logger.debug("Date validation - System: {}, API: {}, Valid: {}",
-                    systemDateTime.toLocalDate(), apiDateTime.toLocalDate(), isValid);
-            return isValid;
-        } catch (Exception e) {
-            logger.error("System date validation failed", e);
-            return false;
-        }
+    private boolean isSystemDateValid(LocalDate trustedDate) {
+        LocalDate systemDate = LocalDate.now(timeService.getZone());
+        boolean isValid = systemDate.isEqual(trustedDate);
+        logger.debug("Date validation - System: {}, Trusted: {}, Valid: {}", systemDate, trustedDate, isValid);
+        return isValid;
     }
 
     // Removes any future-dated TBW records from database
     // Maintains data integrity by preventing records with future timestamps
-    @Transactional
-    public void deleteFutureRecords() {
+    // Skipped when the time API is unavailable, the system clock alone is not trusted for deletes
+    private void deleteFutureRecords(LocalDate trustedDate) {
         logger.debug("Starting future records cleanup");
 
-        try {
-            if (!timeService.isApiDateAvailable()) {
-                logger.warn("API date unavailable, skipping future records cleanup");
-                return;
-            }
-
-            LocalDate apiDate = timeService.getCurrentDateTime().toLocalDate();
-            List<TbwRecordEntity> futureRecords = tbwRecordRepository.findByDateAfter(apiDate);
+        if (!timeService.isApiDateAvailable()) {
+            logger.warn("API date unavailable, skipping future records cleanup");
+            return;
+        }
 
-            if (!futureRecords.isEmpty()) {
-                logger.info("Found {} future records to delete", futureRecords.size());
-                tbwRecordRepository.deleteAll(futureRecords);
-                logger.info("Successfully deleted {} future records", futureRecords.size());
-            } else {
-                logger.debug("No future records found to delete");
-            }
-        } catch (Exception e) {
-            logger.error("Failed to delete future records", e);
-            throw e;
+        int deleted = tbwRecordRepository.deleteByDateAfter(trustedDate);
+        if (deleted > 0) {
+            logger.info("Successfully deleted {} future records", deleted);
+        } else {
+            logger.debug("No future records found to delete");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongSupplier;
+
+// Trusted wall clock: the time API is queried periodically and its answer anchored to the monotonic clock
+// now() is answered from the anchor with no I/O; a failed sync keeps the previous anchor running,
+// so the time stays trusted until the anchor is older than the maximum sync age
+// Every sync also compares the remote time with the monotonic clock to estimate its drift
+@Component
+public class TrustedClock {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrustedClock.class);
+
+    private final RestTemplate restTemplate;
+    private final String timeApiUrl;
+    private final ZoneId zone;
+    private final long maxSyncAgeNanos;
+    private final LongSupplier nanoTime;
+
+    // Remote time in epoch nanoseconds at a point of the monotonic clock
+    private record Anchor(long epochNanos, long nanoTime) {
+    }
+
+    private volatile Anchor anchor;
+    private volatile Anchor firstAnchor;
+    private volatile long lastRoundTripNanos = -1;
+
+    @Autowired
+    public TrustedClock(@Value("${time.api.base-url:https://timeapi.io/api/Time/current/zone}") String timeApiBaseUrl,
+                        @Value("${time.zone:America/La_Paz}") String zone,
+                        @Value("${time.sync.timeout-ms:3000}") int timeoutMillis,
+                        @Value("${time.sync.max-age-ms:86400000}") long maxSyncAgeMillis) {
+        this(timeApiBaseUrl, ZoneId.of(zone), timeoutMillis, maxSyncAgeMillis, System::nanoTime);
+    }
+
+    TrustedClock(String timeApiBaseUrl, ZoneId zone, int timeoutMillis, long maxSyncAgeMillis, LongSupplier nanoTime) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.timeApiUrl = timeApiBaseUrl + "?timeZone=" + zone.getId();
+        this.zone = zone;
+        this.maxSyncAgeNanos = maxSyncAgeMillis * 1_000_000;
+        this.nanoTime = nanoTime;
+    }
+
+    // First sync during startup so the scheduler starts on trusted time when the API is reachable
+    @PostConstruct
+    public void initialSync() {
+        sync();
+    }
+
+    @Scheduled(fixedDelayString = "${time.sync.interval-ms:900000}", initialDelayString = "${time.sync.interval-ms:900000}")
+    public void scheduledSync() {
+        sync();
+    }
+
+    // Fetches the remote time and re-anchors the clock at the midpoint of the request
+    public boolean sync() {
+        try {
+            long sent = nanoTime.getAsLong();
+            TimeApiResponse response = restTemplate.getForObject(timeApiUrl, TimeApiResponse.class);
+            long received = nanoTime.getAsLong();
+            if (response == null || response.getDateTime() == null) {
+                logger.warn("Time API returned no date and time, keeping the previous anchor");
+                return false;
+            }
+
+            LocalDateTime remote = LocalDateTime.parse(response.getDateTime(), DateTimeFormatter.ISO_DATE_TIME);
+            Instant instant = remote.atZone(zone).toInstant();
+            Anchor synced = new Anchor(instant.getEpochSecond() * 1_000_000_000 + instant.getNano(), sent + (received - sent) / 2);
+            Anchor previous = anchor;
+
+            lastRoundTripNanos = received - sent;
+            anchor = synced;
+            if (firstAnchor == null) {
+                firstAnchor = synced;
+            }
+            if (previous != null) {
+                long offsetMillis = (synced.epochNanos() - project(previous, synced.nanoTime())) / 1_000_000;
+                logger.debug("Time API sync: {} (round trip {} ms, {} ms off the previous anchor)", remote, lastRoundTripNanos / 1_000_000, offsetMillis);
+            } else {
+                logger.info("Time API sync: {} (round trip {} ms)", remote, lastRoundTripNanos / 1_000_000);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to sync with the time API, keeping the previous anchor: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // True while an anchor exists and is younger than the maximum sync age
+    public boolean isSynced() {
+        Anchor current = anchor;
+        return current != null && nanoTime.getAsLong() - current.nanoTime() <= maxSyncAgeNanos;
+    }
+
+    // Trusted time in epoch nanoseconds, -1 before the first successful sync
+    public long now() {
+        Anchor current = anchor;
+        return current != null ? project(current, nanoTime.getAsLong()) : -1;
+    }
+
+    // Trusted local date-time in the configured zone, null before the first successful sync
+    public LocalDateTime currentDateTime() {
+        long now = now();
+        if (now < 0) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(now / 1_000_000_000, now % 1_000_000_000), zone);
+    }
+
+    // Milliseconds since the last successful sync, -1 before the first one
+    public long getSyncAgeMillis() {
+        Anchor current = anchor;
+        return current != null ? (nanoTime.getAsLong() - current.nanoTime()) / 1_000_000 : -1;
+    }
+
+    public long getLastRoundTripMillis() {
+        return lastRoundTripNanos < 0 ? -1 : lastRoundTripNanos / 1_000_000;
+    }
+
+    // Rate at which the monotonic clock runs behind the remote time in parts per million, measured from the
+    // first to the latest sync; null until two syncs exist. A round trip of r limits the accuracy to about
+    // r / elapsed, so the estimate sharpens as the syncs spread out
+    public Double getEstimatedDriftPpm() {
+        Anchor first = firstAnchor;
+        Anchor latest = anchor;
+        if (first == null || latest == null || latest.nanoTime() == first.nanoTime()) {
+            return null;
+        }
+        long monotonicElapsed = latest.nanoTime() - first.nanoTime();
+        long remoteElapsed = latest.epochNanos() - first.epochNanos();
+        return (remoteElapsed - monotonicElapsed) * 1e6 / monotonicElapsed;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    private static long project(Anchor anchor, long nanoTime) {
+        return anchor.epochNanos() + (nanoTime - anchor.nanoTime());
+    }
+
+    // Response mapping of the time API JSON structure
+    private static class TimeApiResponse {
+        private String dateTime;
+
+        public String getDateTime() {
+            return dateTime;
+        }
+
+        public void setDateTime(String dateTime) {
+            this.dateTime = dateTime;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.config.TbwRecordMigrationCompletedEvent;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.WriteRateResponseDTO;
+import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
+import com.cristianml.SSDMonitoringApi.service.IWriteRate;
+import com.cristianml.SSDMonitoringApi.utilities.TbwBlockCodec;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Per-SSD write-rate and endurance statistics kept in memory and updated with every TBW reading
+// Seeded from the tbw_records history before the scheduler starts, and once more when an online conversion
+// of tbw_records finishes, since only the newest rows are in place at startup. The table is never scanned otherwise
+@Service
+public class WriteRateServiceImpl implements IWriteRate {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteRateServiceImpl.class);
+
+    private final TbwRecordRepository tbwRecordRepository;
+    private final SSDRepository ssdRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double halfLifeDays;
+
+    private final Map<Long, WriteRateStats> statsBySsdId = new ConcurrentHashMap<>();
+
+    public WriteRateServiceImpl(TbwRecordRepository tbwRecordRepository, SSDRepository ssdRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${tbw.write-rate.ewma-half-life-days:7}") double halfLifeDays) {
+        this.tbwRecordRepository = tbwRecordRepository;
+        this.ssdRepository = ssdRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.halfLifeDays = halfLifeDays;
+    }
+
+    // Runs during context startup, before scheduled tasks can deliver readings
+    @PostConstruct
+    public void seed() {
+        statsBySsdId.putAll(load());
+    }
+
+    // The history is complete only now, rebuilt statistics replace the ones seeded from the newest rows
+    // A reading recorded while the history is streamed is superseded by the next reading of its SSD
+    @EventListener
+    public void onMigrationCompleted(TbwRecordMigrationCompletedEvent event) {
+        statsBySsdId.putAll(load());
+    }
+
+    // Streams the history in a read-only transaction, one SSD after the other, without holding it in memory
+    private Map<Long, WriteRateStats> load() {
+        long start = System.nanoTime();
+        Map<Long, WriteRateStats> loaded = new ConcurrentHashMap<>();
+        for (SSDEntity ssd : ssdRepository.findAll()) {
+            loaded.computeIfAbsent(ssd.getId(), id -> new WriteRateStats(halfLifeDays)).ratedTbwGB(ssd.getRatedTbwGB());
+        }
+
+        Integer points = readOnlyTransaction.execute(status -> {
+            int count = 0;
+            try (Stream<TbwRecordRepository.TbwRecordPoint> history = tbwRecordRepository.streamAllPoints()) {
+                Iterator<TbwRecordRepository.TbwRecordPoint> iterator = history.iterator();
+                while (iterator.hasNext()) {
+                    TbwRecordRepository.TbwRecordPoint point = iterator.next();
+                    loaded.computeIfAbsent(point.getSsdId(), id -> new WriteRateStats(halfLifeDays))
+                            .update(TbwBlockCodec.toMillis(point.getDate().atTime(point.getTime())), point.getTbw());
+                    count++;
+                }
+            }
+            return count;
+        });
+        logger.info("Write-rate statistics seeded from {} TBW records of {} SSDs in {} ms",
+                points, loaded.size(), (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    // Feeds new readings into the statistics, readings older than the last one of an SSD are ignored
+    public void record(List<TbwRecordServiceImpl.TbwReading> readings, LocalDateTime readAt) {
+        long millis = TbwBlockCodec.toMillis(readAt);
+        for (TbwRecordServiceImpl.TbwReading reading : readings) {
+            WriteRateStats stats = stats(reading.ssd().getId());
+            stats.ratedTbwGB(reading.ssd().getRatedTbwGB());
+            stats.update(millis, reading.tbwInGB());
+        }
+    }
+
+    public void updateRatedTbw(Long ssdId, Long ratedTbwGB) {
+        stats(ssdId).ratedTbwGB(ratedTbwGB);
+    }
+
+    @Override
+    public List<WriteRateResponseDTO> findAll() {
+        return statsBySsdId.entrySet().stream()
+                .map(entry -> toResponseDTO(entry.getKey(), entry.getValue().snapshot()))
+                .sorted(Comparator.comparing(WriteRateResponseDTO::getSsdId))
+                .toList();
+    }
+
+    @Override
+    public Optional<WriteRateResponseDTO> findBySsdId(Long ssdId) {
+        return Optional.ofNullable(statsBySsdId.get(ssdId))
+                .map(stats -> toResponseDTO(ssdId, stats.snapshot()));
+    }
+
+    private WriteRateStats stats(Long ssdId) {
+        return statsBySsdId.computeIfAbsent(ssdId, id -> new WriteRateStats(halfLifeDays));
+    }
+
+    private static WriteRateResponseDTO toResponseDTO(Long ssdId, WriteRateStats.Snapshot snapshot) {
+        Double percentUsed = snapshot.ratedTbwGB() != null && snapshot.lastTbw() != null
+                ? 100.0 * snapshot.lastTbw() / snapshot.ratedTbwGB()
+                : null;
+        return WriteRateResponseDTO.builder()
+                .ssdId(ssdId)
+                .currentTbw(snapshot.lastTbw())
+                .lastReadingAt(snapshot.lastMillis() != null ? TbwBlockCodec.fromMillis(snapshot.lastMillis()) : null)
+                .ewmaGbPerDay(snapshot.ewmaRate())
+                .last7DaysGbPerDay(snapshot.rate7Days())
+                .last30DaysGbPerDay(snapshot.rate30Days())
+                .ratedTbwGB(snapshot.ratedTbwGB())
+                .percentUsed(percentUsed)
+                .projectedExhaustionDate(snapshot.projectedExhaustion())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Streaming write-rate statistics of one SSD, every update and every query is O(1)
+// Timestamps are epoch milliseconds of the local date-time, rates are in GB per day
+// Keeps an exponentially weighted rate with a half-life in days and the last reading of each of the
+// last 32 days in a ring, the 7 and 30 day rates are measured against the ring entry of that day
+class WriteRateStats {
+
+    static final long DAY_MILLIS = 86_400_000L;
+    private static final int RING_DAYS = 32;
+
+    private final double halfLifeDays;
+
+    private long lastMillis = Long.MIN_VALUE;
+    private long lastTbw;
+
+    // Bias corrected EWMA: the rate sum and the weight sum decay together, their ratio is the rate
+    private double weightedRate;
+    private double weight;
+
+    private final long[] ringDay = new long[RING_DAYS];
+    private final long[] ringMillis = new long[RING_DAYS];
+    private final long[] ringTbw = new long[RING_DAYS];
+
+    private Long ratedTbwGB;
+
+    WriteRateStats(double halfLifeDays) {
+        this.halfLifeDays = halfLifeDays;
+        Arrays.fill(ringDay, Long.MIN_VALUE);
+    }
+
+    // Readings at or before the last one are ignored, a counter that went backwards restarts the rate from there
+    synchronized boolean update(long millis, long tbw) {
+        if (lastMillis != Long.MIN_VALUE) {
+            if (millis <= lastMillis) {
+                return false;
+            }
+            if (tbw >= lastTbw) {
+                double elapsedDays = (double) (millis - lastMillis) / DAY_MILLIS;
+                double alpha = 1 - Math.pow(0.5, elapsedDays / halfLifeDays);
+                double rate = (tbw - lastTbw) / elapsedDays;
+                weightedRate = weightedRate * (1 - alpha) + alpha * rate;
+                weight = weight * (1 - alpha) + alpha;
+            }
+        }
+        lastMillis = millis;
+        lastTbw = tbw;
+
+        long day = Math.floorDiv(millis, DAY_MILLIS);
+        int slot = (int) Math.floorMod(day, RING_DAYS);
+        ringDay[slot] = day;
+        ringMillis[slot] = millis;
+        ringTbw[slot] = tbw;
+        return true;
+    }
+
+    synchronized void ratedTbwGB(Long ratedTbwGB) {
+        this.ratedTbwGB = ratedTbwGB;
+    }
+
+    synchronized Snapshot snapshot() {
+        if (lastMillis == Long.MIN_VALUE) {
+            return new Snapshot(null, null, null, null, null, ratedTbwGB, null);
+        }
+        Double ewma = weight > 0 ? weightedRate / weight : null;
+        return new Snapshot(lastMillis, lastTbw, ewma, windowRate(7), windowRate(30), ratedTbwGB, projectExhaustion(ewma));
+    }
+
+    // Rate since the last reading of the day `days` before the last reading, or of the closest earlier
+    // day still in the ring when none was taken that day; null while the history is shorter than the window
+    private Double windowRate(int days) {
+        long today = Math.floorDiv(lastMillis, DAY_MILLIS);
+        long target = today - days;
+        int baseline = -1;
+        for (int slot = 0; slot < RING_DAYS; slot++) {
+            long day = ringDay[slot];
+            if (day <= target && day > today - RING_DAYS && (baseline < 0 || day > ringDay[baseline])) {
+                baseline = slot;
+            }
+        }
+        if (baseline < 0 || lastTbw < ringTbw[baseline]) {
+            return null;
+        }
+        return (lastTbw - ringTbw[baseline]) / ((double) (lastMillis - ringMillis[baseline]) / DAY_MILLIS);
+    }
+
+    // Day the rated TBW is reached at the smoothed rate, the day of the last reading once it is exceeded
+    private LocalDate projectExhaustion(Double rate) {
+        if (ratedTbwGB == null) {
+            return null;
+        }
+        LocalDate lastDay = LocalDate.ofEpochDay(Math.floorDiv(lastMillis, DAY_MILLIS));
+        long remaining = ratedTbwGB - lastTbw;
+        if (remaining <= 0) {
+            return lastDay;
+        }
+        if (rate == null || rate <= 0) {
+            return null;
+        }
+        double days = Math.ceil(remaining / rate);
+        // Beyond any meaningful horizon, also keeps LocalDate in range
+        return days > 365_000 ? null : lastDay.plusDays((long) days);
+    }
+
+    record Snapshot(Long lastMillis, Long lastTbw, Double ewmaRate, Double rate7Days, Double rate30Days,
+                    Long ratedTbwGB, LocalDate projectedExhaustion) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.cristianml.SSDMonitoringApi.utilities;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// Packs a run of time-ordered TBW samples into one compact block and streams them back out
+// Layout: sample count, first timestamp and first counter, then for every further sample the
+// delta-of-delta of its timestamp and the delta of its counter, all as zigzag varints
+// Samples taken on a steady interval from a slowly growing counter cost about two bytes each
+public final class TbwBlockCodec {
+
+    private TbwBlockCodec() {}
+
+    // Timestamps are stored as epoch milliseconds of the local date-time, sub-millisecond precision is dropped
+    public static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public static byte[] encode(long[] timestamps, long[] counters, int offset, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("A block needs at least one sample");
+        }
+        // Worst case is ten bytes per varint
+        byte[] buffer = new byte[5 + 20 * count];
+        int position = writeVarint(buffer, 0, count);
+        position = writeVarint(buffer, position, zigzag(timestamps[offset]));
+        position = writeVarint(buffer, position, zigzag(counters[offset]));
+
+        long previousDelta = 0;
+        for (int i = offset + 1; i < offset + count; i++) {
+            long delta = timestamps[i] - timestamps[i - 1];
+            position = writeVarint(buffer, position, zigzag(delta - previousDelta));
+            position = writeVarint(buffer, position, zigzag(counters[i] - counters[i - 1]));
+            previousDelta = delta;
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public static Cursor open(byte[] block) {
+        return new Cursor(block);
+    }
+
+    // Forward-only reader over one block, decodes a sample per next() call without allocating
+    public static final class Cursor {
+
+        private final byte[] block;
+        private final int size;
+        private int position;
+        private int read;
+        private long timestamp;
+        private long counter;
+        private long delta;
+
+        private Cursor(byte[] block) {
+            this.block = block;
+            this.size = (int) readVarint();
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean next() {
+            if (read == size) {
+                return false;
+            }
+            if (read == 0) {
+                timestamp = unzigzag(readVarint());
+                counter = unzigzag(readVarint());
+            } else {
+                delta += unzigzag(readVarint());
+                timestamp += delta;
+                counter += unzigzag(readVarint());
+            }
+            read++;
+            return true;
+        }
+
+        public long timestamp() {
+            return timestamp;
+        }
+
+        public long counter() {
+            return counter;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= block.length) {
+                    throw new IllegalArgumentException("Truncated TBW block");
+                }
+                byte b = block[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in TBW block");
+        }
+    }
+
+    private static int writeVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.cristianml.SSDMonitoringApi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Load test for GET /ssds/all, excluded from the default build, run with: mvn test -Pload-test
+// Starts the service twice on the replay data source, once with platform threads and once with
+// virtual threads, and raises the number of concurrent callers until the latency objective is missed
+// Tunable with -Dload.levels=100,200,... -Dload.slo-ms=6000 -Dload.device-latency-ms=500
+@Tag("load")
+class SsdAllLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SsdAllLoadTest.class);
+
+    private static final int[] LEVELS = Arrays.stream(System.getProperty("load.levels", "100,200,400,800,1600").split(","))
+            .mapToInt(level -> Integer.parseInt(level.trim()))
+            .toArray();
+    private static final long SLO_MILLIS = Long.getLong("load.slo-ms", 6000);
+    private static final long DEVICE_LATENCY_MILLIS = Long.getLong("load.device-latency-ms", 500);
+
+    @TempDir
+    Path dataDirectory;
+
+    @Test
+    void shouldSustainAtLeastAsManyCallersOnVirtualThreads() throws Exception {
+        int platformCallers = sustainedCallers(false);
+        int virtualCallers = sustainedCallers(true);
+
+        logger.info("Sustained concurrent /ssds/all callers within {} ms: platform threads {}, virtual threads {}",
+                SLO_MILLIS, platformCallers, virtualCallers);
+        // On a host with few cores the requests are CPU bound and both modes land on about the same level,
+        // where run to run noise can move either one a level; virtual threads may fall at most one level short
+        assertTrue(platformCallers > 0, "Platform threads sustained no level within " + SLO_MILLIS + " ms");
+        int minimumVirtualCallers = levelBelow(platformCallers);
+        assertTrue(virtualCallers >= minimumVirtualCallers,
+                "Virtual threads sustained " + virtualCallers + " callers, platform threads " + platformCallers
+                        + ", at least " + minimumVirtualCallers + " expected");
+    }
+
+    // Level preceding the given one, the lowest level when there is none below it
+    private static int levelBelow(int level) {
+        int index = Arrays.stream(LEVELS).boxed().toList().indexOf(level);
+        return index > 0 ? LEVELS[index - 1] : LEVELS[0];
+    }
+
+    // Highest level at which every caller got a 200 response within the latency objective
+    private int sustainedCallers(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        Path replayDirectory = Path.of(SsdAllLoadTest.class.getResource("/replay").toURI());
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SsdTbwMonitoringApiApplication.class).run(
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:sqlite:" + dataDirectory.resolve(mode + ".db"),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.cristianml.SSDMonitoringApi=WARN",
+                "--logging.level.com.cristianml.SSDMonitoringApi.SsdAllLoadTest=INFO",
+                "--hardware.smart.source=replay",
+                "--hardware.replay.directory=" + replayDirectory,
+                "--hardware.replay.latency-ms=" + DEVICE_LATENCY_MILLIS)) {
+
+            URI uri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/ssds/all");
+            // Callers run on platform threads so they do not compete with the service for carrier threads
+            try (ExecutorService callers = Executors.newCachedThreadPool()) {
+                HttpClient client = HttpClient.newBuilder().executor(callers).build();
+                call(client, uri);
+
+                int sustained = 0;
+                for (int level : LEVELS) {
+                    LevelResult result = runLevel(client, callers, uri, level);
+                    logger.info("{} threads, {} callers: {} failed, p50 {} ms, p99 {} ms, max {} ms",
+                            mode, level, result.failures(), result.percentile(50), result.percentile(99), result.percentile(100));
+                    if (result.failures() > 0 || result.percentile(99) > SLO_MILLIS) {
+                        break;
+                    }
+                    sustained = level;
+                }
+                return sustained;
+            }
+        }
+    }
+
+    private LevelResult runLevel(HttpClient client, ExecutorService callers, URI uri, int level) throws InterruptedException {
+        List<Future<Long>> calls = new ArrayList<>();
+        for (int i = 0; i < level; i++) {
+            calls.add(callers.submit(() -> call(client, uri)));
+        }
+
+        long[] latencies = new long[level];
+        int failures = 0;
+        for (int i = 0; i < level; i++) {
+            try {
+                latencies[i] = calls.get(i).get();
+            } catch (Exception e) {
+                latencies[i] = Long.MAX_VALUE;
+                failures++;
+            }
+        }
+        Arrays.sort(latencies);
+        return new LevelResult(latencies, failures);
+    }
+
+    // Latency of one request in milliseconds, fails on timeout or any status other than 200
+    private long call(HttpClient client, URI uri) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofMillis(SLO_MILLIS * 4)).GET().build();
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        assertEquals(200, response.statusCode());
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private record LevelResult(long[] sortedLatencies, int failures) {
+        long percentile(int percentile) {
+            int index = Math.max(0, (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1);
+            return sortedLatencies[index];
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.cristianml.SSDMonitoringApi.benchmark;
+
+import com.cristianml.SSDMonitoringApi.hardware.SmartSnapshot;
+import com.cristianml.SSDMonitoringApi.hardware.SmartctlJsonParser;
+import com.cristianml.SSDMonitoringApi.hardware.SmartctlTextParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+// Compares the text and JSON smartctl parsers on captured "smartctl -i -A" outputs
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=SmartctlParserBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmartctlParserBenchmark {
+
+    @Param({"nvme-samsung-980-pro", "sata-crucial-mx500"})
+    public String fixture;
+
+    private byte[] textOutput;
+    private byte[] jsonOutput;
+
+    @Setup
+    public void loadFixtures() throws IOException {
+        textOutput = readFixture(fixture + ".txt");
+        jsonOutput = readFixture(fixture + ".json");
+    }
+
+    @Benchmark
+    public SmartSnapshot textParser() throws IOException {
+        return SmartctlTextParser.parse(new ByteArrayInputStream(textOutput));
+    }
+
+    @Benchmark
+    public SmartSnapshot jsonParser() throws IOException {
+        return SmartctlJsonParser.parse(new ByteArrayInputStream(jsonOutput));
+    }
+
+    static byte[] readFixture(String name) throws IOException {
+        try (InputStream in = SmartctlParserBenchmark.class.getResourceAsStream("/smartctl/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing smartctl fixture: " + name);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.cristianml.SSDMonitoringApi.benchmark;
+
+import com.cristianml.SSDMonitoringApi.hardware.SmartSnapshot;
+import com.cristianml.SSDMonitoringApi.hardware.SmartctlTextParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Throughput and allocation of the smartctl text parser on captured SATA and NVMe outputs
+// Allocation per operation is reported by the GC profiler (gc.alloc.rate.norm):
+// mvn -Pbenchmark test-compile exec:exec -Djmh.args="SmartctlTextParserBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmartctlTextParserBenchmark {
+
+    private static final byte[] SCAN_OUTPUT = """
+            /dev/sda -d sat # /dev/sda [SAT], ATA device
+            /dev/sdb -d sat # /dev/sdb [SAT], ATA device
+            /dev/nvme0 -d nvme # /dev/nvme0, NVMe device
+            /dev/nvme1 -d nvme # /dev/nvme1, NVMe device
+            """.getBytes(StandardCharsets.US_ASCII);
+
+    @Benchmark
+    public SmartSnapshot parseSnapshot(Fixture fixture) throws IOException {
+        return SmartctlTextParser.parse(new ByteArrayInputStream(fixture.textOutput));
+    }
+
+    @Benchmark
+    public List<String> parseScan() throws IOException {
+        return SmartctlTextParser.parseScan(new ByteArrayInputStream(SCAN_OUTPUT));
+    }
+
+    @State(Scope.Benchmark)
+    public static class Fixture {
+
+        @Param({"nvme-samsung-980-pro", "sata-crucial-mx500"})
+        public String name;
+
+        private byte[] textOutput;
+
+        @Setup
+        public void load() throws IOException {
+            textOutput = SmartctlParserBenchmark.readFixture(name + ".txt");
+        }
+    }
+}
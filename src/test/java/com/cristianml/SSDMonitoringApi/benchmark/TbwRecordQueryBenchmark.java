@@ -0,0 +1,221 @@
+package com.cristianml.SSDMonitoringApi.benchmark;
+
+import com.cristianml.SSDMonitoringApi.config.LocalDateConverter;
+import com.cristianml.SSDMonitoringApi.config.LocalTimeConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// tbw_records queries of TbwRecordRepository on the former TEXT date/time layout, indexed only by the
+// (date, ssd_id) unique constraint, versus the integer epoch_day/second_of_day layout with its covering indexes
+// Both SQLite files hold the same records: one per SSD and day, ssds x days rows (2 000 000 by default)
+// Dates and times are mapped back through the JPA converters of each layout, scores are microseconds per query
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="TbwRecordQueryBenchmark -p days=2000"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TbwRecordQueryBenchmark {
+
+    @Param("500")
+    public int ssds;
+
+    @Param("4000")
+    public int days;
+
+    private final LocalDateConverter dateConverter = new LocalDateConverter();
+    private final LocalTimeConverter timeConverter = new LocalTimeConverter();
+
+    private Path workDir;
+    private Connection textDb;
+    private Connection epochDb;
+    private LocalDate lastDay;
+    private LocalDate middleDay;
+    private int probedSsd;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        workDir = Files.createTempDirectory("tbw-records-bench");
+        lastDay = LocalDate.of(2026, 10, 16);
+        middleDay = lastDay.minusDays(days / 2);
+        probedSsd = ssds / 2;
+
+        textDb = DriverManager.getConnection("jdbc:sqlite:" + workDir.resolve("text.db"));
+        try (Statement statement = textDb.createStatement()) {
+            statement.execute("CREATE TABLE tbw_records (id integer, date TEXT not null, tbw bigint not null, time TEXT not null, "
+                    + "ssd_id bigint not null, primary key (id), unique (date, ssd_id))");
+        }
+        epochDb = DriverManager.getConnection("jdbc:sqlite:" + workDir.resolve("epoch.db"));
+        try (Statement statement = epochDb.createStatement()) {
+            statement.execute("CREATE TABLE tbw_records (id integer, epoch_day INTEGER not null, second_of_day INTEGER not null, "
+                    + "tbw bigint not null, ssd_id bigint not null, primary key (id))");
+        }
+
+        textDb.setAutoCommit(false);
+        epochDb.setAutoCommit(false);
+        Random random = new Random(42);
+        try (PreparedStatement textInsert = textDb.prepareStatement("INSERT INTO tbw_records (date, tbw, time, ssd_id) VALUES (?, ?, ?, ?)");
+             PreparedStatement epochInsert = epochDb.prepareStatement("INSERT INTO tbw_records (epoch_day, second_of_day, tbw, ssd_id) VALUES (?, ?, ?, ?)")) {
+            long[] tbw = new long[ssds];
+            for (int day = 0; day < days; day++) {
+                LocalDate date = lastDay.minusDays(days - 1 - day);
+                for (int ssd = 0; ssd < ssds; ssd++) {
+                    LocalTime time = LocalTime.of(17, 0).plusSeconds(random.nextInt(3600));
+                    tbw[ssd] += random.nextInt(80);
+                    textInsert.setString(1, dateConverter.convertToDatabaseColumn(date));
+                    textInsert.setLong(2, tbw[ssd]);
+                    textInsert.setString(3, timeConverter.convertToDatabaseColumn(time));
+                    textInsert.setLong(4, ssd + 1);
+                    textInsert.addBatch();
+                    epochInsert.setLong(1, date.toEpochDay());
+                    epochInsert.setInt(2, time.toSecondOfDay());
+                    epochInsert.setLong(3, tbw[ssd]);
+                    epochInsert.setLong(4, ssd + 1);
+                    epochInsert.addBatch();
+                }
+                if (day % 100 == 99) {
+                    textInsert.executeBatch();
+                    epochInsert.executeBatch();
+                }
+            }
+            textInsert.executeBatch();
+            epochInsert.executeBatch();
+        }
+        textDb.commit();
+        epochDb.commit();
+        textDb.setAutoCommit(true);
+        epochDb.setAutoCommit(true);
+
+        // Same indexes TbwRecordSchemaMigration creates, built after the load
+        try (Statement statement = epochDb.createStatement()) {
+            statement.execute("CREATE UNIQUE INDEX uk_tbw_records_day_ssd ON tbw_records (epoch_day, ssd_id)");
+            statement.execute("CREATE INDEX idx_tbw_records_ssd_day ON tbw_records (ssd_id, epoch_day, second_of_day, tbw)");
+            statement.execute("CREATE INDEX idx_tbw_records_day ON tbw_records (epoch_day, second_of_day, ssd_id, tbw)");
+        }
+        for (Connection connection : new Connection[]{textDb, epochDb}) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+        }
+        System.out.printf("%nTEXT layout: %d MB, integer layout: %d MB, %d rows each%n",
+                Files.size(workDir.resolve("text.db")) >> 20, Files.size(workDir.resolve("epoch.db")) >> 20, (long) ssds * days);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        textDb.close();
+        epochDb.close();
+        Files.deleteIfExists(workDir.resolve("text.db"));
+        Files.deleteIfExists(workDir.resolve("epoch.db"));
+        Files.deleteIfExists(workDir);
+    }
+
+    // findTopByOrderByDateDesc
+    @Benchmark
+    public LocalDate latestText() throws SQLException {
+        try (PreparedStatement query = textDb.prepareStatement("SELECT date FROM tbw_records ORDER BY date DESC LIMIT 1");
+             ResultSet rows = query.executeQuery()) {
+            return rows.next() ? dateConverter.convertToEntityAttribute(rows.getString(1)) : null;
+        }
+    }
+
+    @Benchmark
+    public LocalDate latestEpoch() throws SQLException {
+        try (PreparedStatement query = epochDb.prepareStatement("SELECT epoch_day FROM tbw_records ORDER BY epoch_day DESC LIMIT 1");
+             ResultSet rows = query.executeQuery()) {
+            return rows.next() ? LocalDate.ofEpochDay(rows.getLong(1)) : null;
+        }
+    }
+
+    // existsByDate
+    @Benchmark
+    public boolean existsText() throws SQLException {
+        try (PreparedStatement query = textDb.prepareStatement("SELECT id FROM tbw_records WHERE date = ? LIMIT 1")) {
+            query.setString(1, dateConverter.convertToDatabaseColumn(middleDay));
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean existsEpoch() throws SQLException {
+        try (PreparedStatement query = epochDb.prepareStatement("SELECT id FROM tbw_records WHERE epoch_day = ? LIMIT 1")) {
+            query.setLong(1, middleDay.toEpochDay());
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    // findByDate, every SSD of one day
+    @Benchmark
+    public long dayText() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement query = textDb.prepareStatement("SELECT ssd_id, time, tbw FROM tbw_records WHERE date = ?")) {
+            query.setString(1, dateConverter.convertToDatabaseColumn(middleDay));
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    checksum += rows.getLong(1) + timeConverter.convertToEntityAttribute(rows.getString(2)).getSecond() + rows.getLong(3);
+                }
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long dayEpoch() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement query = epochDb.prepareStatement("SELECT ssd_id, second_of_day, tbw FROM tbw_records WHERE epoch_day = ?")) {
+            query.setLong(1, middleDay.toEpochDay());
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    checksum += rows.getLong(1) + LocalTime.ofSecondOfDay(rows.getInt(2)).getSecond() + rows.getLong(3);
+                }
+            }
+        }
+        return checksum;
+    }
+
+    // Last 30 days of one SSD, the lookup only the (ssd_id, epoch_day) index serves
+    @Benchmark
+    public long ssdRangeText() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement query = textDb.prepareStatement(
+                "SELECT date, tbw FROM tbw_records WHERE ssd_id = ? AND date > ? ORDER BY date")) {
+            query.setLong(1, probedSsd);
+            query.setString(2, dateConverter.convertToDatabaseColumn(lastDay.minusDays(30)));
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    checksum += dateConverter.convertToEntityAttribute(rows.getString(1)).getDayOfMonth() + rows.getLong(2);
+                }
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long ssdRangeEpoch() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement query = epochDb.prepareStatement(
+                "SELECT epoch_day, tbw FROM tbw_records WHERE ssd_id = ? AND epoch_day > ? ORDER BY epoch_day")) {
+            query.setLong(1, probedSsd);
+            query.setLong(2, lastDay.minusDays(30).toEpochDay());
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    checksum += LocalDate.ofEpochDay(rows.getLong(1)).getDayOfMonth() + rows.getLong(2);
+                }
+            }
+        }
+        return checksum;
+    }
+}
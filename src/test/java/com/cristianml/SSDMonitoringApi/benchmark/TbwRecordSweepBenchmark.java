@@ -0,0 +1,126 @@
+package com.cristianml.SSDMonitoringApi.benchmark;
+
+import com.cristianml.SSDMonitoringApi.config.TbwRecordSchemaMigration;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Persistence time of one scheduler sweep over 10, 100 and 1000 SSDs in a SQLite file with the tbw_records schema
+// findThenSave is the former path: per SSD a lookup of today's record, then an insert or an update in its own
+// transaction; upsert is TbwRecordWriter writing the whole sweep in one statement and reading it back, in one transaction
+// Sweeps alternate between a new day (all inserts) and the same day (all updates past the threshold)
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=TbwRecordSweepBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TbwRecordSweepBenchmark {
+
+    private static final long THRESHOLD = 3;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+    private static final LocalTime TIME = LocalTime.of(17, 30);
+
+    @Param({"10", "100", "1000"})
+    public int ssds;
+
+    private Path workDir;
+    private Connection rowConnection;
+    private Connection upsertConnection;
+    private TbwRecordWriter writer;
+    private List<SSDEntity> ssdList;
+    private int rowSweeps;
+    private int upsertSweeps;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        workDir = Files.createTempDirectory("tbw-sweep-bench");
+        rowConnection = open(workDir.resolve("rows.db"));
+        upsertConnection = open(workDir.resolve("upsert.db"));
+        upsertConnection.setAutoCommit(false);
+        writer = new TbwRecordWriter(new JdbcTemplate(new SingleConnectionDataSource(upsertConnection, true)));
+
+        ssdList = new ArrayList<>();
+        for (long id = 1; id <= ssds; id++) {
+            ssdList.add(SSDEntity.builder().id(id).model("SSD " + id).serial("S" + id).build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        rowConnection.close();
+        upsertConnection.close();
+        Files.deleteIfExists(workDir.resolve("rows.db"));
+        Files.deleteIfExists(workDir.resolve("upsert.db"));
+        Files.deleteIfExists(workDir);
+    }
+
+    @Benchmark
+    public int findThenSave() throws SQLException {
+        LocalDate day = FIRST_DAY.plusDays(rowSweeps / 2);
+        long tbw = ++rowSweeps * 4L;
+        int written = 0;
+        try (PreparedStatement find = rowConnection.prepareStatement("SELECT id, tbw FROM tbw_records WHERE ssd_id = ? AND epoch_day = ?");
+             PreparedStatement insert = rowConnection.prepareStatement(
+                     "INSERT INTO tbw_records (epoch_day, second_of_day, tbw, ssd_id) VALUES (?, ?, ?, ?)");
+             PreparedStatement update = rowConnection.prepareStatement("UPDATE tbw_records SET tbw = ? WHERE id = ?")) {
+            for (SSDEntity ssd : ssdList) {
+                rowConnection.setAutoCommit(false);
+                find.setLong(1, ssd.getId());
+                find.setLong(2, day.toEpochDay());
+                try (ResultSet existing = find.executeQuery()) {
+                    if (!existing.next()) {
+                        insert.setLong(1, day.toEpochDay());
+                        insert.setInt(2, TIME.toSecondOfDay());
+                        insert.setLong(3, tbw);
+                        insert.setLong(4, ssd.getId());
+                        written += insert.executeUpdate();
+                    } else if (tbw - existing.getLong(2) >= THRESHOLD) {
+                        update.setLong(1, tbw);
+                        update.setLong(2, existing.getLong(1));
+                        written += update.executeUpdate();
+                    }
+                }
+                rowConnection.commit();
+                rowConnection.setAutoCommit(true);
+            }
+        }
+        return written;
+    }
+
+    @Benchmark
+    public int upsert() throws SQLException {
+        LocalDate day = FIRST_DAY.plusDays(upsertSweeps / 2);
+        long tbw = ++upsertSweeps * 4L;
+        List<TbwRecordEntity> records = new ArrayList<>(ssdList.size());
+        for (SSDEntity ssd : ssdList) {
+            records.add(TbwRecordEntity.builder().ssd(ssd).date(day).time(TIME).tbw(tbw).build());
+        }
+        writer.upsert(records, THRESHOLD);
+        int stored = writer.findDay(day, ssdList).size();
+        upsertConnection.commit();
+        return stored;
+    }
+
+    private static Connection open(Path file) throws SQLException {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + file);
+        new TbwRecordSchemaMigration(dataSource, 1000, 0).prepare();
+        return dataSource.getConnection();
+    }
+}
@@ -0,0 +1,164 @@
+package com.cristianml.SSDMonitoringApi.benchmark;
+
+import com.cristianml.SSDMonitoringApi.config.EpochMillisConverter;
+import com.cristianml.SSDMonitoringApi.utilities.TbwBlockCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Storage size and scan throughput of raw TBW samples: one tbw_samples row per sample versus
+// tbw_sample_blocks rows holding TbwBlockCodec blocks, both in SQLite files shaped like the JPA tables
+// A week of one-minute samples of one SSD, with clock jitter, is stored both ways; bytes per sample
+// are printed at setup, scores are samples per second
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=TbwSampleStorageBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TbwSampleStorageBenchmark {
+
+    private static final int SAMPLES = 7 * 24 * 60;
+    private static final int BLOCK_SIZE = 128;
+
+    private final EpochMillisConverter converter = new EpochMillisConverter();
+
+    private Path workDir;
+    private Connection rowDb;
+    private Connection blockDb;
+    private List<byte[]> blocks;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        workDir = Files.createTempDirectory("tbw-storage-bench");
+        long[] timestamps = new long[SAMPLES];
+        long[] counters = new long[SAMPLES];
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2026, 10, 1, 0, 0);
+        long tbw = 23_273;
+        for (int i = 0; i < SAMPLES; i++) {
+            timestamps[i] = TbwBlockCodec.toMillis(start.plusMinutes(i)) + random.nextInt(500);
+            tbw += random.nextInt(40) == 0 ? 1 : 0;
+            counters[i] = tbw;
+        }
+
+        Path rowFile = workDir.resolve("rows.db");
+        rowDb = DriverManager.getConnection("jdbc:sqlite:" + rowFile);
+        try (Statement statement = rowDb.createStatement()) {
+            statement.execute("CREATE TABLE tbw_samples (id INTEGER PRIMARY KEY AUTOINCREMENT, ssd_id BIGINT NOT NULL, sampled_at INTEGER NOT NULL, tbw BIGINT NOT NULL)");
+            statement.execute("CREATE INDEX idx_tbw_samples_ssd_sampled_at ON tbw_samples (ssd_id, sampled_at)");
+        }
+        rowDb.setAutoCommit(false);
+        try (PreparedStatement insert = rowDb.prepareStatement("INSERT INTO tbw_samples (ssd_id, sampled_at, tbw) VALUES (1, ?, ?)")) {
+            for (int i = 0; i < SAMPLES; i++) {
+                insert.setLong(1, converter.convertToDatabaseColumn(TbwBlockCodec.fromMillis(timestamps[i])));
+                insert.setLong(2, counters[i]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        rowDb.commit();
+        rowDb.setAutoCommit(true);
+
+        blocks = new ArrayList<>();
+        Path blockFile = workDir.resolve("blocks.db");
+        blockDb = DriverManager.getConnection("jdbc:sqlite:" + blockFile);
+        try (Statement statement = blockDb.createStatement()) {
+            statement.execute("CREATE TABLE tbw_sample_blocks (id INTEGER PRIMARY KEY AUTOINCREMENT, ssd_id BIGINT NOT NULL, first_sampled_at INTEGER NOT NULL, "
+                    + "last_sampled_at INTEGER NOT NULL, sample_count INTEGER NOT NULL, data BLOB NOT NULL)");
+            statement.execute("CREATE INDEX idx_tbw_sample_blocks_ssd_first ON tbw_sample_blocks (ssd_id, first_sampled_at)");
+        }
+        blockDb.setAutoCommit(false);
+        try (PreparedStatement insert = blockDb.prepareStatement(
+                "INSERT INTO tbw_sample_blocks (ssd_id, first_sampled_at, last_sampled_at, sample_count, data) VALUES (1, ?, ?, ?, ?)")) {
+            for (int offset = 0; offset < SAMPLES; offset += BLOCK_SIZE) {
+                int count = Math.min(BLOCK_SIZE, SAMPLES - offset);
+                byte[] block = TbwBlockCodec.encode(timestamps, counters, offset, count);
+                blocks.add(block);
+                insert.setLong(1, converter.convertToDatabaseColumn(TbwBlockCodec.fromMillis(timestamps[offset])));
+                insert.setLong(2, converter.convertToDatabaseColumn(TbwBlockCodec.fromMillis(timestamps[offset + count - 1])));
+                insert.setInt(3, count);
+                insert.setBytes(4, block);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        blockDb.commit();
+        blockDb.setAutoCommit(true);
+
+        long encodedBytes = blocks.stream().mapToLong(block -> block.length).sum();
+        System.out.printf("%nRow layout: %.1f bytes per sample on disk%n", (double) vacuumedSize(rowDb, rowFile) / SAMPLES);
+        System.out.printf("Block layout: %.1f bytes per sample on disk, %.2f bytes per sample encoded%n",
+                (double) vacuumedSize(blockDb, blockFile) / SAMPLES, (double) encodedBytes / SAMPLES);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        rowDb.close();
+        blockDb.close();
+        Files.deleteIfExists(workDir.resolve("rows.db"));
+        Files.deleteIfExists(workDir.resolve("blocks.db"));
+        Files.deleteIfExists(workDir);
+    }
+
+    // Current layout: one row per sample, timestamps read from INTEGER epoch millis as the JPA converter does
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long scanRows() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement query = rowDb.prepareStatement("SELECT sampled_at, tbw FROM tbw_samples WHERE ssd_id = 1 ORDER BY sampled_at");
+             ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                checksum += converter.convertToEntityAttribute(rows.getLong(1)).getMinute() + rows.getLong(2);
+            }
+        }
+        return checksum;
+    }
+
+    // Block layout read from SQLite and decoded, timestamps converted back to LocalDateTime
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long scanBlocks() throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement query = blockDb.prepareStatement("SELECT data FROM tbw_sample_blocks WHERE ssd_id = 1 ORDER BY first_sampled_at");
+             ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                TbwBlockCodec.Cursor cursor = TbwBlockCodec.open(rows.getBytes(1));
+                while (cursor.next()) {
+                    checksum += TbwBlockCodec.fromMillis(cursor.timestamp()).getMinute() + cursor.counter();
+                }
+            }
+        }
+        return checksum;
+    }
+
+    // Decoder alone on blocks already in memory
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long decodeBlocks() {
+        long checksum = 0;
+        for (byte[] block : blocks) {
+            TbwBlockCodec.Cursor cursor = TbwBlockCodec.open(block);
+            while (cursor.next()) {
+                checksum += cursor.timestamp() + cursor.counter();
+            }
+        }
+        return checksum;
+    }
+
+    private static long vacuumedSize(Connection connection, Path file) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM");
+        }
+        return Files.size(file);
+    }
+}
@@ -0,0 +1,69 @@
+package com.cristianml.SSDMonitoringApi.benchmark;
+
+import com.cristianml.SSDMonitoringApi.hardware.SmartSnapshot;
+import com.cristianml.SSDMonitoringApi.hardware.SmartctlTextParser;
+import com.cristianml.SSDMonitoringApi.service.impl.SysfsHardwareServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Per-sample cost of reading a write counter from /sys/block stat versus the smartctl path
+// The sysfs path goes through SysfsHardwareServiceImpl.readSectorsWritten, the channel opened by the first sample is reused
+// The smartctl path is emulated by spawning a process that prints a captured "smartctl -i -A" output,
+// so it measures process spawn plus parsing without requiring real drives
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args=WriteCounterSampleBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteCounterSampleBenchmark {
+
+    private Path workDir;
+    private Path smartctlCapture;
+    private SysfsHardwareServiceImpl sysfsService;
+
+    @Setup
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("sysfs-bench");
+        Path statDir = Files.createDirectories(workDir.resolve("block").resolve("nvme0n1"));
+        Files.writeString(statDir.resolve("stat"),
+                "  184211        0 12345678    60813   987654    12345 98765432  2417125        0   640584  2477938        0        0        0        0    51200    11342\n");
+
+        smartctlCapture = workDir.resolve("smartctl.txt");
+        Files.write(smartctlCapture, SmartctlParserBenchmark.readFixture("nvme-samsung-980-pro.txt"));
+
+        sysfsService = new SysfsHardwareServiceImpl(null, null, workDir.toString(), Long.MAX_VALUE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        sysfsService.closeStatChannels();
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long sysfsSample() throws IOException {
+        return sysfsService.readSectorsWritten("nvme0n1");
+    }
+
+    @Benchmark
+    public Long smartctlSample() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("cat", smartctlCapture.toString()).start();
+        SmartSnapshot snapshot;
+        try (InputStream output = process.getInputStream()) {
+            snapshot = SmartctlTextParser.parse(output);
+        }
+        process.waitFor();
+        return snapshot.tbwInGB();
+    }
+}
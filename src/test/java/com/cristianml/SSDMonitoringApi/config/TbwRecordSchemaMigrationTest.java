@@ -0,0 +1,116 @@
+package com.cristianml.SSDMonitoringApi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TbwRecordSchemaMigrationTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    SQLiteDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dataDirectory.resolve("tbw_monitor.db"));
+    }
+
+    @Test
+    void shouldCreateIndexedSchemaOnNewDatabase() throws SQLException {
+        TbwRecordSchemaMigration migration = new TbwRecordSchemaMigration(dataSource, 3, 0);
+        migration.prepare();
+
+        assertFalse(migration.isPending());
+        assertEquals(1, count("SELECT count(*) FROM sqlite_master WHERE name = 'uk_tbw_records_day_ssd'"));
+        assertEquals(1, count("SELECT count(*) FROM sqlite_master WHERE name = 'idx_tbw_records_ssd_day'"));
+        assertEquals(1, count("SELECT count(*) FROM sqlite_master WHERE name = 'idx_tbw_records_day'"));
+    }
+
+    @Test
+    void shouldConvertTextColumnsInBatches() throws SQLException {
+        execute("CREATE TABLE tbw_records (id integer, date TEXT not null, tbw bigint not null, time TEXT not null, ssd_id bigint not null, primary key (id))");
+        execute("INSERT INTO tbw_records (id, date, tbw, time, ssd_id) VALUES "
+                + "(1, '2024-02-29', 100, '23:59:59', 1), (2, '2024-03-01', 110, '00:00:00', 1), "
+                + "(3, '2024-03-01', 200, '17:00:00', 2), (4, '2024-03-02', 120, '00:00:00', 1), "
+                + "(5, '2024-03-02', 121, '18:30:05', 1), (6, '2026-10-16', 130, '17:45:12', 1), (7, '2026-10-16', 210, '17:45:12', 2)");
+
+        TbwRecordSchemaMigration migration = new TbwRecordSchemaMigration(dataSource, 3, 0);
+        migration.prepare();
+
+        // The newest batch is in place before the application starts, the rest is still to copy
+        assertTrue(migration.isPending());
+        assertEquals(3, count("SELECT count(*) FROM tbw_records"));
+        assertEquals(4, count("SELECT count(*) FROM " + TbwRecordSchemaMigration.LEGACY_TABLE));
+        assertEquals(LocalDate.of(2026, 10, 16).toEpochDay(), count("SELECT epoch_day FROM tbw_records WHERE id = 7"));
+        assertEquals(LocalTime.of(17, 45, 12).toSecondOfDay(), count("SELECT second_of_day FROM tbw_records WHERE id = 7"));
+
+        // A record written while the copy runs gets an id above the old ones
+        execute("INSERT INTO tbw_records (epoch_day, second_of_day, tbw, ssd_id) VALUES (" + LocalDate.of(2026, 10, 17).toEpochDay() + ", 61200, 140, 1)");
+        assertEquals(8, count("SELECT max(id) FROM tbw_records"));
+
+        migration.copyRemaining();
+
+        assertFalse(migration.isPending());
+        assertEquals(0, count("SELECT count(*) FROM sqlite_master WHERE name = '" + TbwRecordSchemaMigration.LEGACY_TABLE + "'"));
+        // Duplicated day of SSD 1 on 2024-03-02 keeps the newest row
+        assertEquals(7, count("SELECT count(*) FROM tbw_records"));
+        assertEquals(121, count("SELECT tbw FROM tbw_records WHERE ssd_id = 1 AND epoch_day = " + LocalDate.of(2024, 3, 2).toEpochDay()));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), count("SELECT epoch_day FROM tbw_records WHERE id = 1"));
+        assertEquals(LocalTime.of(23, 59, 59).toSecondOfDay(), count("SELECT second_of_day FROM tbw_records WHERE id = 1"));
+        assertEquals(0, count("SELECT count(*) FROM tbw_records WHERE id = 4"));
+        assertEquals(0, count("SELECT second_of_day FROM tbw_records WHERE id = 2"));
+    }
+
+    @Test
+    void shouldResumeInterruptedConversionOnNextStart() throws SQLException {
+        execute("CREATE TABLE tbw_records (id integer, date TEXT not null, tbw bigint not null, time TEXT not null, ssd_id bigint not null, primary key (id))");
+        execute("INSERT INTO tbw_records (id, date, tbw, time, ssd_id) VALUES "
+                + "(1, '2026-10-14', 100, '17:00:00', 1), (2, '2026-10-15', 110, '17:00:00', 1), (3, '2026-10-16', 120, '17:00:00', 1)");
+        new TbwRecordSchemaMigration(dataSource, 1, 0).prepare();
+
+        // Stopped before the background copy ran
+        TbwRecordSchemaMigration restarted = new TbwRecordSchemaMigration(dataSource, 1, 0);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        restarted.setApplicationEventPublisher(eventPublisher);
+        restarted.prepare();
+        assertTrue(restarted.isPending());
+        assertEquals(2, count("SELECT count(*) FROM tbw_records"));
+
+        restarted.copyRemaining();
+        assertEquals(3, count("SELECT count(*) FROM tbw_records"));
+        assertEquals(LocalDate.of(2026, 10, 14).toEpochDay(), count("SELECT min(epoch_day) FROM tbw_records"));
+        // Consumers seeded from the partial table are told the history is complete
+        verify(eventPublisher).publishEvent(new TbwRecordMigrationCompletedEvent(2));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet result = statement.executeQuery()) {
+            assertTrue(result.next());
+            return result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import com.cristianml.SSDMonitoringApi.hardware.DeviceCircuitBreaker.CircuitOpenException;
+import com.cristianml.SSDMonitoringApi.hardware.ManagedProcessExecutor.ProcessResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ManagedProcessExecutorTest {
+
+    private final ManagedProcessExecutor executor = new ManagedProcessExecutor(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void shouldDrainLargeStderrWithoutBlocking() throws Exception {
+        // 1 MB on stderr fills the pipe buffer many times over, the process only exits if it is drained
+        ProcessResult<String> result = executor.execute(
+                List.of("sh", "-c", "head -c 1048576 /dev/zero | tr '\\0' e >&2; echo done"), 10_000,
+                output -> new String(output.readAllBytes(), StandardCharsets.UTF_8).strip());
+
+        assertEquals("done", result.value());
+        assertEquals(0, result.exitCode());
+        assertEquals(2048, result.errorOutput().length());
+        assertEquals(1, executor.getCompleted());
+        assertEquals(0, executor.getRunning());
+    }
+
+    @Test
+    @EnabledOnOs({OS.LINUX, OS.MAC})
+    void shouldDestroyAndReapProcessOnTimeout() {
+        assertThrows(TimeoutException.class, () -> executor.execute(List.of("sleep", "30"), 200, output -> output.read()));
+
+        assertEquals(1, executor.getSpawned());
+        assertEquals(1, executor.getTimedOut());
+        assertEquals(0, executor.getRunning());
+    }
+
+    @Test
+    void shouldOpenBreakerAfterConsecutiveFailuresAndDoubleBackoff() throws Exception {
+        AtomicLong now = new AtomicLong();
+        DeviceCircuitBreaker breaker = new DeviceCircuitBreaker(2, 1000, 3000, now::get);
+
+        breaker.recordFailure("/dev/sda");
+        breaker.checkAllowed("/dev/sda");
+        breaker.recordFailure("/dev/sda");
+        assertThrows(CircuitOpenException.class, () -> breaker.checkAllowed("/dev/sda"));
+        assertEquals(List.of("/dev/sda"), breaker.openDevices());
+
+        // Backoff expired: one trial call is allowed, its failure reopens with twice the backoff
+        now.set(1000);
+        breaker.checkAllowed("/dev/sda");
+        breaker.recordFailure("/dev/sda");
+        now.set(2999);
+        assertThrows(CircuitOpenException.class, () -> breaker.checkAllowed("/dev/sda"));
+
+        now.set(3000);
+        breaker.checkAllowed("/dev/sda");
+        breaker.recordSuccess("/dev/sda");
+        assertTrue(breaker.openDevices().isEmpty());
+    }
+}
@@ -0,0 +1,63 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import com.cristianml.SSDMonitoringApi.hardware.SmartDataSource.SmartReading;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplaySmartDataSourceTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private ReplaySmartDataSource replaySource;
+
+    @BeforeEach
+    void setUp() throws URISyntaxException {
+        Path directory = Path.of(getClass().getResource("/replay").toURI());
+        // 100 GB per simulated day, one real second equals one simulated day
+        replaySource = new ReplaySmartDataSource(directory, 100, 86_400, 0, nanoTime::get);
+    }
+
+    @Test
+    void shouldListDevicesFromScanCapture() throws Exception {
+        assertEquals(List.of("/dev/sda", "/dev/nvme0"), replaySource.scanDevices());
+    }
+
+    @Test
+    void shouldServeIdentityAndCountersInOneSnapshot() throws Exception {
+        SmartSnapshot sata = replaySource.readSnapshot("/dev/sda").snapshot();
+        SmartSnapshot nvme = replaySource.readSnapshot("/dev/nvme0").snapshot();
+
+        assertEquals("2034E4A1B2C3", sata.serial());
+        assertEquals(500L, sata.capacityGB());
+        assertEquals("S5GXNF0R123456A", nvme.serial());
+        assertNotNull(nvme.tbwInGB());
+        assertNotNull(sata.tbwInGB());
+    }
+
+    @Test
+    void shouldGrowCountersWithAcceleratedTime() throws Exception {
+        long initialNvme = replaySource.readSnapshot("/dev/nvme0").snapshot().tbwInGB();
+        long initialSata = replaySource.readSnapshot("/dev/sda").snapshot().tbwInGB();
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        SmartReading nvme = replaySource.readSnapshot("/dev/nvme0");
+        SmartReading sata = replaySource.readSnapshot("/dev/sda");
+
+        assertEquals(0, nvme.exitCode());
+        assertEquals(initialNvme + 300, nvme.snapshot().tbwInGB(), 1);
+        assertEquals(initialSata + 300, sata.snapshot().tbwInGB(), 1);
+    }
+
+    @Test
+    void shouldFailForUnknownDevice() {
+        assertThrows(IOException.class, () -> replaySource.readSnapshot("/dev/sdz"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> flight = new SingleFlight<>();
+
+    @Test
+    void shouldRunOneAcquisitionForConcurrentCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> leader = callers.submit(() -> flight.execute("/dev/sda", () -> {
+                started.countDown();
+                release.await();
+                return runs.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // A dashboard refresh storm while the first read is still running
+            List<Future<Integer>> joiners = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                joiners.add(callers.submit(() -> flight.execute("/dev/sda", runs::incrementAndGet)));
+            }
+            while (flight.getJoined() < 50) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(1, leader.get());
+            for (Future<Integer> joiner : joiners) {
+                assertEquals(1, joiner.get());
+            }
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1, flight.getExecuted());
+        assertEquals(50, flight.getJoined());
+    }
+
+    @Test
+    void shouldRunDifferentKeysInParallel() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> sda = callers.submit(() -> flight.execute("/dev/sda", () -> {
+                bothRunning.countDown();
+                return bothRunning.await(5, TimeUnit.SECONDS) ? 1 : 0;
+            }));
+            Future<Integer> sdb = callers.submit(() -> flight.execute("/dev/sdb", () -> {
+                bothRunning.countDown();
+                return bothRunning.await(5, TimeUnit.SECONDS) ? 2 : 0;
+            }));
+
+            assertEquals(1, sda.get());
+            assertEquals(2, sdb.get());
+        }
+        assertEquals(0, flight.getJoined());
+    }
+
+    @Test
+    void shouldShareFailureAndStartFreshAcquisitionAfterwards() throws Exception {
+        assertThrows(IOException.class, () -> flight.execute("/dev/sda", () -> {
+            throw new IOException("device gone");
+        }));
+
+        assertEquals(7, flight.execute("/dev/sda", () -> 7));
+        assertEquals(2, flight.getExecuted());
+    }
+}
@@ -0,0 +1,104 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SmartctlParserTest {
+
+    @Test
+    public void testTextParser_Nvme() throws IOException {
+        SmartSnapshot snapshot = SmartctlTextParser.parse(fixture("nvme-samsung-980-pro.txt"));
+
+        assertEquals("Samsung SSD 980 PRO 1TB", snapshot.model());
+        assertEquals("S5GXNF0R123456A", snapshot.serial());
+        assertEquals(1024L, snapshot.capacityGB());
+        assertEquals(61204118L, snapshot.dataUnitsWritten());
+        assertNull(snapshot.totalLbasWritten());
+    }
+
+    @Test
+    public void testTextParser_Sata() throws IOException {
+        SmartSnapshot snapshot = SmartctlTextParser.parse(fixture("sata-crucial-mx500.txt"));
+
+        assertEquals("Crucial/Micron Client SSDs", snapshot.model());
+        assertEquals("2034E4A1B2C3", snapshot.serial());
+        assertEquals(500L, snapshot.capacityGB());
+        assertNull(snapshot.dataUnitsWritten());
+        assertEquals(48752301928L, snapshot.totalLbasWritten());
+    }
+
+    @Test
+    public void testTextParser_HandlesCrlfAndSplitReads() throws IOException {
+        String output = "Model Number:  Test Drive  \r\n"
+                + "Serial Number: ABC123\r\n"
+                + "Namespace 1 Size/Capacity: 2,000,398,934,016 [2.00 TB]\r\n"
+                + "Data Units Written: 1,234,567 [632 GB]\r\n"
+                + "Data Units Read: 9,999,999 [5.11 TB]";
+        // One byte per read forces lines to span buffer refills
+        InputStream oneByteAtATime = new ByteArrayInputStream(output.getBytes()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+
+        SmartSnapshot snapshot = SmartctlTextParser.parse(oneByteAtATime);
+
+        assertEquals("Test Drive", snapshot.model());
+        assertEquals("ABC123", snapshot.serial());
+        assertEquals(2048L, snapshot.capacityGB());
+        assertEquals(1234567L, snapshot.dataUnitsWritten());
+    }
+
+    @Test
+    public void testScanParser_ReturnsFirstTokenOfEachLine() throws IOException {
+        String output = "/dev/sda -d sat # /dev/sda [SAT], ATA device\n\n/dev/nvme0 -d nvme # /dev/nvme0, NVMe device\n";
+
+        assertEquals(List.of("/dev/sda", "/dev/nvme0"),
+                SmartctlTextParser.parseScan(new ByteArrayInputStream(output.getBytes())));
+    }
+
+    @Test
+    public void testJsonParser_MatchesTextParser() throws IOException {
+        for (String name : new String[]{"nvme-samsung-980-pro", "sata-crucial-mx500"}) {
+            SmartSnapshot text = SmartctlTextParser.parse(fixture(name + ".txt"));
+            SmartSnapshot json = SmartctlJsonParser.parse(fixture(name + ".json"));
+
+            assertEquals(text, json, "Parsers disagree on fixture " + name);
+            assertEquals(text.tbwInGB(), json.tbwInGB());
+        }
+    }
+
+    @Test
+    public void testJsonParser_MatchesTextParser_WithoutModelFamily() throws IOException {
+        // A SATA drive unknown to the smartctl database has no family, both parsers fall back to the device model
+        String text = "Device Model:     CT500MX500SSD1\n"
+                + "Serial Number:    2034E4A1B2C3\n"
+                + "User Capacity:    500,107,862,016 bytes [500 GB]\n";
+        String json = "{\"model_name\": \"CT500MX500SSD1\", \"serial_number\": \"2034E4A1B2C3\", "
+                + "\"user_capacity\": {\"blocks\": 976773168, \"bytes\": 500107862016}}";
+
+        SmartSnapshot fromText = SmartctlTextParser.parse(new ByteArrayInputStream(text.getBytes()));
+        SmartSnapshot fromJson = SmartctlJsonParser.parse(new ByteArrayInputStream(json.getBytes()));
+
+        assertEquals("CT500MX500SSD1", fromText.model());
+        assertEquals(fromText, fromJson);
+    }
+
+    @Test
+    public void testJsonParser_RejectsNonObject() {
+        assertThrows(IOException.class, () -> SmartctlJsonParser.parse(new ByteArrayInputStream("[]".getBytes())));
+    }
+
+    private InputStream fixture(String name) {
+        InputStream in = getClass().getResourceAsStream("/smartctl/" + name);
+        assertNotNull(in, "Missing fixture " + name);
+        return in;
+    }
+}
@@ -0,0 +1,184 @@
+package com.cristianml.SSDMonitoringApi.hardware;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SmartdAttrlogTailerTest {
+
+    private static final String LOG_NAME = "attrlog.CT500MX500SSD1-2034E4A1B2C3.ata.csv";
+    private static final String SERIAL = "2034E4A1B2C3";
+    // Model and serial both contain dashes
+    private static final String DASHED_LOG_NAME = "attrlog.WDC_WD10EFRX-68FYTN0-WD-WCC4N1234567.ata.csv";
+    private static final String DASHED_SERIAL = "WD-WCC4N1234567";
+
+    private static final long MAX_AGE_MILLIS = Duration.ofDays(1).toMillis();
+
+    @TempDir
+    Path workDir;
+
+    private Path logDir;
+    private Path log;
+    private Path offsetsFile;
+    private final AtomicLong now = new AtomicLong(millis(LocalDateTime.of(2026, 10, 16, 18, 30)));
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logDir = Files.createDirectory(workDir.resolve("smartmontools"));
+        log = copyFixture(LOG_NAME);
+        offsetsFile = workDir.resolve("offsets.properties");
+    }
+
+    @Test
+    void shouldReadLatestLoggedCounter() {
+        SmartdAttrlogTailer tailer = newTailer();
+        assertTrue(tailer.latestTbwInGB(SERIAL).isEmpty());
+
+        tailer.poll();
+
+        assertEquals(tbwInGB(48752301928L), tailer.latestTbwInGB(SERIAL).orElseThrow());
+        assertTrue(tailer.latestTbwInGB("UNKNOWN").isEmpty());
+    }
+
+    @Test
+    void shouldReadOnlyCompleteLinesAppendedSinceLastPoll() throws IOException {
+        SmartdAttrlogTailer tailer = newTailer();
+        tailer.poll();
+
+        // smartd is still writing the next line
+        append("2026-10-15 19:30:01;\t1;100;0;\t246;100;4876");
+        tailer.poll();
+        assertEquals(tbwInGB(48752301928L), tailer.latestTbwInGB(SERIAL).orElseThrow());
+
+        append("0000000;\t247;100;1523519000;\n");
+        tailer.poll();
+        assertEquals(tbwInGB(48760000000L), tailer.latestTbwInGB(SERIAL).orElseThrow());
+    }
+
+    @Test
+    void shouldResumeFromStoredOffsetsAfterRestart() throws IOException {
+        newTailer().poll();
+        append("2026-10-15 19:30:01;\t1;100;0;\t246;100;48770000000;\n");
+
+        // A new instance knows the last value without rereading the log and picks up the appended line
+        SmartdAttrlogTailer restarted = newTailer();
+        assertEquals(tbwInGB(48752301928L), restarted.latestTbwInGB(SERIAL).orElseThrow());
+
+        restarted.poll();
+        assertEquals(tbwInGB(48770000000L), restarted.latestTbwInGB(SERIAL).orElseThrow());
+    }
+
+    @Test
+    void shouldStartOverWhenLogIsTruncated() throws IOException {
+        SmartdAttrlogTailer tailer = newTailer();
+        tailer.poll();
+
+        Files.writeString(log, "2026-10-16 18:00:01;\t246;100;48800000000;\n");
+        tailer.poll();
+
+        assertEquals(tbwInGB(48800000000L), tailer.latestTbwInGB(SERIAL).orElseThrow());
+    }
+
+    @Test
+    void shouldIgnoreLinesWithoutConfiguredAttribute() {
+        SmartdAttrlogTailer tailer = new SmartdAttrlogTailer(logDir, offsetsFile, List.of(241), MAX_AGE_MILLIS, now::get);
+        tailer.poll();
+
+        assertTrue(tailer.latestTbwInGB(SERIAL).isEmpty());
+        assertEquals(48752301928L, newTailer().parseLbasWritten("2026-10-15 19:00:01;\t9;100;6211;\t246;100;48752301928;"));
+    }
+
+    @Test
+    void shouldMatchLogOfSerialContainingDashes() throws IOException {
+        copyFixture(DASHED_LOG_NAME);
+        SmartdAttrlogTailer tailer = newTailer();
+        tailer.poll();
+
+        assertEquals(tbwInGB(61841600000L), tailer.latestTbwInGB(DASHED_SERIAL).orElseThrow());
+        assertEquals(tbwInGB(48752301928L), tailer.latestTbwInGB(SERIAL).orElseThrow());
+        assertTrue(tailer.latestTbwInGB("68FYTN0-WD").isEmpty());
+    }
+
+    @Test
+    void shouldNotServeValueOlderThanMaxAge() throws IOException {
+        SmartdAttrlogTailer tailer = newTailer();
+        tailer.poll();
+
+        // smartd stopped logging the drive, the value logged at 2026-10-15 19:00:01 expires a day later
+        now.set(millis(LocalDateTime.of(2026, 10, 16, 19, 0, 2)));
+        assertTrue(tailer.latestTbwInGB(SERIAL).isEmpty());
+
+        // Logging resumes
+        append("2026-10-16 19:00:01;\t1;100;0;\t246;100;48790000000;\n");
+        tailer.poll();
+        assertEquals(tbwInGB(48790000000L), tailer.latestTbwInGB(SERIAL).orElseThrow());
+
+        // The time of the last value survives a restart
+        now.set(millis(LocalDateTime.of(2026, 10, 17, 19, 0, 2)));
+        assertTrue(newTailer().latestTbwInGB(SERIAL).isEmpty());
+    }
+
+    @Test
+    void shouldReadBacklogLargerThanOneChunk() throws IOException {
+        SmartdAttrlogTailer tailer = newTailer();
+        tailer.poll();
+
+        // Lines of different length so line ends fall at varying positions against the chunk boundaries
+        StringBuilder backlog = new StringBuilder();
+        long lbasWritten = 48752301928L;
+        while (backlog.length() < 3 * SmartdAttrlogTailer.READ_CHUNK_BYTES) {
+            lbasWritten += 7919;
+            backlog.append("2026-10-16 18:00:01;\t1;100;0;\t9;100;").append(backlog.length() % 997)
+                    .append(";\t246;100;").append(lbasWritten).append(";\n");
+        }
+        append(backlog.toString());
+        append("2026-10-16 18:00:01;\t246;100;4");
+        tailer.poll();
+
+        assertEquals(tbwInGB(lbasWritten), tailer.latestTbwInGB(SERIAL).orElseThrow());
+
+        // The partial line is picked up once complete
+        append("8800000000;\n");
+        tailer.poll();
+        assertEquals(tbwInGB(48800000000L), tailer.latestTbwInGB(SERIAL).orElseThrow());
+    }
+
+    private SmartdAttrlogTailer newTailer() {
+        return new SmartdAttrlogTailer(logDir, offsetsFile, List.of(241, 246), MAX_AGE_MILLIS, now::get);
+    }
+
+    private Path copyFixture(String name) throws IOException {
+        Path target = logDir.resolve(name);
+        try (InputStream fixture = getClass().getResourceAsStream("/attrlog/" + name)) {
+            assertNotNull(fixture, "Missing fixture " + name);
+            Files.copy(fixture, target);
+        }
+        return target;
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void append(String text) throws IOException {
+        Files.writeString(log, text, StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+    }
+
+    private static long tbwInGB(long lbasWritten) {
+        return lbasWritten * 512 / (1024L * 1024 * 1024);
+    }
+}
@@ -0,0 +1,109 @@
+package com.cristianml.SSDMonitoringApi.repository;
+
+import com.cristianml.SSDMonitoringApi.config.TbwRecordSchemaMigration;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TbwRecordWriterTest {
+
+    private static final long THRESHOLD = 3;
+
+    @TempDir
+    Path dataDirectory;
+
+    JdbcTemplate jdbcTemplate;
+    TbwRecordWriter writer;
+
+    private final LocalDate day = LocalDate.of(2026, 10, 17);
+    private final LocalTime time = LocalTime.of(17, 30, 15);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dataDirectory.resolve("tbw_monitor.db"));
+        new TbwRecordSchemaMigration(dataSource, 1000, 0).prepare();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = new TbwRecordWriter(jdbcTemplate);
+    }
+
+    @Test
+    void shouldInsertMissingRecordsAndUpdateOnlyPastThreshold() {
+        SSDEntity grown = ssd(1);
+        SSDEntity unchanged = ssd(2);
+        SSDEntity added = ssd(3);
+        writer.upsert(List.of(record(grown, day, 100), record(unchanged, day, 200)), THRESHOLD);
+
+        int written = writer.upsert(List.of(record(grown, day, 103), record(unchanged, day, 202), record(added, day, 300)), THRESHOLD);
+
+        assertEquals(2, written);
+        List<TbwRecordEntity> stored = writer.findDay(day, List.of(grown, unchanged, added));
+        assertEquals(List.of(103L, 200L, 300L), stored.stream().map(TbwRecordEntity::getTbw).toList());
+        assertSame(unchanged, stored.get(1).getSsd());
+        assertEquals(time, stored.get(0).getTime());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(*) FROM tbw_records", Integer.class));
+    }
+
+    @Test
+    void shouldApplyIncreaseOfAtLeastThreeGigabytesOnly() {
+        SSDEntity ssd = ssd(1);
+        writer.upsert(List.of(record(ssd, day, 1500)), THRESHOLD);
+
+        // 2 GB more is below the threshold and leaves the stored value
+        assertEquals(0, writer.upsert(List.of(record(ssd, day, 1502)), THRESHOLD));
+        assertEquals(1500L, writer.findDay(day, List.of(ssd)).get(0).getTbw());
+
+        // 3 GB more is applied, and the next increase is measured from the new value
+        assertEquals(1, writer.upsert(List.of(record(ssd, day, 1503)), THRESHOLD));
+        assertEquals(0, writer.upsert(List.of(record(ssd, day, 1505)), THRESHOLD));
+        assertEquals(1, writer.upsert(List.of(record(ssd, day, 1510)), THRESHOLD));
+        assertEquals(1510L, writer.findDay(day, List.of(ssd)).get(0).getTbw());
+    }
+
+    @Test
+    void shouldKeepDaysApartAndLeaveOutSsdsWithoutRecord() {
+        SSDEntity ssd = ssd(1);
+        writer.upsert(List.of(record(ssd, day.minusDays(1), 100), record(ssd, day, 150)), THRESHOLD);
+
+        assertEquals(150L, writer.findDay(day, List.of(ssd)).get(0).getTbw());
+        assertEquals(100L, writer.findDay(day.minusDays(1), List.of(ssd)).get(0).getTbw());
+        assertTrue(writer.findDay(day, List.of(ssd(2))).isEmpty());
+    }
+
+    @Test
+    void shouldSplitLargeSweepsIntoSeveralStatements() {
+        List<SSDEntity> ssds = new ArrayList<>();
+        List<TbwRecordEntity> records = new ArrayList<>();
+        for (int i = 1; i <= TbwRecordWriter.MAX_ROWS_PER_STATEMENT + 5; i++) {
+            SSDEntity ssd = ssd(i);
+            ssds.add(ssd);
+            records.add(record(ssd, day, i));
+        }
+
+        assertEquals(records.size(), writer.upsert(records, THRESHOLD));
+        List<TbwRecordEntity> stored = writer.findDay(day, ssds);
+        assertEquals(records.size(), stored.size());
+        assertEquals(TbwRecordWriter.MAX_ROWS_PER_STATEMENT + 5L, stored.get(stored.size() - 1).getTbw());
+    }
+
+    private TbwRecordEntity record(SSDEntity ssd, LocalDate date, long tbw) {
+        return TbwRecordEntity.builder().ssd(ssd).date(date).time(time).tbw(tbw).build();
+    }
+
+    private static SSDEntity ssd(long id) {
+        return SSDEntity.builder().id(id).model("SSD " + id).serial("S" + id).build();
+    }
+}
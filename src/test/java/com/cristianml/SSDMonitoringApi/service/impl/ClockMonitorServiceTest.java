@@ -0,0 +1,61 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ClockMonitorServiceTest {
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final AtomicLong wallMillis = new AtomicLong(1_760_000_000_000L);
+    private final AtomicLong nanoTime = new AtomicLong(42_000_000_000L);
+    private final ClockMonitorService monitor = new ClockMonitorService(eventPublisher, 5000, wallMillis::get, nanoTime::get);
+
+    @Test
+    void shouldNotReportDelayedCheck_WhenBothClocksAdvanced() {
+        // A check that ran three minutes late, the old fixed 60 s expectation reported it as manipulation
+        advance(180_000, 180_000);
+
+        monitor.checkClockIntegrity();
+
+        verifyNoInteractions(eventPublisher);
+        assertEquals(0, monitor.getJumps());
+    }
+
+    @Test
+    void shouldPublishJumpOnce_WhenWallClockIsSetBack() {
+        advance(60_000 - 3_600_000, 60_000);
+
+        monitor.checkClockIntegrity();
+
+        ArgumentCaptor<ClockJumpEvent> event = ArgumentCaptor.forClass(ClockJumpEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(-3_600_000, event.getValue().jumpMillis());
+        assertEquals(-3_600_000, monitor.getLastJumpMillis());
+
+        // The baseline was re-anchored, the next regular check is clean
+        advance(60_000, 60_000);
+        monitor.checkClockIntegrity();
+        verifyNoMoreInteractions(eventPublisher);
+        assertEquals(1, monitor.getJumps());
+    }
+
+    @Test
+    void shouldPublishJump_WhenWallClockJumpsForward() {
+        advance(60_000 + 86_400_000, 60_000);
+
+        monitor.checkClockIntegrity();
+
+        verify(eventPublisher).publishEvent(new ClockJumpEvent(86_400_000, nanoTime.get()));
+    }
+
+    private void advance(long wallDeltaMillis, long monotonicDeltaMillis) {
+        wallMillis.addAndGet(wallDeltaMillis);
+        nanoTime.addAndGet(monotonicDeltaMillis * 1_000_000);
+    }
+}
@@ -0,0 +1,132 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.dataProvider.SsdProvider;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceCircuitBreaker.CircuitOpenException;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceRegistry;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceRegistry.DeviceEntry;
+import com.cristianml.SSDMonitoringApi.hardware.SmartDataSource;
+import com.cristianml.SSDMonitoringApi.hardware.SmartDataSource.SmartReading;
+import com.cristianml.SSDMonitoringApi.hardware.SmartSnapshot;
+import com.cristianml.SSDMonitoringApi.hardware.SnapshotCache;
+import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HardwareServiceImplTest {
+
+    // 1000 GiB expressed in 512-byte logical blocks
+    private static final long THOUSAND_GB_IN_LBAS = 1000L * 1024 * 1024 * 1024 / 512;
+
+    @Mock
+    SSDRepository ssdRepository;
+    @Mock
+    TbwRecordRepository tbwRecordRepository;
+    @Mock
+    SmartDataSource smartDataSource;
+
+    private HardwareServiceImpl hardwareService;
+    private SSDEntity ssd;
+
+    @BeforeEach
+    void setUp() {
+        ssd = SsdProvider.ssdEntityOptionalMock().get();
+        DeviceRegistry deviceRegistry = new DeviceRegistry();
+        deviceRegistry.replaceAll(List.of(new DeviceEntry(ssd.getSerial(), ssd.getModel(), "/dev/nvme0")));
+
+        // A zero max age keeps every read going to the data source
+        hardwareService = new HardwareServiceImpl(ssdRepository, tbwRecordRepository, deviceRegistry,
+                smartDataSource, new SnapshotCache(0), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hardwareService.shutdownProbeExecutor();
+    }
+
+    @Test
+    void shouldKeepMonitoringWhileBreakerIsOpenAndReadAgainAfterBackoff() throws Exception {
+        SmartSnapshot snapshot = new SmartSnapshot(ssd.getModel(), ssd.getSerial(), 1000L, null, THOUSAND_GB_IN_LBAS);
+        when(smartDataSource.readSnapshot("/dev/nvme0"))
+                .thenThrow(new CircuitOpenException("/dev/nvme0", 60_000))
+                .thenReturn(new SmartReading(snapshot, 0));
+
+        assertEquals(-1, hardwareService.getTBWFromSMART(ssd));
+        assertTrue(ssd.getIsMonitored());
+
+        // Backoff expired, the next sweep reads the drive again
+        assertEquals(1000L, hardwareService.getTBWFromSMART(ssd));
+        verify(smartDataSource, times(2)).readSnapshot("/dev/nvme0");
+        verify(ssdRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldKeepMonitoringWhenReadTimesOut() throws Exception {
+        when(smartDataSource.readSnapshot("/dev/nvme0")).thenThrow(new TimeoutException("smartctl did not answer"));
+
+        assertEquals(-1, hardwareService.getTBWFromSMART(ssd));
+        assertTrue(ssd.getIsMonitored());
+        verify(ssdRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldResolveDeviceBySerialWithoutQueryingDatabase() throws Exception {
+        SmartSnapshot snapshot = new SmartSnapshot(ssd.getModel(), ssd.getSerial(), 1000L, null, THOUSAND_GB_IN_LBAS);
+        when(smartDataSource.readSnapshot("/dev/nvme0")).thenReturn(new SmartReading(snapshot, 0));
+
+        assertEquals(1000L, hardwareService.getTBWFromSMART(ssd));
+        assertEquals(1000L, hardwareService.getTBWFromSMART(ssd));
+        verifyNoInteractions(ssdRepository);
+    }
+
+    @Test
+    void shouldCacheSnapshotWhenExitCodeOnlyReportsDiskHealth() throws Exception {
+        SmartSnapshot snapshot = new SmartSnapshot(ssd.getModel(), ssd.getSerial(), 1000L, null, THOUSAND_GB_IN_LBAS);
+        // Bit 6: the device error log has entries, the attributes were read
+        when(smartDataSource.readSnapshot("/dev/nvme0")).thenReturn(new SmartReading(snapshot, 64));
+        DeviceRegistry deviceRegistry = new DeviceRegistry();
+        deviceRegistry.replaceAll(List.of(new DeviceEntry(ssd.getSerial(), ssd.getModel(), "/dev/nvme0")));
+        HardwareServiceImpl service = new HardwareServiceImpl(ssdRepository, tbwRecordRepository, deviceRegistry,
+                smartDataSource, new SnapshotCache(60_000), 2);
+
+        try {
+            assertEquals(1000L, service.getTBWFromSMART(ssd));
+            assertEquals(1000L, service.getTBWFromSMART(ssd));
+            verify(smartDataSource, times(1)).readSnapshot("/dev/nvme0");
+            assertTrue(ssd.getIsMonitored());
+        } finally {
+            service.shutdownProbeExecutor();
+        }
+    }
+
+    @Test
+    void shouldDisableMonitoringWhenDeviceIsGone() throws Exception {
+        when(smartDataSource.scanDevices()).thenReturn(List.of());
+        when(ssdRepository.findById(ssd.getId())).thenReturn(Optional.of(ssd));
+        DeviceRegistry emptyRegistry = new DeviceRegistry();
+        HardwareServiceImpl service = new HardwareServiceImpl(ssdRepository, tbwRecordRepository, emptyRegistry,
+                smartDataSource, new SnapshotCache(0), 2);
+
+        try {
+            assertEquals(-1, service.getTBWFromSMART(ssd));
+            assertFalse(ssd.getIsMonitored());
+            verify(ssdRepository).save(ssd);
+        } finally {
+            service.shutdownProbeExecutor();
+        }
+    }
+}
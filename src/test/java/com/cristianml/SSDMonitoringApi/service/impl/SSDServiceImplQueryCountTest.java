@@ -0,0 +1,102 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.SSDResponseDTO;
+import com.cristianml.SSDMonitoringApi.mapper.SSDMapper;
+import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
+import com.cristianml.SSDMonitoringApi.service.IHardwareService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+// Counts the JDBC statements GET /ssds needs, which must not grow with the number of SSDs
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SSDServiceImplQueryCountTest {
+
+    private static final int RECORDS_PER_SSD = 3;
+
+    @TempDir
+    static Path dataDirectory;
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:sqlite:" + dataDirectory.resolve("tbw_monitor.db"));
+    }
+
+    @Autowired
+    SSDRepository ssdRepository;
+    @Autowired
+    TbwRecordRepository tbwRecordRepository;
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void shouldListSsdsWithTheSameNumberOfStatementsForAnyFleetSize() {
+        SSDServiceImpl ssdService = new SSDServiceImpl(new SSDMapper(), ssdRepository, mock(IHardwareService.class), tbwRecordRepository);
+
+        long smallFleetStatements = statementsToList(ssdService, 3);
+        long largeFleetStatements = statementsToList(ssdService, 50);
+
+        assertEquals(2, smallFleetStatements);
+        assertEquals(smallFleetStatements, largeFleetStatements);
+    }
+
+    // Adds SSDs with their records, then counts the statements of one listing read from an empty persistence context
+    private long statementsToList(SSDServiceImpl ssdService, int addedSsds) {
+        long existing = ssdRepository.count();
+        List<TbwRecordEntity> records = new ArrayList<>();
+        for (long i = existing; i < existing + addedSsds; i++) {
+            SSDEntity ssd = ssdRepository.save(SSDEntity.builder()
+                    .model("SSD " + i)
+                    .serial("SERIAL" + i)
+                    .capacityGB(1000L)
+                    .registrationDate(LocalDateTime.of(2025, 1, 15, 10, 30))
+                    .isMonitored(true)
+                    .build());
+            for (int day = 0; day < RECORDS_PER_SSD; day++) {
+                records.add(TbwRecordEntity.builder()
+                        .ssd(ssd)
+                        .date(LocalDate.of(2025, 4, 1).plusDays(day))
+                        .time(LocalTime.of(18, 0))
+                        .tbw(1000L + day)
+                        .build());
+            }
+        }
+        tbwRecordRepository.saveAll(records);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<SSDResponseDTO> ssds = ssdService.findAll();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(existing + addedSsds, ssds.size());
+        assertTrue(ssds.stream().allMatch(ssd -> ssd.getRecords().size() == RECORDS_PER_SSD
+                && ssd.getRecords().stream().allMatch(record -> record.getSsdId().equals(ssd.getId()))));
+        return statements;
+    }
+}
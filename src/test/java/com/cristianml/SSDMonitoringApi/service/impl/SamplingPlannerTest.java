@@ -0,0 +1,97 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SamplingPlannerTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    private final SamplingPlanner planner = new SamplingPlanner(MINUTE, 60 * MINUTE, 3);
+
+    @Test
+    void shouldSampleNewSsdsImmediately() {
+        List<SSDEntity> ssds = ssds(3);
+
+        assertEquals(ssds, planner.dueSsds(ssds, 0));
+        assertTrue(planner.dueSsds(ssds, 1).isEmpty());
+    }
+
+    @Test
+    void shouldCutSamplesOnMostlyIdleHostWithoutLosingBusyDrives() {
+        // 60 drives: 6 take 2 TB a day, the others 1 GB a day
+        List<SSDEntity> ssds = ssds(60);
+        Map<Long, Double> gbPerMinute = new HashMap<>();
+        ssds.forEach(ssd -> gbPerMinute.put(ssd.getId(), ssd.getId() <= 6 ? 2000.0 / 1440 : 1.0 / 1440));
+        Map<Long, Integer> samples = new HashMap<>();
+
+        for (long now = 0; now < DAY; now += MINUTE) {
+            for (SSDEntity ssd : planner.dueSsds(ssds, now)) {
+                long tbw = (long) (gbPerMinute.get(ssd.getId()) * now / MINUTE);
+                planner.recordSample(ssd.getId(), tbw, now);
+                samples.merge(ssd.getId(), 1, Integer::sum);
+            }
+        }
+
+        int total = samples.values().stream().mapToInt(Integer::intValue).sum();
+        assertTrue(total < 60 * 1440 / 10, "Expected an order of magnitude fewer samples, got " + total);
+        // Busy drives still get a sample about every 3 GB written (~2 minutes)
+        for (long busy = 1; busy <= 6; busy++) {
+            assertTrue(samples.get(busy) >= 1440 / 3, "Busy drive " + busy + " sampled " + samples.get(busy) + " times");
+        }
+        assertTrue(samples.get(60L) <= 40, "Idle drive sampled " + samples.get(60L) + " times");
+    }
+
+    @Test
+    void shouldTightenWhenIdleDriveBecomesBusy() {
+        List<SSDEntity> ssds = ssds(1);
+        long now = 0;
+        long tbw = 0;
+        // Idle for 12 hours: backs off to the longest interval
+        while (now < DAY / 2) {
+            if (!planner.dueSsds(ssds, now).isEmpty()) {
+                planner.recordSample(1L, tbw, now);
+            }
+            now += MINUTE;
+        }
+
+        // Then writes 2 GB per minute: the next samples come at the shortest interval
+        List<Long> sampleTimes = new ArrayList<>();
+        while (sampleTimes.size() < 4) {
+            tbw += 2;
+            if (!planner.dueSsds(ssds, now).isEmpty()) {
+                planner.recordSample(1L, tbw, now);
+                sampleTimes.add(now);
+            }
+            now += MINUTE;
+        }
+        assertTrue(sampleTimes.get(3) - sampleTimes.get(2) <= 3 * MINUTE);
+    }
+
+    @Test
+    void shouldForgetSsdsNoLongerMonitored() {
+        List<SSDEntity> ssds = ssds(2);
+        planner.dueSsds(ssds, 0);
+
+        List<SSDEntity> remaining = ssds.subList(0, 1);
+        List<SSDEntity> due = planner.dueSsds(remaining, 2 * 60 * MINUTE);
+
+        assertEquals(remaining, due);
+    }
+
+    private static List<SSDEntity> ssds(int count) {
+        List<SSDEntity> ssds = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            ssds.add(SSDEntity.builder().id(id).model("SSD " + id).serial("SN" + id).isMonitored(true).build());
+        }
+        return ssds;
+    }
+}
@@ -0,0 +1,115 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.dataProvider.SsdProvider;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceRegistry;
+import com.cristianml.SSDMonitoringApi.hardware.DeviceRegistry.DeviceEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SysfsHardwareServiceImplTest {
+
+    // 2 GiB expressed in 512-byte sectors
+    private static final long TWO_GB_IN_SECTORS = 2L * 1024 * 1024 * 1024 / 512;
+
+    @Mock
+    HardwareServiceImpl smartctlService;
+
+    @TempDir
+    Path sysfsRoot;
+
+    private SysfsHardwareServiceImpl sysfsService;
+    private SSDEntity ssd;
+
+    @BeforeEach
+    void setUp() {
+        ssd = SsdProvider.ssdEntityOptionalMock().get();
+        DeviceRegistry deviceRegistry = new DeviceRegistry();
+        deviceRegistry.replaceAll(List.of(new DeviceEntry(ssd.getSerial(), ssd.getModel(), "/dev/nvme0")));
+
+        sysfsService = new SysfsHardwareServiceImpl(smartctlService, deviceRegistry,
+                sysfsRoot.toString(), 3_600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sysfsService.closeStatChannels();
+    }
+
+    @Test
+    void shouldAddSectorsWrittenSinceBaseline() throws IOException {
+        writeStat("nvme0n1", 1_000_000);
+        when(smartctlService.getTBWFromSMART(ssd)).thenReturn(8000L);
+
+        assertEquals(8000L, sysfsService.getTBWFromSMART(ssd));
+
+        writeStat("nvme0n1", 1_000_000 + TWO_GB_IN_SECTORS);
+        assertEquals(8002L, sysfsService.getTBWFromSMART(ssd));
+
+        // Only the baseline needs smartctl
+        verify(smartctlService, times(1)).getTBWFromSMART(ssd);
+    }
+
+    @Test
+    void shouldRebaselineWhenKernelCounterResets() throws IOException {
+        writeStat("nvme0n1", 5_000_000);
+        when(smartctlService.getTBWFromSMART(ssd)).thenReturn(8000L, 8010L);
+        sysfsService.getTBWFromSMART(ssd);
+
+        // Counter restarts from zero after a reboot
+        writeStat("nvme0n1", 10);
+        assertEquals(8010L, sysfsService.getTBWFromSMART(ssd));
+        verify(smartctlService, times(2)).getTBWFromSMART(ssd);
+    }
+
+    @Test
+    void shouldFallBackToSmartctlWhenStatIsMissing() {
+        when(smartctlService.getTBWFromSMART(ssd)).thenReturn(8000L);
+
+        assertEquals(8000L, sysfsService.getTBWFromSMART(ssd));
+        verify(smartctlService).getTBWFromSMART(ssd);
+    }
+
+    @Test
+    void shouldReadCurrentCounterThroughOpenChannel() throws IOException {
+        writeStat("nvme0n1", 100);
+        assertEquals(100, sysfsService.readSectorsWritten("nvme0n1"));
+
+        // The file is rewritten in place, as sysfs does on every read
+        writeStat("nvme0n1", 2_000_000);
+        assertEquals(2_000_000, sysfsService.readSectorsWritten("nvme0n1"));
+
+        // Closed channels are opened again on the next sample
+        sysfsService.closeStatChannels();
+        writeStat("nvme0n1", 2_000_001);
+        assertEquals(2_000_001, sysfsService.readSectorsWritten("nvme0n1"));
+    }
+
+    @Test
+    void shouldMapDevicePathsToBlockDevices() {
+        assertEquals("nvme0n1", SysfsHardwareServiceImpl.blockDeviceName("/dev/nvme0"));
+        assertEquals("nvme1n1", SysfsHardwareServiceImpl.blockDeviceName("/dev/nvme1n1"));
+        assertEquals("sda", SysfsHardwareServiceImpl.blockDeviceName("/dev/sda"));
+    }
+
+    private void writeStat(String blockDevice, long sectorsWritten) throws IOException {
+        Path dir = Files.createDirectories(sysfsRoot.resolve("block").resolve(blockDevice));
+        String stat = String.format("  184211        0 12345678    60813   %d    12345 %d  2417125        0   640584  2477938        0        0        0        0    51200    11342%n",
+                987654, sectorsWritten);
+        Files.writeString(dir.resolve("stat"), stat);
+    }
+}
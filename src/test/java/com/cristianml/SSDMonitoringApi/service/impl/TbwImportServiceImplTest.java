@@ -0,0 +1,127 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.config.TbwRecordSchemaMigration;
+import com.cristianml.SSDMonitoringApi.dataProvider.SsdProvider;
+import com.cristianml.SSDMonitoringApi.domain.ExportFormat;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwImportResponseDTO;
+import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TbwImportServiceImplTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    JdbcTemplate jdbcTemplate;
+    TbwRecordWriter writer;
+    SSDRepository ssdRepository;
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + dataDirectory.resolve("tbw_monitor.db"));
+        new TbwRecordSchemaMigration(dataSource, 1000, 0).prepare();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = spy(new TbwRecordWriter(jdbcTemplate));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        ssdRepository = mock(SSDRepository.class);
+        // Serials S65XNJ0R789123 (id 1), CT9876543210AB (id 2) and WD1234567890CD (id 3)
+        when(ssdRepository.findAll()).thenReturn(SsdProvider.ssdEntityList());
+    }
+
+    @Test
+    void shouldImportCsvAndRejectUnknownOrMalformedRows() {
+        jdbcTemplate.update("INSERT INTO tbw_records (epoch_day, second_of_day, tbw, ssd_id) VALUES (?, 0, 999, 1)",
+                LocalDate.of(2024, 1, 2).toEpochDay());
+        String csv = "\uFEFFdate,serial,tbw,time\n"
+                + "2024-01-01,S65XNJ0R789123,100,17:00:00\n"
+                + "2024-01-02,S65XNJ0R789123,110,17:00:00\n"
+                + "\"2024-01-01\",\"CT9876543210AB\",200,\n"
+                + "2024-01-01,UNKNOWN,300,17:00:00\n"
+                + "2024-13-01,WD1234567890CD,400,17:00:00\n";
+
+        TbwImportResponseDTO result = service(2).importRecords(stream(csv), ExportFormat.CSV, 0);
+
+        assertNull(result.getError());
+        assertEquals(5, result.getRowsRead());
+        assertEquals(2, result.getRowsImported());
+        assertEquals(1, result.getRowsAlreadyPresent());
+        assertEquals(2, result.getRowsRejected());
+        assertEquals(6, result.getCommittedLine());
+        // The record already stored for the day is kept
+        assertEquals(999, jdbcTemplate.queryForObject("SELECT tbw FROM tbw_records WHERE ssd_id = 1 AND epoch_day = ?",
+                Long.class, LocalDate.of(2024, 1, 2).toEpochDay()));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT second_of_day FROM tbw_records WHERE ssd_id = 2", Integer.class));
+        verify(ssdRepository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldImportNdjson() {
+        String ndjson = "{\"serial\":\"S65XNJ0R789123\",\"date\":\"2024-01-01\",\"time\":\"18:30:00\",\"tbw\":100}\n"
+                + "\n"
+                + "{\"serial\":\"WD1234567890CD\",\"date\":\"2024-01-01\",\"tbw\":400}\n";
+
+        TbwImportResponseDTO result = service(1000).importRecords(stream(ndjson), ExportFormat.NDJSON, 0);
+
+        assertEquals(2, result.getRowsImported());
+        assertEquals(18 * 3600 + 30 * 60, jdbcTemplate.queryForObject("SELECT second_of_day FROM tbw_records WHERE ssd_id = 1", Integer.class));
+    }
+
+    @Test
+    void shouldResumeAfterLastCommittedLine() {
+        String csv = "serial,date,tbw\n"
+                + "S65XNJ0R789123,2024-01-01,100\n"
+                + "S65XNJ0R789123,2024-01-02,110\n"
+                + "S65XNJ0R789123,2024-01-03,120\n"
+                + "S65XNJ0R789123,2024-01-04,130\n";
+        doCallRealMethod().doThrow(new DataAccessResourceFailureException("disk full")).when(writer).insertMissing(anyList());
+
+        TbwImportResponseDTO failed = service(2).importRecords(stream(csv), ExportFormat.CSV, 0);
+        assertEquals("disk full", failed.getError());
+        assertEquals(3, failed.getCommittedLine());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM tbw_records", Integer.class));
+
+        doCallRealMethod().when(writer).insertMissing(anyList());
+        TbwImportResponseDTO resumed = service(2).importRecords(stream(csv), ExportFormat.CSV, failed.getCommittedLine());
+        assertNull(resumed.getError());
+        assertEquals(2, resumed.getRowsRead());
+        assertEquals(2, resumed.getRowsImported());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT count(*) FROM tbw_records", Integer.class));
+    }
+
+    @Test
+    void shouldFailWithoutRequiredCsvColumns() {
+        TbwImportResponseDTO result = service(2).importRecords(stream("model,date\nX,2024-01-01\n"), ExportFormat.CSV, 0);
+
+        assertNotNull(result.getError());
+        assertEquals(0, result.getRowsRead());
+        verifyNoInteractions(writer);
+    }
+
+    private TbwImportServiceImpl service(int batchSize) {
+        return new TbwImportServiceImpl(ssdRepository, writer, transactionTemplate, new ObjectMapper(), batchSize);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
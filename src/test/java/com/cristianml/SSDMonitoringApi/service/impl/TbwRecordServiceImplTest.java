@@ -2,12 +2,15 @@ package com.cristianml.SSDMonitoringApi.service.impl;
 
 import com.cristianml.SSDMonitoringApi.dataProvider.SsdProvider;
 import com.cristianml.SSDMonitoringApi.dataProvider.TbwRecordProvider;
+import com.cristianml.SSDMonitoringApi.domain.ExportFormat;
 import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
 import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordPageResponseDTO;
 import com.cristianml.SSDMonitoringApi.dto.response.TbwRecordResponseDTO;
 import com.cristianml.SSDMonitoringApi.mapper.TbwRecordMapper;
 import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
 import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordWriter;
 import com.cristianml.SSDMonitoringApi.service.IHardwareService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,8 +18,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +41,8 @@ public class TbwRecordServiceImplTest {
     IHardwareService hardwareService;
     @Mock
     TbwRecordMapper tbwRecordMapper;
+    @Mock
+    TbwRecordWriter tbwRecordWriter;
     @InjectMocks
     TbwRecordServiceImpl tbwRecordService;
 
@@ -43,43 +52,133 @@ public class TbwRecordServiceImplTest {
     @Test
     public void testFindAll() {
         // Arrange - Test data preparation
-        List<TbwRecordEntity> tbwRecordEntities = TbwRecordProvider.tbwRecordEntityList();
         List<TbwRecordResponseDTO> tbwRecordDTOs = TbwRecordProvider.tbwRecordResponseDTOList();
+        List<TbwRecordRepository.TbwRecordPoint> points = tbwRecordDTOs.stream()
+                .map(dto -> point(dto.getSsdId(), dto.getDate(), dto.getTbw()))
+                .toList();
 
         // Mock behavior configuration
-        when(tbwRecordRepository.findAll()).thenReturn(tbwRecordEntities);
-        when(tbwRecordMapper.toTbwRecordResponseDTOList(tbwRecordEntities)).thenReturn(tbwRecordDTOs);
+        when(tbwRecordRepository.findAllPoints()).thenReturn(points);
+        for (int i = 0; i < points.size(); i++) {
+            when(tbwRecordMapper.toResponseDTO(points.get(i))).thenReturn(tbwRecordDTOs.get(i));
+        }
 
         // Act - Execute service method
         List<TbwRecordResponseDTO> result = tbwRecordService.findAll();
 
-        // Assert - Verify results
-        verify(tbwRecordRepository, times(1)).findAll();
-        verify(tbwRecordMapper, times(1)).toTbwRecordResponseDTOList(tbwRecordEntities);
+        // Assert - Verify results, records are read as projections without loading their SSDs
+        verify(tbwRecordRepository, times(1)).findAllPoints();
+        verify(tbwRecordRepository, never()).findAll();
         assertEquals(tbwRecordDTOs.size(), result.size());
         assertEquals(1L, result.get(0).getSsdId());
     }
 
+    // method findPage()
+
+    @Test
+    void shouldReturnCursorOfLastRecord_WhenMoreRecordsFollow() {
+        // Arrange - one row more than the page is read to know whether another page follows
+        LocalDate from = LocalDate.of(2025, 4, 1);
+        List<TbwRecordRepository.TbwRecordPoint> points = List.of(
+                point(1L, from, 100L), point(1L, from.plusDays(1), 110L), point(2L, from, 200L));
+        when(tbwRecordRepository.findPage(eq(0L), eq(LocalDate.MIN), eq(from), eq(LocalDate.MAX), argThat(limit -> limit.max() == 3))).thenReturn(points);
+        when(tbwRecordMapper.toResponseDTO(any(TbwRecordRepository.TbwRecordPoint.class))).thenAnswer(invocation -> {
+            TbwRecordRepository.TbwRecordPoint point = invocation.getArgument(0);
+            return TbwRecordResponseDTO.builder().ssdId(point.getSsdId()).date(point.getDate()).tbw(point.getTbw()).build();
+        });
+
+        // Act
+        TbwRecordPageResponseDTO page = tbwRecordService.findPage(null, from, null, null, null, 2);
+
+        // Assert
+        assertEquals(2, page.getRecords().size());
+        assertEquals(1L, page.getNextAfterSsdId());
+        assertEquals(from.plusDays(1), page.getNextAfterDate());
+        verify(tbwRecordRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldStartSsdPageAtRangeStartAndEndOnLastPage() {
+        // Arrange - a cursor before the range start is moved up to it
+        LocalDate from = LocalDate.of(2025, 4, 1);
+        LocalDate to = LocalDate.of(2025, 4, 30);
+        when(tbwRecordRepository.findPageOfSsd(eq(1L), eq(from.minusDays(1)), eq(to), argThat(limit -> limit.max() == TbwRecordServiceImpl.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of(point(1L, from, 100L)));
+        when(tbwRecordMapper.toResponseDTO(any(TbwRecordRepository.TbwRecordPoint.class))).thenReturn(new TbwRecordResponseDTO());
+
+        // Act - the requested size is capped
+        TbwRecordPageResponseDTO page = tbwRecordService.findPage(1L, from, to, null, from.minusDays(10), 50_000);
+
+        // Assert
+        assertEquals(1, page.getRecords().size());
+        assertNull(page.getNextAfterSsdId());
+        assertNull(page.getNextAfterDate());
+    }
+
+    // method exportAll()
+
+    @Test
+    void shouldExportCsvInKeysetPages() throws IOException {
+        // Arrange - a full first page, then the rest
+        List<TbwRecordRepository.TbwRecordPoint> firstPage = new ArrayList<>();
+        for (int day = 0; day < TbwRecordServiceImpl.EXPORT_PAGE_SIZE; day++) {
+            firstPage.add(point(1L, LocalDate.of(2023, 1, 1).plusDays(day), 100L + day));
+        }
+        LocalDate lastDate = firstPage.get(firstPage.size() - 1).getDate();
+        when(tbwRecordRepository.findPage(eq(0L), eq(LocalDate.MIN), eq(LocalDate.MIN), eq(LocalDate.MAX),
+                argThat(limit -> limit.max() == TbwRecordServiceImpl.EXPORT_PAGE_SIZE))).thenReturn(firstPage);
+        when(tbwRecordRepository.findPage(eq(1L), eq(lastDate), eq(LocalDate.MIN), eq(LocalDate.MAX), any()))
+                .thenReturn(List.of(point(2L, LocalDate.of(2025, 4, 1), 200L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        tbwRecordService.exportAll(ExportFormat.CSV, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(TbwRecordServiceImpl.EXPORT_PAGE_SIZE + 2, lines.length);
+        assertEquals("ssd_id,date,time,tbw", lines[0]);
+        assertEquals("1,2023-01-01,18:00:00,100", lines[1]);
+        assertEquals("2,2025-04-01,18:00:00,200", lines[lines.length - 1]);
+        verify(tbwRecordRepository, times(2)).findPage(anyLong(), any(), any(), any(), any());
+        verify(tbwRecordRepository, never()).streamAllPoints();
+    }
+
+    @Test
+    void shouldExportOneJsonObjectPerLine() throws IOException {
+        // Arrange
+        when(tbwRecordRepository.findPage(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(point(1L, LocalDate.of(2025, 4, 1), 100L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        tbwRecordService.exportAll(ExportFormat.NDJSON, out);
+
+        // Assert
+        assertEquals("{\"ssdId\":1,\"date\":\"2025-04-01\",\"time\":\"18:00:00\",\"tbw\":100}\n", out.toString(StandardCharsets.UTF_8));
+        verify(tbwRecordRepository, times(1)).findPage(anyLong(), any(), any(), any(), any());
+    }
+
     @Test
     public void testAutoRegisterTBW_RegisterNewRecords() {
         // Arrange - Test data for new record registration
         LocalDate currentDate = LocalDate.now();
-        LocalTime currentTime = LocalTime.now();
-        Optional<TbwRecordEntity> emptyRecord = Optional.empty(); // No existing record
         List<SSDEntity> ssdEntities = SsdProvider.ssdEntityList();
 
         // Mock behavior configuration
         when(tbwRecordRepository.findTopByOrderByDateDesc()).thenReturn(Optional.empty()); // No previous records
         when(ssdRepository.findByIsMonitored(true)).thenReturn(ssdEntities);
-        when(tbwRecordRepository.findBySsdAndDate(any(SSDEntity.class), eq(currentDate))).thenReturn(emptyRecord);
-        when(tbwRecordRepository.save(any(TbwRecordEntity.class))).thenReturn(new TbwRecordEntity());
+        when(hardwareService.getTBWFromSMART(any(SSDEntity.class))).thenReturn(1500L);
+        when(tbwRecordWriter.upsert(anyList(), anyLong())).thenReturn(ssdEntities.size());
 
         // Act - Execute service method
         boolean result = tbwRecordService.autoRegisterTBW();
 
         // Assert - Verify results
         assertTrue(result); // Expected at least one record registered
-        verify(tbwRecordRepository, times(ssdEntities.size())).save(any(TbwRecordEntity.class)); // Save called for each SSD
+        verify(tbwRecordWriter, times(1)).upsert(argThat(records -> records.size() == ssdEntities.size()
+                && records.stream().allMatch(record -> currentDate.equals(record.getDate()) && record.getTbw() == 1500L)), anyLong());
+        verify(tbwRecordRepository, never()).save(any(TbwRecordEntity.class)); // No per-SSD saves
     }
 
     @Test
@@ -99,6 +198,7 @@ public class TbwRecordServiceImplTest {
         // Assert - Verify results
         assertFalse(result); // No registration should occur
         verify(ssdRepository, never()).findByIsMonitored(anyBoolean()); // Should not proceed to find SSDs
+        verifyNoInteractions(tbwRecordWriter);
     }
 
     @Test
@@ -110,8 +210,8 @@ public class TbwRecordServiceImplTest {
 
         when(tbwRecordRepository.findTopByOrderByDateDesc()).thenReturn(Optional.of(pastRecord));
         when(ssdRepository.findByIsMonitored(true)).thenReturn(SsdProvider.ssdEntityList());
-        when(tbwRecordRepository.findBySsdAndDate(any(SSDEntity.class), any(LocalDate.class))).thenReturn(Optional.empty());
-        when(tbwRecordRepository.save(any(TbwRecordEntity.class))).thenReturn(new TbwRecordEntity());
+        when(hardwareService.getTBWFromSMART(any(SSDEntity.class))).thenReturn(1500L);
+        when(tbwRecordWriter.upsert(anyList(), anyLong())).thenReturn(1);
 
         // Act - Execute service method
         boolean result = tbwRecordService.autoRegisterTBW();
@@ -119,51 +219,18 @@ public class TbwRecordServiceImplTest {
         // Assert - Verify results
         assertTrue(result); // Registration should occur
         verify(ssdRepository, times(1)).findByIsMonitored(true); // Should proceed to find SSDs
-        verify(tbwRecordRepository, atLeastOnce()).save(any(TbwRecordEntity.class)); // Should save records
-    }
-
-    @Test
-    public void testAutoRegisterTBW_MixedRecordExistence() {
-        // Arrange - Setup for mixed record scenario (some exist, some don't)
-        LocalDate currentDate = LocalDate.now();
-        List<SSDEntity> ssdEntities = SsdProvider.ssdEntityList();
-
-        SSDEntity ssd1 = ssdEntities.get(0);
-        SSDEntity ssd2 = ssdEntities.get(1);
-
-        when(tbwRecordRepository.findTopByOrderByDateDesc()).thenReturn(Optional.empty());
-        when(ssdRepository.findByIsMonitored(true)).thenReturn(ssdEntities);
-
-        // First SSD already has a record
-        when(tbwRecordRepository.findBySsdAndDate(eq(ssd1), eq(currentDate)))
-                .thenReturn(Optional.of(new TbwRecordEntity()));
-
-        // Second SSD doesn't have a record
-        when(tbwRecordRepository.findBySsdAndDate(eq(ssd2), eq(currentDate)))
-                .thenReturn(Optional.empty());
-
-        when(tbwRecordRepository.save(any(TbwRecordEntity.class))).thenReturn(new TbwRecordEntity());
-
-        // Act - Execute service method
-        boolean result = tbwRecordService.autoRegisterTBW();
-
-        // Assert - Verify results
-        assertTrue(result); // At least one new record registered
-        verify(tbwRecordRepository, times(2)).save(any(TbwRecordEntity.class)); // Save called once
+        verify(tbwRecordWriter, times(1)).upsert(anyList(), anyLong()); // Should write records
     }
 
     @Test
     public void testAutoRegisterTBW_AllRecordsExist() {
-        // Arrange - Setup for scenario where all records exist
-        LocalDate currentDate = LocalDate.now();
+        // Arrange - Setup for scenario where all records exist and none grew past the threshold
         List<SSDEntity> ssdEntities = SsdProvider.ssdEntityList();
 
         when(tbwRecordRepository.findTopByOrderByDateDesc()).thenReturn(Optional.empty());
         when(ssdRepository.findByIsMonitored(true)).thenReturn(ssdEntities);
-
-        // All SSDs already have records
-        when(tbwRecordRepository.findBySsdAndDate(any(SSDEntity.class), eq(currentDate)))
-                .thenReturn(Optional.of(new TbwRecordEntity()));
+        when(hardwareService.getTBWFromSMART(any(SSDEntity.class))).thenReturn(1500L);
+        when(tbwRecordWriter.upsert(anyList(), anyLong())).thenReturn(0);
 
         // Act - Execute service method
         boolean result = tbwRecordService.autoRegisterTBW();
@@ -176,7 +243,6 @@ public class TbwRecordServiceImplTest {
     @Test
     public void testAutoRegisterTBW_GracefulFailure_Simple() {
         // Arrange - Setup graceful failure scenario (one SSD fails, others succeed)
-        LocalDate currentDate = LocalDate.now();
         List<SSDEntity> ssdEntities = SsdProvider.ssdEntityList();
 
         // No previous records exist
@@ -187,31 +253,19 @@ public class TbwRecordServiceImplTest {
         when(ssdRepository.findByIsMonitored(true))
                 .thenReturn(ssdEntities);
 
-        // Create spy to partially mock the service and control processSsdRegistration behavior
-        TbwRecordServiceImpl spyService = spy(tbwRecordService);
-
-        // First SSD: Simulate failure during processing
-        doThrow(new RuntimeException("Error en SSD 1"))
-                .when(spyService)
-                .processSsdRegistration(eq(ssdEntities.get(0)), eq(currentDate), any(LocalTime.class));
-
-        // Second SSD: Simulate successful registration
-        doReturn(true)
-                .when(spyService)
-                .processSsdRegistration(eq(ssdEntities.get(1)), eq(currentDate), any(LocalTime.class));
-
-        // Third SSD: Simulate successful registration
-        doReturn(true)
-                .when(spyService)
-                .processSsdRegistration(eq(ssdEntities.get(2)), eq(currentDate), any(LocalTime.class));
+        // First SSD: Simulate failure during reading, the others are read
+        when(hardwareService.getTBWFromSMART(ssdEntities.get(0))).thenThrow(new RuntimeException("Error en SSD 1"));
+        when(hardwareService.getTBWFromSMART(ssdEntities.get(1))).thenReturn(700L);
+        when(hardwareService.getTBWFromSMART(ssdEntities.get(2))).thenReturn(900L);
+        when(tbwRecordWriter.upsert(anyList(), anyLong())).thenReturn(2);
 
         // Act - Execute the auto-registration process
-        boolean result = spyService.autoRegisterTBW();
+        boolean result = tbwRecordService.autoRegisterTBW();
 
         // Assert - Verify graceful failure behavior
         assertTrue(result); // Returns true because at least one SSD was successfully registered
-        verify(spyService, times(3))
-                .processSsdRegistration(any(SSDEntity.class), eq(currentDate), any(LocalTime.class));
+        verify(tbwRecordWriter).upsert(argThat(records -> records.size() == 2
+                && records.get(0).getSsd() == ssdEntities.get(1) && records.get(1).getSsd() == ssdEntities.get(2)), anyLong());
     }
 
 
@@ -221,12 +275,12 @@ public class TbwRecordServiceImplTest {
         Long ssdId = ssdEntityOptional.get().getId();
 
         when(this.ssdRepository.findById(ssdId)).thenReturn(ssdEntityOptional);
-        when(this.hardwareService.getTBWFromSMART(anyString())).thenReturn(8051L);
+        when(this.hardwareService.getTBWFromSMART(any(SSDEntity.class))).thenReturn(8051L);
 
         long result = this.tbwRecordService.getCurrentTbwForSSD(ssdId);
 
         verify(this.ssdRepository).findById(anyLong());
-        verify(this.hardwareService).getTBWFromSMART(anyString());
+        verify(this.hardwareService).getTBWFromSMART(any(SSDEntity.class));
         assertEquals(8051L, result);
     }
 
@@ -241,35 +295,75 @@ public class TbwRecordServiceImplTest {
         });
     }
 
-    // method checkAndUpdateTbwRecords()
+    // method exceedsUpdateThreshold()
 
     @Test
-    void shouldUpdateTbwRecord_WhenCurrentTbwIsGreaterThanRecordedByThreshold() {
-        // Arrange
-        LocalDate currentDate = LocalDate.of(2025, 4, 4);
-        SSDEntity ssd = SsdProvider.ssdEntityOptionalMock().get();
-
-        long recordedTbw = 1500L * 1024 * 1024 * 1024;
-        long currentTbw = 1504L * 1024 * 1024 * 1024; // +4GB → supera umbral
+    void shouldCompareReadingsInGigabytes() {
+        // Readings and stored values are GB, an increase of 3 GB is enough
+        assertEquals(TBW_UPDATE_THRESHOLD_IN_TEST, TbwRecordServiceImpl.TBW_UPDATE_THRESHOLD);
+        assertTrue(TbwRecordServiceImpl.exceedsUpdateThreshold(1500L, 1503L));
+        assertFalse(TbwRecordServiceImpl.exceedsUpdateThreshold(1500L, 1502L));
+    }
 
-        TbwRecordEntity existingRecord = new TbwRecordEntity();
-        existingRecord.setId(1L);
-        existingRecord.setDate(currentDate);
-        existingRecord.setTime(LocalTime.now());
-        existingRecord.setTbw(recordedTbw);
+    // methods collectTbwReadings() and persistTbwReadings()
 
-        when(ssdRepository.findByIsMonitored(true)).thenReturn(List.of(ssd));
-        when(tbwRecordRepository.findBySsdAndDate(ssd, currentDate)).thenReturn(Optional.of(existingRecord));
-        when(hardwareService.getTBWFromSMART(ssd.getModel())).thenReturn(currentTbw);
+    @Test
+    void shouldSkipUnavailableSsds_WhenCollectingReadings() {
+        // Arrange
+        List<SSDEntity> ssdEntities = SsdProvider.ssdEntityList();
+        when(hardwareService.getTBWFromSMART(ssdEntities.get(0))).thenReturn(100L);
+        when(hardwareService.getTBWFromSMART(ssdEntities.get(1))).thenReturn(-1L);
+        when(hardwareService.getTBWFromSMART(ssdEntities.get(2))).thenThrow(new RuntimeException("Hardware error"));
 
         // Act
-        tbwRecordService.checkAndUpdateTbwRecords(currentDate);
+        List<TbwRecordServiceImpl.TbwReading> readings = tbwRecordService.collectTbwReadings(ssdEntities);
 
         // Assert
-        verify(tbwRecordRepository).save(argThat(record ->
-                record.getTbw() == currentTbw && record.getId().equals(existingRecord.getId())
-        ));
+        assertEquals(List.of(new TbwRecordServiceImpl.TbwReading(ssdEntities.get(0), 100L)), readings);
+        verifyNoInteractions(tbwRecordRepository);
     }
 
+    @Test
+    void shouldPersistAllReadingsInOneUpsert() {
+        // Arrange
+        LocalDate currentDate = LocalDate.of(2025, 4, 4);
+        LocalTime currentTime = LocalTime.of(18, 0);
+        List<SSDEntity> ssdEntities = SsdProvider.ssdEntityList();
+
+        long recordedTbw = 1500L;
+        List<TbwRecordServiceImpl.TbwReading> readings = List.of(
+                new TbwRecordServiceImpl.TbwReading(ssdEntities.get(0), recordedTbw + 4L),
+                new TbwRecordServiceImpl.TbwReading(ssdEntities.get(1), recordedTbw + 1),
+                new TbwRecordServiceImpl.TbwReading(ssdEntities.get(2), 700L));
+
+        List<TbwRecordEntity> stored = List.of(
+                TbwRecordEntity.builder().id(1L).ssd(ssdEntities.get(0)).date(currentDate).tbw(recordedTbw + 4L).build(),
+                TbwRecordEntity.builder().id(2L).ssd(ssdEntities.get(1)).date(currentDate).tbw(recordedTbw).build(),
+                TbwRecordEntity.builder().id(3L).ssd(ssdEntities.get(2)).date(currentDate).tbw(700L).build());
+        when(tbwRecordWriter.upsert(anyList(), anyLong())).thenReturn(2);
+        when(tbwRecordWriter.findDay(currentDate, ssdEntities)).thenReturn(stored);
 
-}
\ No newline at end of file
+        // Act
+        List<TbwRecordEntity> records = tbwRecordService.persistTbwReadings(readings, currentDate, currentTime);
+
+        // Assert - every reading goes to one upsert, records are returned as stored after it
+        assertSame(stored, records);
+        verify(tbwRecordWriter).upsert(argThat(batch -> batch.size() == 3
+                && batch.get(0).getSsd() == ssdEntities.get(0) && batch.get(0).getTbw() == recordedTbw + 4L
+                && batch.get(2).getSsd() == ssdEntities.get(2) && batch.get(2).getTbw() == 700L
+                && batch.stream().allMatch(record -> currentDate.equals(record.getDate()) && currentTime.equals(record.getTime()))),
+                eq(TBW_UPDATE_THRESHOLD_IN_TEST));
+        verify(tbwRecordRepository, never()).save(any());
+        verify(tbwRecordRepository, never()).saveAll(any());
+        verify(tbwRecordRepository, never()).findBySsdAndDate(any(), any());
+    }
+
+    private static TbwRecordRepository.TbwRecordPoint point(Long ssdId, LocalDate date, Long tbw) {
+        return new TbwRecordRepository.TbwRecordPoint() {
+            public Long getSsdId() { return ssdId; }
+            public LocalDate getDate() { return date; }
+            public LocalTime getTime() { return LocalTime.of(18, 0); }
+            public Long getTbw() { return tbw; }
+        };
+    }
+}
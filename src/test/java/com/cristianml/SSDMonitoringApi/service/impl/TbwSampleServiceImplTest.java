@@ -0,0 +1,131 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.dataProvider.SsdProvider;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.SampleResolution;
+import com.cristianml.SSDMonitoringApi.domain.TbwRollupEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwSampleBlockEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwSampleEntity;
+import com.cristianml.SSDMonitoringApi.mapper.TbwSampleMapper;
+import com.cristianml.SSDMonitoringApi.repository.TbwRollupRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwSampleBlockRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwSampleRepository;
+import com.cristianml.SSDMonitoringApi.utilities.TbwBlockCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TbwSampleServiceImplTest {
+
+    private final SSDEntity ssd = SsdProvider.ssdEntityOptionalMock().get();
+    private final LocalDateTime now = LocalDateTime.of(2026, 10, 16, 18, 30);
+
+    private final TbwSampleServiceImpl sampleService =
+            new TbwSampleServiceImpl(null, null, null, null, null, null, 7, 90, 0, 48, 60, 128);
+
+    @Test
+    void shouldAggregateSamplesByHour() {
+        List<TbwSampleEntity> samples = List.of(
+                sample(now.withHour(10).withMinute(5), 1000L),
+                sample(now.withHour(10).withMinute(40), 1004L),
+                sample(now.withHour(12).withMinute(15), 1010L));
+
+        List<TbwRollupEntity> hours = TbwSampleServiceImpl.aggregateHours(ssd, samples, 998L);
+
+        assertEquals(2, hours.size());
+        assertEquals(now.withHour(10).withMinute(0), hours.get(0).getPeriodStart());
+        assertEquals(1000L, hours.get(0).getMinTbw());
+        assertEquals(1004L, hours.get(0).getMaxTbw());
+        assertEquals(6L, hours.get(0).getDeltaTbw());
+        assertEquals(2, hours.get(0).getSampleCount());
+        // The hour without samples is skipped, the next one starts from the last sample before it
+        assertEquals(now.withHour(12).withMinute(0), hours.get(1).getPeriodStart());
+        assertEquals(6L, hours.get(1).getDeltaTbw());
+    }
+
+    @Test
+    void shouldStartFromFirstSample_WhenNoBaselineExists() {
+        List<TbwRollupEntity> hours = TbwSampleServiceImpl.aggregateHours(ssd,
+                List.of(sample(now.withMinute(0), 1000L), sample(now.withMinute(30), 1003L)), null);
+
+        assertEquals(3L, hours.get(0).getDeltaTbw());
+    }
+
+    @Test
+    void shouldSumHourlyDeltasIntoDays() {
+        List<TbwSampleEntity> samples = List.of(
+                sample(now.minusDays(1).withHour(22), 990L),
+                sample(now.minusDays(1).withHour(23), 995L),
+                sample(now.withHour(1), 1000L),
+                sample(now.withHour(2), 1008L));
+
+        List<TbwRollupEntity> days = TbwSampleServiceImpl.aggregateDays(ssd,
+                TbwSampleServiceImpl.aggregateHours(ssd, samples, 985L));
+
+        assertEquals(2, days.size());
+        assertEquals(SampleResolution.DAY, days.get(0).getResolution());
+        assertEquals(10L, days.get(0).getDeltaTbw());
+        assertEquals(995L, days.get(0).getLastTbw());
+        assertEquals(13L, days.get(1).getDeltaTbw());
+        assertEquals(1000L, days.get(1).getMinTbw());
+        assertEquals(1008L, days.get(1).getMaxTbw());
+        assertEquals(2, days.get(1).getSampleCount());
+    }
+
+    @Test
+    void shouldSelectCoarserResolution_WhenRangeGrowsOrLeavesRetention() {
+        assertEquals(SampleResolution.RAW, sampleService.selectResolution(now.minusHours(24), now, now));
+        assertEquals(SampleResolution.HOUR, sampleService.selectResolution(now.minusDays(7), now, now));
+        // Short range but older than the raw retention
+        assertEquals(SampleResolution.HOUR, sampleService.selectResolution(now.minusDays(10), now.minusDays(9), now));
+        assertEquals(SampleResolution.DAY, sampleService.selectResolution(now.minusDays(120), now, now));
+    }
+
+    @Test
+    void shouldJudgeRetentionAgainstTrustedTime() {
+        TbwSampleRepository sampleRepository = mock(TbwSampleRepository.class);
+        TbwRollupRepository rollupRepository = mock(TbwRollupRepository.class);
+        TbwSampleBlockRepository blockRepository = mock(TbwSampleBlockRepository.class);
+        TimeService timeService = mock(TimeService.class);
+        // Trusted time is far behind the system clock, e.g. a machine whose clock was moved forward
+        LocalDateTime trustedNow = LocalDateTime.of(2020, 1, 1, 12, 0);
+        when(timeService.getCurrentDateTime()).thenReturn(trustedNow);
+        TbwSampleServiceImpl service = new TbwSampleServiceImpl(sampleRepository, rollupRepository, blockRepository,
+                null, mock(TbwSampleMapper.class), timeService, 7, 90, 0, 48, 60, 128);
+
+        service.findHistory(ssd.getId(), trustedNow.minusHours(24), trustedNow);
+
+        // The last day is within the raw retention by trusted time, though older than a week by the system clock
+        verify(sampleRepository).findRange(ssd.getId(), trustedNow.minusHours(24), trustedNow);
+        verify(rollupRepository, never()).findRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldPackSamplesIntoBlocksOfFixedSize() {
+        List<TbwSampleEntity> samples = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            samples.add(sample(now.plusMinutes(i), 1000L + i));
+        }
+
+        List<TbwSampleBlockEntity> blocks = TbwSampleServiceImpl.packBlocks(ssd, samples, 2);
+
+        assertEquals(3, blocks.size());
+        assertEquals(now.plusMinutes(2), blocks.get(1).getFirstSampledAt());
+        assertEquals(now.plusMinutes(3), blocks.get(1).getLastSampledAt());
+        assertEquals(1, blocks.get(2).getSampleCount());
+        TbwBlockCodec.Cursor cursor = TbwBlockCodec.open(blocks.get(1).getData());
+        assertTrue(cursor.next());
+        assertEquals(now.plusMinutes(2), TbwBlockCodec.fromMillis(cursor.timestamp()));
+        assertEquals(1002L, cursor.counter());
+    }
+
+    private TbwSampleEntity sample(LocalDateTime sampledAt, long tbw) {
+        return TbwSampleEntity.builder().ssd(ssd).sampledAt(sampledAt).tbw(tbw).build();
+    }
+}
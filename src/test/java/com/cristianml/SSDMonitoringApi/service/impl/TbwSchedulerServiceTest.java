@@ -0,0 +1,116 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.cristianml.SSDMonitoringApi.dataProvider.SsdProvider;
+import com.cristianml.SSDMonitoringApi.domain.SSDEntity;
+import com.cristianml.SSDMonitoringApi.domain.TbwRecordEntity;
+import com.cristianml.SSDMonitoringApi.repository.SSDRepository;
+import com.cristianml.SSDMonitoringApi.repository.TbwRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TbwSchedulerServiceTest {
+
+    @Mock
+    TbwRecordServiceImpl tbwRecordService;
+    @Mock
+    TimeService timeService;
+    @Mock
+    TbwRecordRepository tbwRecordRepository;
+    @Mock
+    SSDServiceImpl ssdService;
+    @Mock
+    SSDRepository ssdRepository;
+    @Mock
+    TbwSampleServiceImpl tbwSampleService;
+    @Mock
+    WriteRateServiceImpl writeRateService;
+
+    TbwSchedulerService schedulerService;
+
+    private final SSDEntity ssd = SsdProvider.ssdEntityOptionalMock().get();
+
+    @BeforeEach
+    void setUp() {
+        SamplingPlanner planner = new SamplingPlanner(60_000, 3_600_000, 3);
+        schedulerService = new TbwSchedulerService(tbwRecordService, timeService, tbwRecordRepository, ssdService, ssdRepository, planner, tbwSampleService, writeRateService);
+
+        LocalDate today = LocalDate.now();
+        TbwRecordEntity todaysRecord = TbwRecordEntity.builder().id(1L).ssd(ssd).date(today).tbw(1500L).build();
+        when(timeService.getCurrentDateTime()).thenReturn(LocalDateTime.now());
+        when(timeService.isApiDateAvailable()).thenReturn(true);
+        when(tbwRecordRepository.findByDate(today)).thenReturn(List.of(todaysRecord));
+        when(tbwRecordRepository.findTopByOrderByDateDesc()).thenReturn(Optional.of(todaysRecord));
+        when(ssdRepository.findByIsMonitored(true)).thenReturn(List.of(ssd));
+        when(tbwRecordService.collectTbwReadings(List.of(ssd)))
+                .thenReturn(List.of(new TbwRecordServiceImpl.TbwReading(ssd, 1501L)));
+    }
+
+    @Test
+    void shouldLoadDayStateOnFirstTick() {
+        schedulerService.scheduleAutoRegisterTBW();
+
+        verify(timeService).getCurrentDateTime();
+        verify(tbwRecordRepository).deleteByDateAfter(any(LocalDate.class));
+        verify(tbwRecordRepository).findByDate(any(LocalDate.class));
+        verify(ssdRepository).findByIsMonitored(true);
+        // The SSD is due on the first tick, the reading is below the update threshold so nothing is written
+        verify(tbwRecordService).collectTbwReadings(List.of(ssd));
+        verify(tbwSampleService).recordSamples(eq(List.of(new TbwRecordServiceImpl.TbwReading(ssd, 1501L))), any(LocalDateTime.class));
+        verify(writeRateService).record(eq(List.of(new TbwRecordServiceImpl.TbwReading(ssd, 1501L))), any(LocalDateTime.class));
+        verify(tbwRecordService, never()).persistTbwReadings(anyList(), any(), any());
+    }
+
+    @Test
+    void shouldPersistReadingGrownByThresholdInGigabytes() {
+        // 3 GB over the 1500 GB stored today
+        TbwRecordServiceImpl.TbwReading grown = new TbwRecordServiceImpl.TbwReading(ssd, 1503L);
+        when(tbwRecordService.collectTbwReadings(List.of(ssd))).thenReturn(List.of(grown));
+
+        schedulerService.scheduleAutoRegisterTBW();
+
+        verify(tbwRecordService).persistTbwReadings(eq(List.of(grown)), any(LocalDate.class), any());
+    }
+
+    @Test
+    void shouldOnlyReadTrustedTimeOnIdleTick() {
+        schedulerService.scheduleAutoRegisterTBW();
+        clearInvocations(timeService, tbwRecordRepository, ssdRepository, tbwRecordService, tbwSampleService, writeRateService);
+
+        schedulerService.scheduleAutoRegisterTBW();
+
+        verify(timeService).getCurrentDateTime();
+        verifyNoMoreInteractions(timeService);
+        verifyNoInteractions(tbwRecordRepository, ssdRepository, tbwRecordService, tbwSampleService, writeRateService);
+    }
+
+    @Test
+    void shouldReloadDayInProcess_WhenClockJumps() {
+        schedulerService.scheduleAutoRegisterTBW();
+        clearInvocations(timeService, tbwRecordRepository, ssdRepository, tbwRecordService, tbwSampleService, writeRateService);
+
+        schedulerService.onClockJump(new ClockJumpEvent(-3_600_000, System.nanoTime()));
+
+        verify(timeService).getCurrentDateTime();
+        verify(tbwRecordRepository).deleteByDateAfter(any(LocalDate.class));
+        verify(tbwRecordRepository).findByDate(any(LocalDate.class));
+
+        // The reloaded day serves the following idle tick from memory again
+        clearInvocations(timeService, tbwRecordRepository);
+        schedulerService.scheduleAutoRegisterTBW();
+        verify(timeService).getCurrentDateTime();
+        verifyNoMoreInteractions(timeService);
+        verifyNoInteractions(tbwRecordRepository, tbwRecordService);
+    }
+}
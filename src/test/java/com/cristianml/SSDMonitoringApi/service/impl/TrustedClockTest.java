@@ -0,0 +1,123 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the clock against a local stand-in for the time API and a manually advanced monotonic clock
+public class TrustedClockTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private HttpServer server;
+    private final AtomicReference<String> servedDateTime = new AtomicReference<>();
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicLong nanoTime = new AtomicLong(5 * SECOND);
+
+    private TrustedClock clock;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/Time/current/zone", exchange -> {
+            requests.incrementAndGet();
+            lastQuery.set(exchange.getRequestURI().getQuery());
+            String dateTime = servedDateTime.get();
+            byte[] body = dateTime == null ? new byte[0]
+                    : ("{\"year\":2026,\"dateTime\":\"" + dateTime + "\",\"timeZone\":\"America/La_Paz\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(dateTime == null ? 503 : 200, body.length == 0 ? -1 : body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/api/Time/current/zone";
+        clock = new TrustedClock(baseUrl, ZoneId.of("America/La_Paz"), 1000, 3_600_000, nanoTime::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldNotBeSynced_BeforeFirstSync() {
+        assertFalse(clock.isSynced());
+        assertEquals(-1, clock.now());
+        assertNull(clock.currentDateTime());
+        assertEquals(-1, clock.getSyncAgeMillis());
+        assertNull(clock.getEstimatedDriftPpm());
+    }
+
+    @Test
+    void shouldAnswerFromAnchorWithoutCallingTimeApi() {
+        servedDateTime.set("2026-10-16T18:30:00.1234567");
+        assertTrue(clock.sync());
+        assertEquals("timeZone=America/La_Paz", lastQuery.get());
+
+        nanoTime.addAndGet(90 * SECOND);
+
+        assertTrue(clock.isSynced());
+        assertEquals(LocalDateTime.parse("2026-10-16T18:31:30.1234567"), clock.currentDateTime());
+        assertEquals(90_000, clock.getSyncAgeMillis());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void shouldKeepPreviousAnchor_WhenSyncFails() {
+        servedDateTime.set("2026-10-16T18:30:00");
+        clock.sync();
+
+        servedDateTime.set(null);
+        nanoTime.addAndGet(60 * SECOND);
+
+        assertFalse(clock.sync());
+        assertTrue(clock.isSynced());
+        assertEquals(LocalDateTime.parse("2026-10-16T18:31:00"), clock.currentDateTime());
+
+        // Past the maximum sync age the time is no longer trusted
+        nanoTime.addAndGet(3_600 * SECOND);
+        assertFalse(clock.isSynced());
+        assertFalse(new TimeService(clock).isApiDateAvailable());
+    }
+
+    @Test
+    void shouldKeepPreviousAnchor_WhenTimeApiIsUnreachable() {
+        servedDateTime.set("2026-10-16T18:30:00");
+        clock.sync();
+        server.stop(0);
+
+        assertFalse(clock.sync());
+        assertEquals(LocalDateTime.parse("2026-10-16T18:30:00"), clock.currentDateTime());
+    }
+
+    @Test
+    void shouldEstimateDriftOfMonotonicClock() {
+        servedDateTime.set("2026-10-16T18:00:00");
+        clock.sync();
+
+        // The remote clock advanced 10 ms more than the monotonic clock over 1000 s
+        nanoTime.addAndGet(1_000 * SECOND);
+        servedDateTime.set("2026-10-16T18:16:40.010");
+        clock.sync();
+
+        assertEquals(10.0, clock.getEstimatedDriftPpm(), 1e-9);
+        assertEquals(LocalDateTime.parse("2026-10-16T18:16:40.010"), clock.currentDateTime());
+    }
+}
@@ -0,0 +1,89 @@
+package com.cristianml.SSDMonitoringApi.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static com.cristianml.SSDMonitoringApi.service.impl.WriteRateStats.DAY_MILLIS;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteRateStatsTest {
+
+    private final long start = LocalDate.of(2026, 9, 1).toEpochDay() * DAY_MILLIS + 18 * 3_600_000L;
+
+    @Test
+    void shouldTrackSteadyRateAndWindows() {
+        WriteRateStats stats = new WriteRateStats(7);
+        for (int day = 0; day <= 40; day++) {
+            stats.update(start + day * DAY_MILLIS, 10_000 + 50L * day);
+        }
+
+        WriteRateStats.Snapshot snapshot = stats.snapshot();
+
+        assertEquals(12_000L, snapshot.lastTbw());
+        assertEquals(50.0, snapshot.ewmaRate(), 1e-9);
+        assertEquals(50.0, snapshot.rate7Days(), 1e-9);
+        assertEquals(50.0, snapshot.rate30Days(), 1e-9);
+    }
+
+    @Test
+    void shouldFollowRateChangeFasterInShortWindow() {
+        WriteRateStats stats = new WriteRateStats(7);
+        for (int day = 0; day <= 30; day++) {
+            stats.update(start + day * DAY_MILLIS, 10_000 + (day <= 23 ? 10L * day : 230 + 100L * (day - 23)));
+        }
+
+        WriteRateStats.Snapshot snapshot = stats.snapshot();
+
+        assertEquals(100.0, snapshot.rate7Days(), 1e-9);
+        assertEquals(31.0, snapshot.rate30Days(), 1e-9);
+        assertTrue(snapshot.ewmaRate() > snapshot.rate30Days() && snapshot.ewmaRate() < snapshot.rate7Days());
+    }
+
+    @Test
+    void shouldLeaveWindowRatesEmpty_WhenHistoryIsShorter() {
+        WriteRateStats stats = new WriteRateStats(7);
+        stats.update(start, 10_000);
+        stats.update(start + 3 * DAY_MILLIS, 10_300);
+
+        WriteRateStats.Snapshot snapshot = stats.snapshot();
+
+        assertEquals(100.0, snapshot.ewmaRate(), 1e-9);
+        assertNull(snapshot.rate7Days());
+        assertNull(snapshot.rate30Days());
+    }
+
+    @Test
+    void shouldUseClosestEarlierDay_WhenWindowStartHasNoReading() {
+        WriteRateStats stats = new WriteRateStats(7);
+        stats.update(start, 10_000);
+        stats.update(start + 10 * DAY_MILLIS, 11_000);
+
+        assertEquals(100.0, stats.snapshot().rate7Days(), 1e-9);
+    }
+
+    @Test
+    void shouldIgnoreReadingsNotNewerThanLastOne() {
+        WriteRateStats stats = new WriteRateStats(7);
+        assertTrue(stats.update(start + DAY_MILLIS, 10_100));
+
+        assertFalse(stats.update(start, 10_000));
+        assertEquals(10_100L, stats.snapshot().lastTbw());
+        assertNull(stats.snapshot().ewmaRate());
+    }
+
+    @Test
+    void shouldProjectDayRatedTbwIsReached() {
+        WriteRateStats stats = new WriteRateStats(7);
+        stats.update(start, 10_000);
+        stats.update(start + DAY_MILLIS, 10_100);
+
+        assertNull(stats.snapshot().projectedExhaustion());
+
+        stats.ratedTbwGB(20_000L);
+        assertEquals(LocalDate.of(2026, 9, 2).plusDays(99), stats.snapshot().projectedExhaustion());
+
+        stats.ratedTbwGB(10_000L);
+        assertEquals(LocalDate.of(2026, 9, 2), stats.snapshot().projectedExhaustion());
+    }
+}
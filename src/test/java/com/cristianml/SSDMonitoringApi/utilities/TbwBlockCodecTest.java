@@ -0,0 +1,73 @@
+package com.cristianml.SSDMonitoringApi.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TbwBlockCodecTest {
+
+    @Test
+    void shouldRoundTripIrregularSamples() {
+        long[] timestamps = {1_760_000_000_000L, 1_760_000_060_000L, 1_760_000_119_987L, 1_760_000_500_000L, 1_760_000_499_000L};
+        long[] counters = {23_273L, 23_273L, 23_280L, 23_279L, Long.MAX_VALUE / 2};
+
+        TbwBlockCodec.Cursor cursor = TbwBlockCodec.open(TbwBlockCodec.encode(timestamps, counters, 0, timestamps.length));
+
+        assertEquals(timestamps.length, cursor.size());
+        for (int i = 0; i < timestamps.length; i++) {
+            assertTrue(cursor.next());
+            assertEquals(timestamps[i], cursor.timestamp());
+            assertEquals(counters[i], cursor.counter());
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void shouldEncodeSteadySamplesInAboutTwoBytesEach() {
+        int count = 128;
+        long[] timestamps = new long[count];
+        long[] counters = new long[count];
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = 1_760_000_000_000L + i * 60_000L;
+            counters[i] = 23_273L + i / 30;
+        }
+
+        byte[] block = TbwBlockCodec.encode(timestamps, counters, 0, count);
+
+        assertTrue(block.length <= 2 * count + 16, "block of " + block.length + " bytes");
+    }
+
+    @Test
+    void shouldEncodeOnlyRequestedSlice() {
+        long[] timestamps = {1L, 2L, 3L, 4L};
+        long[] counters = {10L, 20L, 30L, 40L};
+
+        TbwBlockCodec.Cursor cursor = TbwBlockCodec.open(TbwBlockCodec.encode(timestamps, counters, 2, 2));
+
+        assertTrue(cursor.next());
+        assertEquals(3L, cursor.timestamp());
+        assertEquals(30L, cursor.counter());
+        assertTrue(cursor.next());
+        assertEquals(40L, cursor.counter());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void shouldRejectTruncatedBlock() {
+        byte[] block = TbwBlockCodec.encode(new long[]{1_760_000_000_000L, 1_760_000_060_000L}, new long[]{5L, 6L}, 0, 2);
+        TbwBlockCodec.Cursor cursor = TbwBlockCodec.open(Arrays.copyOf(block, block.length - 1));
+
+        assertTrue(cursor.next());
+        assertThrows(IllegalArgumentException.class, cursor::next);
+    }
+
+    @Test
+    void shouldConvertTimestampsToMillisecondPrecision() {
+        LocalDateTime sampledAt = LocalDateTime.of(2026, 10, 16, 18, 30, 15, 123_456_789);
+
+        assertEquals(sampledAt.withNano(123_000_000), TbwBlockCodec.fromMillis(TbwBlockCodec.toMillis(sampledAt)));
+    }
+}